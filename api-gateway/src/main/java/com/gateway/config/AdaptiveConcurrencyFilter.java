@@ -0,0 +1,64 @@
+package com.gateway.config;
+
+import com.gateway.limit.GradientLimiter;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds load before the upstream starts queueing. Each route using this
+ * filter gets its own {@link GradientLimiter}, which caps requests in flight
+ * at a limit it tunes from their latency. Requests over the limit get a 429
+ * with {@code Retry-After: 1}. Place it after filters that answer without an
+ * upstream call (the order lookup cache), so those never take a slot.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyFilter extends AbstractGatewayFilterFactory<AdaptiveConcurrencyFilter.Config> {
+
+    public AdaptiveConcurrencyFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        GradientLimiter limiter = new GradientLimiter(config.getInitialLimit(), config.getMinLimit(),
+                config.getMaxLimit(), config.getTolerance());
+        return (exchange, chain) -> {
+            if (!limiter.tryAcquire()) {
+                log.debug("Shedding {} at {} in flight", exchange.getRequest().getPath(), limiter.limit());
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                exchange.getResponse().getHeaders().set("X-Concurrency-Limit", Integer.toString(limiter.limit()));
+                return exchange.getResponse().setComplete();
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    limiter.onIgnore();
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                limiter.onSample(System.nanoTime() - start, failed);
+            });
+        };
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int initialLimit = 10;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private double tolerance = 1.5;
+    }
+}
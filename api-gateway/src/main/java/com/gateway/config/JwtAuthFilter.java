@@ -1,9 +1,7 @@
 package com.gateway.config;
 
-import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.*;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpStatus;
@@ -11,16 +9,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Component
 @Slf4j
 public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Config> {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    /** Exchange attribute holding the verified subject, for filters later on the route. */
+    public static final String USER_ATTR = JwtAuthFilter.class.getName() + ".user";
+
+    private final JwtVerifier jwtVerifier;
+    private final TrustedHopSigner trustedHop;
 
     // Paths that bypass JWT validation
     private static final List<String> OPEN_PATHS = List.of(
@@ -31,13 +30,22 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
             "/api/v1/orders/health"
     );
 
-    public JwtAuthFilter() {
+    public JwtAuthFilter(JwtVerifier jwtVerifier, TrustedHopSigner trustedHop) {
         super(Config.class);
+        this.jwtVerifier = jwtVerifier;
+        this.trustedHop = trustedHop;
     }
 
     @Override
     public GatewayFilter apply(Config config) {
-        return (exchange, chain) -> {
+        return (original, chain) -> {
+            // Identity headers only ever come from this filter, never from the client
+            ServerWebExchange exchange = original.mutate()
+                    .request(r -> r.headers(h -> {
+                        h.remove(TrustedHopSigner.USER_HEADER);
+                        h.remove(TrustedHopSigner.AUTH_HEADER);
+                    }))
+                    .build();
             String path = exchange.getRequest().getPath().toString();
 
             // Skip auth for open paths
@@ -51,14 +59,16 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
 
             String token = authHeader.substring(7);
             try {
-                SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-                Claims claims = Jwts.parser().verifyWith(key).build()
-                        .parseSignedClaims(token).getPayload();
+                String subject = jwtVerifier.verify(token);
 
-                // Forward the subject downstream so services don't re-validate
+                // Forward the subject downstream, signed so services can skip re-validating
                 ServerWebExchange mutated = exchange.mutate()
-                        .request(r -> r.header("X-User-Id", claims.getSubject()))
+                        .request(r -> {
+                            r.header(TrustedHopSigner.USER_HEADER, subject);
+                            if (trustedHop.enabled()) r.header(TrustedHopSigner.AUTH_HEADER, trustedHop.sign(subject));
+                        })
                         .build();
+                if (subject != null) mutated.getAttributes().put(USER_ATTR, subject);
                 return chain.filter(mutated);
 
             } catch (JwtException e) {
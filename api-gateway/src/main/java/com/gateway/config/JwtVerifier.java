@@ -0,0 +1,102 @@
+package com.gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens for {@link JwtAuthFilter} with a key and parser
+ * built once, and remembers the tokens that verified, so each request with a
+ * token seen before costs a SHA-256 and a map lookup instead of a signature
+ * check and JSON parse. Entries are keyed by the token's SHA-256 and never outlive its
+ * {@code exp}, nor {@code jwt.cache.max-ttl} for a token without one.
+ * Rejected tokens are not cached.
+ */
+@Component
+public class JwtVerifier {
+
+    private record Verified(String subject, long expiresAtMillis) {}
+
+    private final JwtParser parser;
+    private final Cache<ByteBuffer, Verified> verified;
+    private final Clock clock;
+    private final long maxTtlMillis;
+
+    @Autowired
+    public JwtVerifier(@Value("${jwt.secret}") String secret,
+                       @Value("${jwt.cache.maximum-size:100000}") long maximumSize,
+                       @Value("${jwt.cache.max-ttl:5m}") Duration maxTtl) {
+        this(secret, maximumSize, maxTtl, Clock.systemUTC());
+    }
+
+    public JwtVerifier(String secret, long maximumSize, Duration maxTtl, Clock clock) {
+        this.clock = clock;
+        this.maxTtlMillis = maxTtl.toMillis();
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .clock(() -> new Date(clock.millis()))
+                .build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .expireAfter(new Expiry<ByteBuffer, Verified>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Verified value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMillis() - clock.millis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Verified value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Verified value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The token's subject.
+     *
+     * @throws JwtException if the signature does not match or the token has expired
+     */
+    public String verify(String token) {
+        ByteBuffer key = ByteBuffer.wrap(sha256(token));
+        Verified hit = verified.getIfPresent(key);
+        if (hit != null && hit.expiresAtMillis() > clock.millis()) return hit.subject();
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        long cap = clock.millis() + maxTtlMillis;
+        long expiresAt = claims.getExpiration() == null ? cap : Math.min(claims.getExpiration().getTime(), cap);
+        verified.put(key, new Verified(claims.getSubject(), expiresAt));
+        return claims.getSubject();
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.gateway.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers repeated {@code GET /api/v1/orders/{id}} and
+ * {@code /number/{orderNumber}} lookups at the gateway. Responses are cached
+ * per user (the subject verified by {@link JwtAuthFilter}, which must come
+ * first on the route) and served without an upstream call for {@code ttl}.
+ * After that the entry is revalidated with {@code If-None-Match}, so an order
+ * that has not changed costs order-service a 304 instead of a body. Concurrent
+ * misses for the same user and path share one upstream call: the first
+ * request goes through and the rest wait for its response. Anything other
+ * than a 200 or a 304 to our revalidation is passed through and not shared.
+ * {@code X-Cache} says how a response was produced.
+ *
+ * Entries are indexed by order id (from the path, or from the body of a
+ * lookup by number), so a write through the gateway drops every cached copy
+ * of the order: by id, by number and with any query string, for every user.
+ * A bulk status change drops everything. A response without an order id is
+ * not cached, since no write could find it.
+ */
+@Component
+public class OrderLookupCacheFilter extends AbstractGatewayFilterFactory<OrderLookupCacheFilter.Config> {
+
+    private static final Pattern LOOKUP = Pattern.compile("^/api/v1/orders/(\\d+|number/[^/]+)$");
+    private static final Pattern BY_ID = Pattern.compile("^/api/v1/orders/(\\d+)$");
+    private static final Pattern WRITE = Pattern.compile("^/api/v1/orders/(\\d+)(/.*)?$");
+    private static final Pattern BULK_WRITE = Pattern.compile("^/api/v1/orders/status:bulk$");
+    private static final String CACHE_HEADER = "X-Cache";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private record Cached(long orderId, byte[] body, String etag, MediaType contentType, long storedAtNanos) {
+        Cached refreshed() {
+            return new Cached(orderId, body, etag, contentType, System.nanoTime());
+        }
+    }
+
+    private final Cache<String, Cached> responses;
+    // Cache keys per order id; puts and write invalidations for an order are serialized on its entry
+    private final ConcurrentHashMap<Long, Set<String>> keysByOrder = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Cached>> inflight = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxBodyBytes;
+    private final Duration followerTimeout;
+
+    public OrderLookupCacheFilter(@Value("${gateway.order-cache.ttl:2s}") Duration ttl,
+                                  @Value("${gateway.order-cache.retain:60s}") Duration retain,
+                                  @Value("${gateway.order-cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${gateway.order-cache.max-body-bytes:262144}") int maxBodyBytes,
+                                  @Value("${gateway.order-cache.follower-timeout:5s}") Duration followerTimeout) {
+        super(Config.class);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(retain)
+                .<String, Cached>removalListener((key, cached, cause) -> {
+                    if (cause != RemovalCause.REPLACED && cached != null) unindex(cached.orderId(), key);
+                })
+                .build();
+        this.ttlNanos = ttl.toNanos();
+        this.maxBodyBytes = maxBodyBytes;
+        this.followerTimeout = followerTimeout;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            String userId = exchange.getAttribute(JwtAuthFilter.USER_ATTR);
+            String path = exchange.getRequest().getPath().value();
+            if (userId == null) return chain.filter(exchange);
+            if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+                // Dropped before and after, so a lookup racing the write cannot keep the old copy
+                if (BULK_WRITE.matcher(path).matches()) {
+                    responses.invalidateAll();
+                    return chain.filter(exchange).doFinally(signal -> responses.invalidateAll());
+                }
+                Matcher write = WRITE.matcher(path);
+                if (!write.matches()) return chain.filter(exchange);
+                long orderId = Long.parseLong(write.group(1));
+                invalidateOrder(orderId);
+                return chain.filter(exchange).doFinally(signal -> invalidateOrder(orderId));
+            }
+            if (!LOOKUP.matcher(path).matches()) return chain.filter(exchange);
+
+            String query = exchange.getRequest().getURI().getRawQuery();
+            String key = userId + '\n' + path + (query == null ? "" : "?" + query);
+            Cached cached = responses.getIfPresent(key);
+            if (cached != null && System.nanoTime() - cached.storedAtNanos() < ttlNanos) {
+                return respond(exchange, cached, "HIT");
+            }
+
+            CompletableFuture<Cached> mine = new CompletableFuture<>();
+            CompletableFuture<Cached> leader = inflight.putIfAbsent(key, mine);
+            if (leader != null) return follow(exchange, chain, leader);
+
+            return lead(exchange, chain, key, cached, mine)
+                    .doFinally(signal -> {
+                        inflight.remove(key, mine);
+                        mine.complete(null);
+                    });
+        };
+    }
+
+    // Waits for the leader's response; if it produced nothing shareable (or is slow), asks upstream itself
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, CompletableFuture<Cached> leader) {
+        return Mono.fromFuture(leader, true)
+                .timeout(followerTimeout, Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> shared.isPresent()
+                        ? respond(exchange, shared.get(), "COALESCED")
+                        : chain.filter(exchange));
+    }
+
+    // The client's own If-None-Match is answered here; upstream only ever sees the ETag we hold
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                            Cached stale, CompletableFuture<Cached> mine) {
+        List<String> clientIfNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        ServerHttpResponse response = exchange.getResponse();
+
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if (status != null && status.value() == HttpStatus.NOT_MODIFIED.value() && stale != null) {
+                    Cached refreshed = stale.refreshed();
+                    store(key, refreshed);
+                    mine.complete(refreshed);
+                    return Flux.from(body).doOnNext(DataBufferUtils::release)
+                            .then(Mono.defer(() -> respond(getDelegate(), clientIfNoneMatch, refreshed, "REVALIDATED")));
+                }
+
+                String etag = getHeaders().getETag();
+                if (status == null || status.value() != HttpStatus.OK.value() || etag == null) {
+                    mine.complete(null);
+                    return super.writeWith(body);
+                }
+                MediaType contentType = getHeaders().getContentType();
+                return DataBufferUtils.join(Flux.from(body))
+                        .flatMap(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            Long orderId = bytes.length <= maxBodyBytes ? orderId(key, bytes) : null;
+                            Cached fresh = new Cached(orderId != null ? orderId : -1, bytes, etag, contentType,
+                                    System.nanoTime());
+                            if (orderId != null) {
+                                store(key, fresh);
+                                mine.complete(fresh);
+                            }
+                            return respond(getDelegate(), clientIfNoneMatch, fresh, "MISS");
+                        });
+            }
+        };
+
+        ServerWebExchange upstream = exchange.mutate()
+                .request(r -> r.headers(h -> {
+                    h.remove(HttpHeaders.IF_NONE_MATCH);
+                    if (stale != null) h.setIfNoneMatch(stale.etag());
+                }))
+                .response(capturing)
+                .build();
+        return chain.filter(upstream);
+    }
+
+    private void store(String key, Cached cached) {
+        keysByOrder.compute(cached.orderId(), (id, keys) -> {
+            Set<String> indexed = keys != null ? keys : new HashSet<>();
+            responses.put(key, cached);
+            indexed.add(key);
+            return indexed;
+        });
+    }
+
+    private void invalidateOrder(long orderId) {
+        keysByOrder.compute(orderId, (id, keys) -> {
+            if (keys != null) responses.invalidateAll(keys);
+            return null;
+        });
+    }
+
+    // Runs on Caffeine's executor after an entry went away; keeps the key if it was stored again since
+    private void unindex(long orderId, String key) {
+        keysByOrder.computeIfPresent(orderId, (id, keys) -> {
+            if (!responses.asMap().containsKey(key)) keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    // The id in the path, or for a lookup by number the "id" of the order in the body
+    private static Long orderId(String key, byte[] body) {
+        String path = key.substring(key.indexOf('\n') + 1);
+        int query = path.indexOf('?');
+        Matcher byId = BY_ID.matcher(query < 0 ? path : path.substring(0, query));
+        if (byId.matches()) return Long.parseLong(byId.group(1));
+        try {
+            JsonNode id = JSON.readTree(body).path("id");
+            return id.canConvertToLong() ? id.asLong() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Mono<Void> respond(ServerWebExchange exchange, Cached cached, String outcome) {
+        return respond(exchange.getResponse(), exchange.getRequest().getHeaders().getIfNoneMatch(), cached, outcome);
+    }
+
+    private static Mono<Void> respond(ServerHttpResponse response, List<String> ifNoneMatch, Cached cached, String outcome) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set(CACHE_HEADER, outcome);
+        if (matches(ifNoneMatch, cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentType(cached.contentType());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    // Weak comparison, as for If-None-Match: W/"3" matches "3"
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*")) return true;
+            if ((candidate.startsWith("W/") ? candidate.substring(2) : candidate).equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    public static class Config {}
+}
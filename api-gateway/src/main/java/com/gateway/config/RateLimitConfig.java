@@ -0,0 +1,30 @@
+package com.gateway.config;
+
+import com.gateway.limit.LocalTokenBuckets;
+import com.gateway.limit.RedisTokenBuckets;
+import com.gateway.limit.TokenBuckets;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Picks where {@link RateLimitFilter} keeps its buckets: in this instance's
+ * memory, or in Redis with {@code gateway.rate-limit.redis.enabled} so that
+ * all gateway instances share them.
+ */
+@Configuration
+class RateLimitConfig {
+
+    @Bean
+    public TokenBuckets tokenBuckets(@Value("${gateway.rate-limit.maximum-keys:100000}") long maximumKeys,
+                                     @Value("${gateway.rate-limit.redis.enabled:false}") boolean redisEnabled,
+                                     @Value("${gateway.rate-limit.redis.timeout:50ms}") Duration redisTimeout,
+                                     ObjectProvider<ReactiveStringRedisTemplate> redis) {
+        LocalTokenBuckets local = new LocalTokenBuckets(maximumKeys, Duration.ofMinutes(10));
+        return redisEnabled ? new RedisTokenBuckets(redis.getObject(), local, redisTimeout) : local;
+    }
+}
@@ -0,0 +1,66 @@
+package com.gateway.config;
+
+import com.gateway.limit.TokenBuckets;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Limits each caller's request rate on a route. The caller is the JWT
+ * subject verified by {@link JwtAuthFilter} (which must come first on the
+ * route), or the client address on routes without authentication. Rates are
+ * set per route with {@code replenish-rate} (requests per second) and
+ * {@code burst-capacity}. A refused request gets a 429 with
+ * {@code Retry-After}.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private final TokenBuckets buckets;
+
+    public RateLimitFilter(TokenBuckets buckets) {
+        super(Config.class);
+        this.buckets = buckets;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String key = (route == null ? "" : route.getId()) + ':' + caller(exchange);
+            return buckets.tryAcquire(key, config.getReplenishRate(), config.getBurstCapacity())
+                    .flatMap(decision -> {
+                        HttpHeaders headers = exchange.getResponse().getHeaders();
+                        headers.set("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+                        if (decision.allowed()) return chain.filter(exchange);
+
+                        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                        headers.set(HttpHeaders.RETRY_AFTER, "1");
+                        return exchange.getResponse().setComplete();
+                    });
+        };
+    }
+
+    private static String caller(ServerWebExchange exchange) {
+        String userId = exchange.getAttribute(JwtAuthFilter.USER_ATTR);
+        if (userId != null) return "user:" + userId;
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return "addr:" + (remote == null ? "unknown" : remote.getHostString());
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int replenishRate = 20;
+        private int burstCapacity = 40;
+    }
+}
@@ -0,0 +1,59 @@
+package com.gateway.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Signs the user id forwarded downstream so order-service can trust it
+ * without verifying the JWT again. {@code X-User-Auth} carries
+ * {@code <epochSeconds>.<signature>}, the signature being base64url
+ * HMAC-SHA256 of {@code <userId>\n<epochSeconds>} under
+ * {@code gateway.trusted-hop.secret}. Disabled while the secret is empty,
+ * in which case downstream services verify the token themselves.
+ */
+@Component
+public class TrustedHopSigner {
+
+    public static final String USER_HEADER = "X-User-Id";
+    public static final String AUTH_HEADER = "X-User-Auth";
+
+    private final Mac prototype;
+    private final Clock clock = Clock.systemUTC();
+
+    public TrustedHopSigner(@Value("${gateway.trusted-hop.secret:}") String secret) {
+        this.prototype = secret.isEmpty() ? null : hmac(secret);
+    }
+
+    public boolean enabled() {
+        return prototype != null;
+    }
+
+    public String sign(String userId) {
+        long now = clock.instant().getEpochSecond();
+        try {
+            // Mac is not thread-safe; the clone keeps the key without another provider lookup
+            Mac mac = (Mac) prototype.clone();
+            byte[] signature = mac.doFinal((userId + "\n" + now).getBytes(StandardCharsets.UTF_8));
+            return now + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 cannot be cloned", e);
+        }
+    }
+
+    private static Mac hmac(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is always available", e);
+        }
+    }
+}
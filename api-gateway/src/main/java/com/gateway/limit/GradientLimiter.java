@@ -0,0 +1,131 @@
+package com.gateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the requests in flight to one upstream and moves the cap with the
+ * latency it observes. Round trips are averaged over windows of at least
+ * 100 ms and compared with a baseline, the fastest recent window. While a
+ * window stays within {@code tolerance} of the baseline the upstream is not
+ * queueing, and the limit grows by a share of its square root. A slower
+ * window pulls the limit down in proportion to the slowdown (by at most
+ * half), and a window with a failed request cuts it by a tenth. If the
+ * upstream stays slow for five seconds however far the limit falls, its
+ * latency has genuinely changed and becomes the new baseline. Requests over
+ * the limit are refused at once, so excess load costs a 429 here instead of
+ * queueing for the upstream's connection pool.
+ */
+public class GradientLimiter {
+
+    private static final long WINDOW_NANOS = 100_000_000;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double BASELINE_FOLLOW = 0.1;
+    private static final int REBASE_WINDOWS = 50;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double REBASE_GRADIENT = 0.9;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    // Guarded by this
+    private double baselineRtt;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInflight;
+    private boolean windowFailed;
+    private int slowWindows;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this(initialLimit, minLimit, maxLimit, tolerance, System::nanoTime);
+    }
+
+    GradientLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, LongSupplier nanoTime) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.nanoTime = nanoTime;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowStart = nanoTime.getAsLong();
+    }
+
+    /** Takes a slot, or returns false when the limit is reached. Every true must be followed by one {@code onSample} or {@code onIgnore}. */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inflight.get();
+            if (current >= (int) limit) return false;
+            if (inflight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Releases a slot and learns from its round trip; {@code failed} is an error or a 5xx from upstream. */
+    public void onSample(long rttNanos, boolean failed) {
+        update(rttNanos, failed, inflight.getAndDecrement());
+    }
+
+    /** Releases a slot without learning from it (the client went away before the answer). */
+    public void onIgnore() {
+        inflight.decrementAndGet();
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    // concurrent counts this request too
+    private synchronized void update(long rttNanos, boolean failed, int concurrent) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, concurrent);
+        windowFailed |= failed;
+        long now = nanoTime.getAsLong();
+        if (now - windowStart < WINDOW_NANOS || windowSamples < MIN_WINDOW_SAMPLES) return;
+
+        double windowRtt = (double) windowRttSum / windowSamples;
+        int maxInflight = windowMaxInflight;
+        boolean anyFailed = windowFailed;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+        windowFailed = false;
+
+        if (anyFailed) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            return;
+        }
+        // The baseline follows faster windows at once, but slower ones only while we are not
+        // keeping the upstream busy: under load, higher latency is queueing, not the new normal
+        if (baselineRtt == 0 || windowRtt < baselineRtt) {
+            baselineRtt = windowRtt;
+        } else if (maxInflight < limit / 2) {
+            baselineRtt += (windowRtt - baselineRtt) * BASELINE_FOLLOW;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRtt / windowRtt));
+        // Clearly slower than the baseline for REBASE_WINDOWS in a row, however much we shed: the
+        // upstream itself got slower, so take its current latency as the new baseline
+        slowWindows = gradient < REBASE_GRADIENT ? slowWindows + 1 : 0;
+        if (slowWindows >= REBASE_WINDOWS) {
+            baselineRtt = windowRtt;
+            slowWindows = 0;
+        }
+        // Too few requests in flight to tell whether a higher limit would hold; don't grow on no evidence
+        if (gradient >= 1.0 && maxInflight < limit / 2) return;
+
+        // Additive increase while latency holds, proportional decrease once it doesn't
+        double target = gradient >= 1.0 ? limit + Math.sqrt(limit) : limit * gradient;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+}
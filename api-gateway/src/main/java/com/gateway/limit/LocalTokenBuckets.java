@@ -0,0 +1,60 @@
+package com.gateway.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets in this gateway's memory. With several gateway instances each one
+ * allows the full rate, so a caller spread across them gets up to N times
+ * as much; {@link RedisTokenBuckets} shares one bucket instead. Idle buckets
+ * are dropped after {@code idleAfter}, when they would be full again anyway.
+ */
+public class LocalTokenBuckets implements TokenBuckets {
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int burstCapacity, long now) {
+            this.tokens = burstCapacity;
+            this.refilledAt = now;
+        }
+
+        synchronized Decision take(int replenishRate, int burstCapacity, long now) {
+            tokens = Math.min(burstCapacity, tokens + (now - refilledAt) / 1e9 * replenishRate);
+            refilledAt = now;
+            boolean allowed = tokens >= 1;
+            if (allowed) tokens -= 1;
+            return new Decision(allowed, (long) tokens);
+        }
+    }
+
+    private final Cache<String, Bucket> buckets;
+    private final LongSupplier nanoTime;
+
+    public LocalTokenBuckets(long maximumSize, Duration idleAfter) {
+        this(maximumSize, idleAfter, System::nanoTime);
+    }
+
+    LocalTokenBuckets(long maximumSize, Duration idleAfter, LongSupplier nanoTime) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleAfter)
+                .build();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public Mono<Decision> tryAcquire(String key, int replenishRate, int burstCapacity) {
+        return Mono.fromSupplier(() -> take(key, replenishRate, burstCapacity));
+    }
+
+    Decision take(String key, int replenishRate, int burstCapacity) {
+        long now = nanoTime.getAsLong();
+        return buckets.get(key, k -> new Bucket(burstCapacity, now)).take(replenishRate, burstCapacity, now);
+    }
+}
@@ -0,0 +1,76 @@
+package com.gateway.limit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Buckets shared by every gateway instance through Redis, so a caller gets
+ * the configured rate in total rather than per instance. The refill and take
+ * run as one script on Redis's clock. When Redis is slow or unreachable the
+ * decision falls back to {@code local} buckets: limits stay in force per
+ * instance instead of failing open or rejecting everything.
+ */
+@Slf4j
+public class RedisTokenBuckets implements TokenBuckets {
+
+    // Keys share a hash tag so both land on one slot in a cluster
+    private static final String SCRIPT = """
+            local rate = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+            local tokens = tonumber(redis.call('GET', KEYS[1])) or capacity
+            local refilled = tonumber(redis.call('GET', KEYS[2])) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - refilled) * rate)
+            local allowed = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+                allowed = 1
+            end
+            local ttl = math.ceil(capacity / rate) + 1
+            redis.call('SET', KEYS[1], tostring(tokens), 'EX', ttl)
+            redis.call('SET', KEYS[2], tostring(now), 'EX', ttl)
+            return { allowed, math.floor(tokens) }
+            """;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> TAKE = (RedisScript) RedisScript.of(SCRIPT, List.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final LocalTokenBuckets local;
+    private final Duration timeout;
+    private volatile boolean degraded;
+
+    public RedisTokenBuckets(ReactiveStringRedisTemplate redis, LocalTokenBuckets local, Duration timeout) {
+        this.redis = redis;
+        this.local = local;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Mono<Decision> tryAcquire(String key, int replenishRate, int burstCapacity) {
+        List<String> keys = List.of("rate_limit.{" + key + "}.tokens", "rate_limit.{" + key + "}.refilled");
+        return redis.execute(TAKE, keys, List.of(Integer.toString(replenishRate), Integer.toString(burstCapacity)))
+                .next()
+                .timeout(timeout)
+                .map(result -> {
+                    if (degraded) {
+                        degraded = false;
+                        log.info("Redis rate limiting restored");
+                    }
+                    return new Decision(result.get(0) == 1L, result.get(1));
+                })
+                .onErrorResume(e -> {
+                    if (!degraded) {
+                        degraded = true;
+                        log.warn("Redis rate limiting unavailable, limiting per instance: {}", e.getMessage());
+                    }
+                    return Mono.just(local.take(key, replenishRate, burstCapacity));
+                });
+    }
+}
@@ -0,0 +1,15 @@
+package com.gateway.limit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Token buckets keyed by route and caller. A bucket holds up to
+ * {@code burstCapacity} tokens, refills at {@code replenishRate} per second,
+ * and each request takes one.
+ */
+public interface TokenBuckets {
+
+    record Decision(boolean allowed, long remaining) {}
+
+    Mono<Decision> tryAcquire(String key, int replenishRate, int burstCapacity);
+}
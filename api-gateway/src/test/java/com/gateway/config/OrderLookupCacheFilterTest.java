@@ -0,0 +1,226 @@
+package com.gateway.config;
+
+import org.junit.jupiter.api.*;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderLookupCacheFilterTest {
+
+    private static final String BODY = "{\"id\":7,\"orderNumber\":\"ORD-7\",\"status\":\"PENDING\"}";
+
+    private final List<ServerWebExchange> upstreamCalls = new CopyOnWriteArrayList<>();
+    private volatile String etag = "\"1\"";
+    private volatile String body = BODY;
+    private volatile HttpStatus status = HttpStatus.OK;
+    private volatile CompletableFuture<Void> gate = CompletableFuture.completedFuture(null);
+
+    // Stands in for the proxied call: 304 when the gateway's If-None-Match matches, else the body
+    private final GatewayFilterChain upstream = exchange -> {
+        upstreamCalls.add(exchange);
+        ServerHttpResponse response = exchange.getResponse();
+        return Mono.fromFuture(gate).then(Mono.defer(() -> {
+            if (exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+                response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                return response.writeWith(Flux.empty());
+            }
+            response.setStatusCode(status);
+            response.getHeaders().setETag(etag);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+        }));
+    };
+
+    @Test
+    @DisplayName("A repeat lookup within ttl is answered from the cache")
+    void repeatLookup_isHit() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofSeconds(5));
+
+        MockServerWebExchange first = call(filter, get("/api/v1/orders/7", "alice"));
+        MockServerWebExchange second = call(filter, get("/api/v1/orders/7", "alice"));
+
+        assertThat(cacheHeader(first)).isEqualTo("MISS");
+        assertThat(cacheHeader(second)).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(upstreamCalls).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Entries are per user")
+    void otherUser_isMiss() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofSeconds(5));
+
+        call(filter, get("/api/v1/orders/7", "alice"));
+        MockServerWebExchange bob = call(filter, get("/api/v1/orders/7", "bob"));
+
+        assertThat(cacheHeader(bob)).isEqualTo("MISS");
+        assertThat(upstreamCalls).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("After ttl the entry is revalidated with its ETag, and a 304 serves the cached body")
+    void expiredEntry_isRevalidated() {
+        GatewayFilter filter = filter(Duration.ZERO, 1024, Duration.ofSeconds(5));
+
+        call(filter, get("/api/v1/orders/7", "alice"));
+        MockServerWebExchange second = call(filter, get("/api/v1/orders/7", "alice"));
+
+        assertThat(upstreamCalls.get(1).getRequest().getHeaders().getIfNoneMatch()).containsExactly("\"1\"");
+        assertThat(cacheHeader(second)).isEqualTo("REVALIDATED");
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("A client's own matching If-None-Match gets a 304 without a body")
+    void clientIfNoneMatch_getsNotModified() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofSeconds(5));
+
+        call(filter, get("/api/v1/orders/7", "alice"));
+        MockServerWebExchange conditional = call(filter,
+                MockServerHttpRequest.get("/api/v1/orders/7").header(HttpHeaders.IF_NONE_MATCH, "W/\"1\""), "alice");
+
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(cacheHeader(conditional)).isEqualTo("HIT");
+    }
+
+    @Test
+    @DisplayName("Concurrent identical lookups share the first one's upstream call")
+    void concurrentLookups_areCoalesced() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofSeconds(5));
+        gate = new CompletableFuture<>();
+
+        MockServerWebExchange leader = get("/api/v1/orders/7", "alice");
+        MockServerWebExchange follower = get("/api/v1/orders/7", "alice");
+        CompletableFuture<Void> led = filter.filter(leader, upstream).toFuture();
+        CompletableFuture<Void> followed = filter.filter(follower, upstream).toFuture();
+        gate.complete(null);
+        CompletableFuture.allOf(led, followed).join();
+
+        assertThat(upstreamCalls).hasSize(1);
+        assertThat(cacheHeader(leader)).isEqualTo("MISS");
+        assertThat(cacheHeader(follower)).isEqualTo("COALESCED");
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("A follower goes upstream itself when the leader's response cannot be shared")
+    void unshareableLeader_followerGoesUpstream() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofSeconds(5));
+        gate = new CompletableFuture<>();
+        status = HttpStatus.NOT_FOUND;
+
+        MockServerWebExchange leader = get("/api/v1/orders/7", "alice");
+        MockServerWebExchange follower = get("/api/v1/orders/7", "alice");
+        CompletableFuture<Void> led = filter.filter(leader, upstream).toFuture();
+        CompletableFuture<Void> followed = filter.filter(follower, upstream).toFuture();
+        gate.complete(null);
+        CompletableFuture.allOf(led, followed).join();
+
+        assertThat(upstreamCalls).hasSize(2);
+        assertThat(follower.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(cacheHeader(follower)).isNull();
+    }
+
+    @Test
+    @DisplayName("A follower stops waiting for a slow leader after follower-timeout")
+    void slowLeader_followerTimesOut() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofMillis(100));
+        CompletableFuture<Void> stuck = new CompletableFuture<>();
+        gate = stuck;
+
+        filter.filter(get("/api/v1/orders/7", "alice"), upstream).subscribe();
+        gate = CompletableFuture.completedFuture(null);
+        MockServerWebExchange follower = call(filter, get("/api/v1/orders/7", "alice"));
+
+        assertThat(upstreamCalls).hasSize(2);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        stuck.complete(null);
+    }
+
+    @Test
+    @DisplayName("Bodies over max-body-bytes are passed through but not cached")
+    void oversizeBody_isNotCached() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 16, Duration.ofSeconds(5));
+
+        MockServerWebExchange first = call(filter, get("/api/v1/orders/7", "alice"));
+        MockServerWebExchange second = call(filter, get("/api/v1/orders/7", "alice"));
+
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(cacheHeader(second)).isEqualTo("MISS");
+        assertThat(upstreamCalls).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A write drops every cached copy of the order: by id, by number, with a query, for every user")
+    void write_dropsEveryVariant() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofSeconds(5));
+        List<String> lookups = List.of("/api/v1/orders/7", "/api/v1/orders/number/ORD-7", "/api/v1/orders/7?fields=all");
+        lookups.forEach(path -> call(filter, get(path, "alice")));
+        call(filter, get("/api/v1/orders/7", "bob"));
+        assertThat(upstreamCalls).hasSize(4);
+
+        call(filter, MockServerHttpRequest.method(HttpMethod.PATCH, "/api/v1/orders/7/status"), "alice");
+
+        lookups.forEach(path -> assertThat(cacheHeader(call(filter, get(path, "alice")))).as(path).isEqualTo("MISS"));
+        assertThat(cacheHeader(call(filter, get("/api/v1/orders/7", "bob")))).isEqualTo("MISS");
+    }
+
+    @Test
+    @DisplayName("A write to another order leaves the cached copy alone")
+    void writeToOtherOrder_keepsEntry() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1), 1024, Duration.ofSeconds(5));
+        call(filter, get("/api/v1/orders/number/ORD-7", "alice"));
+
+        call(filter, MockServerHttpRequest.method(HttpMethod.DELETE, "/api/v1/orders/8"), "alice");
+
+        assertThat(cacheHeader(call(filter, get("/api/v1/orders/number/ORD-7", "alice")))).isEqualTo("HIT");
+    }
+
+    private GatewayFilter filter(Duration ttl, int maxBodyBytes, Duration followerTimeout) {
+        return new OrderLookupCacheFilter(ttl, Duration.ofMinutes(1), 1_000, maxBodyBytes, followerTimeout)
+                .apply(new OrderLookupCacheFilter.Config());
+    }
+
+    private MockServerWebExchange call(GatewayFilter filter, MockServerHttpRequest.BaseBuilder<?> request, String user) {
+        MockServerWebExchange exchange = exchange(request, user);
+        filter.filter(exchange, upstream).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private MockServerWebExchange call(GatewayFilter filter, MockServerWebExchange exchange) {
+        filter.filter(exchange, upstream).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static MockServerWebExchange get(String path, String user) {
+        return exchange(MockServerHttpRequest.get(path), user);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String user) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(JwtAuthFilter.USER_ATTR, user);
+        return exchange;
+    }
+
+    private static String cacheHeader(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst("X-Cache");
+    }
+}
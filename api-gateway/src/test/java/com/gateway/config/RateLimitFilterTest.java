@@ -0,0 +1,93 @@
+package com.gateway.config;
+
+import com.gateway.limit.TokenBuckets;
+import org.junit.jupiter.api.*;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final List<String> keys = new CopyOnWriteArrayList<>();
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final GatewayFilterChain upstream = exchange -> {
+        forwarded.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @Test
+    @DisplayName("A refused request gets a 429 with Retry-After and never reaches the route")
+    void refused_gets429() {
+        GatewayFilter filter = filter((key, rate, burst) -> Mono.just(new TokenBuckets.Decision(false, 0)), 20, 40);
+
+        MockServerWebExchange exchange = call(filter, "orders", "alice", null);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("0");
+        assertThat(forwarded).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("An allowed request is forwarded with the remaining tokens, using the route's rate and burst")
+    void allowed_isForwarded() {
+        GatewayFilter filter = filter((key, rate, burst) -> {
+            keys.add(key + " " + rate + "/" + burst);
+            return Mono.just(new TokenBuckets.Decision(true, 7));
+        }, 5, 10);
+
+        MockServerWebExchange exchange = call(filter, "products", "alice", null);
+
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("7");
+        assertThat(forwarded).hasValue(1);
+        assertThat(keys).containsExactly("products:user:alice 5/10");
+    }
+
+    @Test
+    @DisplayName("Buckets are keyed per route and per subject, or per client address without one")
+    void keyedPerRouteAndSubject() {
+        GatewayFilter filter = filter((key, rate, burst) -> {
+            keys.add(key);
+            return Mono.just(new TokenBuckets.Decision(true, 1));
+        }, 20, 40);
+
+        call(filter, "orders", "alice", null);
+        call(filter, "orders", "bob", null);
+        call(filter, "products", "alice", null);
+        call(filter, "products", null, new InetSocketAddress("10.0.0.7", 41000));
+
+        assertThat(keys).containsExactly("orders:user:alice", "orders:user:bob", "products:user:alice",
+                "products:addr:10.0.0.7");
+    }
+
+    private static GatewayFilter filter(TokenBuckets buckets, int replenishRate, int burstCapacity) {
+        RateLimitFilter.Config config = new RateLimitFilter.Config();
+        config.setReplenishRate(replenishRate);
+        config.setBurstCapacity(burstCapacity);
+        return new RateLimitFilter(buckets).apply(config);
+    }
+
+    private MockServerWebExchange call(GatewayFilter filter, String routeId, String user, InetSocketAddress remote) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/v1/" + routeId);
+        if (remote != null) request.remoteAddress(remote);
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri("http://localhost:8081").predicate(e -> true).build());
+        if (user != null) exchange.getAttributes().put(JwtAuthFilter.USER_ATTR, user);
+        filter.filter(exchange, upstream).block();
+        return exchange;
+    }
+}
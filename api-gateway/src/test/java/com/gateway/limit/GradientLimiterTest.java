@@ -0,0 +1,89 @@
+package com.gateway.limit;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GradientLimiterTest {
+
+    private long now;
+    private GradientLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new GradientLimiter(10, 10, 200, 1.5, () -> now);
+    }
+
+    @Test
+    @DisplayName("Requests past the limit are refused until a slot is released")
+    void refusesPastLimit() {
+        for (int i = 0; i < 10; i++) assertThat(limiter.tryAcquire()).isTrue();
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.onIgnore();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("The limit grows while a busy upstream's latency holds")
+    void steadyLatency_grows() {
+        for (int i = 0; i < 30; i++) window(20, false);
+
+        assertThat(limiter.limit()).isGreaterThan(30);
+        assertThat(limiter.inflight()).isZero();
+    }
+
+    @Test
+    @DisplayName("The limit does not grow while too few requests are in flight to test it")
+    void idleUpstream_doesNotGrow() {
+        limiter = new GradientLimiter(40, 10, 200, 1.5, () -> now);
+
+        for (int i = 0; i < 30; i++) window(20, false, 10);
+
+        assertThat(limiter.limit()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Slower windows pull the limit down, and a failed request cuts it by a tenth")
+    void slowdownAndFailure_backOff() {
+        for (int i = 0; i < 30; i++) window(20, false);
+        int grown = limiter.limit();
+
+        window(60, false);
+        int slowed = limiter.limit();
+        window(20, true);
+
+        assertThat(slowed).isLessThan(grown);
+        assertThat(limiter.limit()).isBetween((int) (slowed * 0.9) - 1, slowed - 1);
+    }
+
+    @Test
+    @DisplayName("After a sustained slowdown the slower latency becomes the baseline and the limit grows again")
+    void sustainedSlowdown_rebases() {
+        for (int i = 0; i < 30; i++) window(20, false);
+
+        for (int i = 0; i < 50; i++) window(60, false);
+        int atRebase = limiter.limit();
+        for (int i = 0; i < 10; i++) window(60, false);
+
+        assertThat(atRebase).isEqualTo(10);
+        assertThat(limiter.limit()).isGreaterThan(atRebase);
+    }
+
+    private void window(long rttMillis, boolean failed) {
+        window(rttMillis, failed, Integer.MAX_VALUE);
+    }
+
+    // One 100 ms window of 10 samples, with as many requests in flight as the limit allows (up to maxInflight)
+    private void window(long rttMillis, boolean failed, int maxInflight) {
+        int slots = 0;
+        while (slots < maxInflight && limiter.tryAcquire()) slots++;
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        for (int i = 0; i < slots; i++) {
+            if (i < 10) limiter.onSample(TimeUnit.MILLISECONDS.toNanos(rttMillis), failed && i == 0);
+            else limiter.onIgnore();
+        }
+    }
+}
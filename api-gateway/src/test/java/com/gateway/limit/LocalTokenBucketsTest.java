@@ -0,0 +1,50 @@
+package com.gateway.limit;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LocalTokenBucketsTest {
+
+    private long now;
+    private final LocalTokenBuckets buckets = new LocalTokenBuckets(1_000, Duration.ofMinutes(10), () -> now);
+
+    @Test
+    @DisplayName("A new bucket allows a burst of burst-capacity requests, then refuses")
+    void burst_thenRefused() {
+        for (int i = 0; i < 5; i++) {
+            TokenBuckets.Decision decision = buckets.take("orders:user:alice", 1, 5);
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.remaining()).isEqualTo(4 - i);
+        }
+
+        assertThat(buckets.take("orders:user:alice", 1, 5).allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Tokens refill at replenish-rate per second, never past burst-capacity")
+    void refill_cappedAtCapacity() {
+        for (int i = 0; i < 5; i++) buckets.take("orders:user:alice", 2, 5);
+
+        now += TimeUnit.MILLISECONDS.toNanos(1_000);
+        assertThat(buckets.take("orders:user:alice", 2, 5).allowed()).isTrue();
+        assertThat(buckets.take("orders:user:alice", 2, 5).allowed()).isTrue();
+        assertThat(buckets.take("orders:user:alice", 2, 5).allowed()).isFalse();
+
+        now += TimeUnit.MINUTES.toNanos(1);
+        assertThat(buckets.take("orders:user:alice", 2, 5).remaining()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Each key has its own bucket")
+    void keys_areIndependent() {
+        for (int i = 0; i < 5; i++) buckets.take("orders:user:alice", 1, 5);
+
+        assertThat(buckets.take("orders:user:alice", 1, 5).allowed()).isFalse();
+        assertThat(buckets.take("orders:user:bob", 1, 5).allowed()).isTrue();
+        assertThat(buckets.take("products:user:alice", 1, 5).allowed()).isTrue();
+    }
+}
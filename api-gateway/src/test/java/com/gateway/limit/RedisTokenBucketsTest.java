@@ -0,0 +1,51 @@
+package com.gateway.limit;
+
+import org.junit.jupiter.api.*;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedisTokenBucketsTest {
+
+    private ReactiveStringRedisTemplate redis;
+    private RedisTokenBuckets buckets;
+
+    @BeforeEach
+    void setUp() {
+        redis = mock(ReactiveStringRedisTemplate.class);
+        buckets = new RedisTokenBuckets(redis, new LocalTokenBuckets(1_000, Duration.ofMinutes(10)), Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Redis's decision is used while Redis answers")
+    void usesRedisDecision() {
+        when(redis.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(List.of(0L, 0L)));
+
+        TokenBuckets.Decision decision = buckets.tryAcquire("orders:user:alice", 1, 5).block();
+
+        assertThat(decision).isEqualTo(new TokenBuckets.Decision(false, 0));
+        verify(redis).execute(any(RedisScript.class),
+                eq(List.of("rate_limit.{orders:user:alice}.tokens", "rate_limit.{orders:user:alice}.refilled")),
+                eq(List.of("1", "5")));
+    }
+
+    @Test
+    @DisplayName("An unreachable or slow Redis falls back to per-instance buckets")
+    void fallsBackToLocal() {
+        when(redis.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new RedisConnectionFailureException("down")))
+                .thenReturn(Flux.never());
+
+        assertThat(buckets.tryAcquire("orders:user:alice", 1, 1).block()).isEqualTo(new TokenBuckets.Decision(true, 0));
+        assertThat(buckets.tryAcquire("orders:user:alice", 1, 1).block(Duration.ofSeconds(1)))
+                .isEqualTo(new TokenBuckets.Decision(false, 0));
+    }
+}
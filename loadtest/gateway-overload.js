@@ -0,0 +1,87 @@
+// Overload scenario for the API gateway's rate and concurrency limits (k6).
+//
+//   docker compose up -d
+//   k6 run loadtest/gateway-overload.js
+//
+// Three scenarios run at once against order listings, which always reach
+// PostgreSQL (the gateway does not cache them):
+//   steady  - 50 users polling at a modest rate, the traffic that must keep working
+//   noisy   - one integration sending 200 requests/s, far above its per-user rate
+//   surge   - arrivals ramping to 1500 requests/s across 300 users, well past what
+//             order-service's 10 database connections can serve
+// The thresholds are the point of the exercise: requests that are let through stay
+// fast while the surge is shed with 429s, rather than every request queueing. The
+// concurrency limit does not favour anyone, so during the surge the steady users are
+// shed in the same proportion; what they are spared is the queueing.
+import http from 'k6/http';
+import crypto from 'k6/crypto';
+import encoding from 'k6/encoding';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const JWT_SECRET = __ENV.JWT_SECRET || 'your-256-bit-secret-key-change-in-production-please';
+
+export const options = {
+    scenarios: {
+        steady: {
+            executor: 'constant-arrival-rate',
+            rate: 50, timeUnit: '1s', duration: '3m',
+            preAllocatedVUs: 50, maxVUs: 200,
+            env: { USERS: '50', PREFIX: 'steady' },
+        },
+        noisy: {
+            executor: 'constant-arrival-rate',
+            rate: 200, timeUnit: '1s', duration: '3m',
+            preAllocatedVUs: 50, maxVUs: 200,
+            env: { USERS: '1', PREFIX: 'noisy' },
+        },
+        surge: {
+            executor: 'ramping-arrival-rate',
+            startRate: 0, timeUnit: '1s', startTime: '30s',
+            stages: [
+                { target: 1500, duration: '1m' },
+                { target: 1500, duration: '1m' },
+                { target: 0, duration: '30s' },
+            ],
+            preAllocatedVUs: 300, maxVUs: 1500,
+            env: { USERS: '300', PREFIX: 'surge' },
+        },
+    },
+    thresholds: {
+        // Admitted requests stay fast for everyone, surge included
+        'http_req_duration{scenario:steady,expected_response:true}': ['p(95)<300'],
+        'http_req_duration{expected_response:true}': ['p(99)<1000'],
+        // Refusals are quick 429s, never timeouts or 5xx
+        'checks{check:answered}': ['rate>0.99'],
+        // The noisy integration is held to its own rate
+        'checks{check:noisy limited}': ['rate>0.80'],
+    },
+};
+
+// Only 200s are "expected", so the latency thresholds measure admitted requests
+http.setResponseCallback(http.expectedStatuses(200));
+
+const tokens = {};
+
+function token(user) {
+    if (!tokens[user]) {
+        const header = encoding.b64encode(JSON.stringify({ alg: 'HS256', typ: 'JWT' }), 'rawurl');
+        const now = Math.floor(Date.now() / 1000);
+        const claims = encoding.b64encode(JSON.stringify({ sub: user, iat: now, exp: now + 3600 }), 'rawurl');
+        const signature = crypto.hmac('sha256', JWT_SECRET, `${header}.${claims}`, 'base64rawurl');
+        tokens[user] = `${header}.${claims}.${signature}`;
+    }
+    return tokens[user];
+}
+
+export default function () {
+    const user = `${__ENV.PREFIX}-${Math.floor(Math.random() * Number(__ENV.USERS))}`;
+    const res = http.get(`${BASE_URL}/api/v1/orders?page=0&size=20`, {
+        headers: { Authorization: `Bearer ${token(user)}` },
+        timeout: '10s',
+        tags: { name: 'list orders' },
+    });
+
+    check(res, { answered: (r) => r.status === 200 || r.status === 429 });
+    if (__ENV.PREFIX === 'noisy') check(res, { 'noisy limited': (r) => r.status === 429 });
+}
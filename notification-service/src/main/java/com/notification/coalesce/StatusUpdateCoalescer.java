@@ -0,0 +1,229 @@
+package com.notification.coalesce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Collapses bursts of {@code ORDER_STATUS_UPDATED} events for one order into
+ * a single notification. The first update opens a window. Each later update
+ * replaces the pending status and restarts the window, but the window never
+ * runs past {@code max-window} from the first update. When it closes, one
+ * event goes out with the first {@code previousStatus} and the latest
+ * {@code newStatus}, e.g. PENDING -> SHIPPED.
+ *
+ * Windows are looked up by transition ({@code PROCESSING->SHIPPED}), then by
+ * target status ({@code DELIVERED}), then the default. A zero window sends
+ * at once, taking any pending update for the order with it. Deadlines are
+ * kept on a {@link TimerWheel}, not a thread or task per order.
+ *
+ * Each parked update gets a future that completes once the notification it
+ * was folded into has been sent (or dropped by a cancellation), so the caller
+ * can hold its offset until then.
+ */
+@Component
+// Flushed on shutdown before the dispatcher and the executor the sink sends on close
+@DependsOn({"notificationDispatcher", "orderEventExecutor"})
+@Slf4j
+public class StatusUpdateCoalescer {
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final class Pending {
+        final String orderNumber;
+        final long openedAt;
+        final Function<Map<String, Object>, CompletableFuture<Void>> sink;
+        final List<CompletableFuture<Void>> parked = new ArrayList<>(1);
+        Map<String, Object> first;
+        Map<String, Object> latest;
+        long deadline;
+        int merged;
+
+        Pending(String orderNumber, Map<String, Object> event, long deadline,
+                Function<Map<String, Object>, CompletableFuture<Void>> sink) {
+            this.orderNumber = orderNumber;
+            this.openedAt = System.nanoTime();
+            this.first = event;
+            this.latest = event;
+            this.deadline = deadline;
+            this.sink = sink;
+        }
+
+        Map<String, Object> coalesced() {
+            Map<String, Object> event = new LinkedHashMap<>(latest);
+            event.put("previousStatus", first.get("previousStatus"));
+            return event;
+        }
+    }
+
+    private final Duration defaultWindow;
+    private final long maxWindowNanos;
+    private final Map<String, Duration> windows;
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final TimerWheel<String> wheel;
+    private final Counter mergedCounter;
+
+    @Autowired
+    public StatusUpdateCoalescer(@Value("${notifications.coalesce.default-window:3s}") Duration defaultWindow,
+                                 @Value("${notifications.coalesce.max-window:30s}") Duration maxWindow,
+                                 @Value("${notifications.coalesce.windows:}") String windows,
+                                 @Value("${notifications.coalesce.tick:100ms}") Duration tick,
+                                 MeterRegistry meterRegistry) {
+        this(defaultWindow, maxWindow, parseWindows(windows), tick, meterRegistry);
+    }
+
+    public StatusUpdateCoalescer(Duration defaultWindow, Duration maxWindow, Map<String, Duration> windows,
+                                 Duration tick, MeterRegistry meterRegistry) {
+        this.defaultWindow = defaultWindow;
+        this.maxWindowNanos = maxWindow.toNanos();
+        this.windows = Map.copyOf(windows);
+        this.wheel = new TimerWheel<>(tick, 512, this::expire, "status-coalescer");
+        this.mergedCounter = Counter.builder("notifications.coalesce.merged")
+                .description("Status updates folded into a later notification or dropped by a cancellation")
+                .register(meterRegistry);
+        Gauge.builder("notifications.coalesce.pending", pending, Map::size)
+                .description("Orders with a status notification waiting for its window to close")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Parks a status update. {@code sink} receives the coalesced event when the
+     * window closes, on the timer thread, so it must not block; its future says
+     * when the notification is sent. The returned future completes with it.
+     */
+    public CompletableFuture<Void> submit(String orderNumber, Map<String, Object> event,
+                                          Function<Map<String, Object>, CompletableFuture<Void>> sink) {
+        Duration window = windowFor(event);
+        long now = System.nanoTime();
+        CompletableFuture<Void> parked = new CompletableFuture<>();
+        List<Pending> flushNow = new ArrayList<>(1);
+
+        pending.compute(orderNumber, (key, current) -> {
+            long deadline = now + window.toNanos();
+            if (current == null) {
+                Pending opened = new Pending(key, event, deadline, sink);
+                opened.parked.add(parked);
+                if (window.isZero()) {
+                    flushNow.add(opened);
+                    return null;
+                }
+                wheel.schedule(key, window);
+                return opened;
+            }
+            current.latest = event;
+            current.parked.add(parked);
+            current.merged++;
+            mergedCounter.increment();
+            if (window.isZero()) {
+                flushNow.add(current);
+                return null;
+            }
+            // Restart the window, capped so a steady stream of updates still gets sent
+            current.deadline = Math.min(deadline, current.openedAt + maxWindowNanos);
+            return current;
+        });
+
+        flushNow.forEach(this::flush);
+        return parked;
+    }
+
+    /** Drops any pending status update, e.g. because the order was cancelled. */
+    public void discard(String orderNumber) {
+        Pending dropped = pending.remove(orderNumber);
+        if (dropped != null) {
+            mergedCounter.increment();
+            dropped.parked.forEach(f -> f.complete(null));
+        }
+    }
+
+    public int pendingOrders() {
+        return pending.size();
+    }
+
+    /**
+     * Sends everything still waiting and waits for the sends, so a clean
+     * shutdown loses nothing. Updates not sent in time keep their offsets
+     * uncommitted and are redelivered.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        wheel.close();
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (String orderNumber : List.copyOf(pending.keySet())) {
+            Pending p = pending.remove(orderNumber);
+            if (p != null) sends.add(flush(p));
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(SHUTDOWN_FLUSH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Not every parked status update was sent on shutdown; they will be redelivered: {}", e.toString());
+        }
+    }
+
+    private void expire(String orderNumber) {
+        long now = System.nanoTime();
+        List<Pending> due = new ArrayList<>(1);
+        pending.computeIfPresent(orderNumber, (key, p) -> {
+            if (p.deadline - now > 0) {
+                // The window was restarted since this timeout was set
+                wheel.schedule(key, Duration.ofNanos(p.deadline - now));
+                return p;
+            }
+            due.add(p);
+            return null;
+        });
+        due.forEach(this::flush);
+    }
+
+    private CompletableFuture<Void> flush(Pending p) {
+        if (p.merged > 0) {
+            log.debug("Coalesced {} status updates for order {}", p.merged + 1, p.orderNumber);
+        }
+        CompletableFuture<Void> sent;
+        try {
+            sent = p.sink.apply(p.coalesced());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.whenComplete((r, error) -> p.parked.forEach(f -> {
+            if (error == null) f.complete(null);
+            else f.completeExceptionally(error);
+        }));
+    }
+
+    private Duration windowFor(Map<String, Object> event) {
+        String from = String.valueOf(event.get("previousStatus")).toUpperCase();
+        String to = String.valueOf(event.get("newStatus")).toUpperCase();
+        Duration window = windows.get(from + "->" + to);
+        if (window == null) window = windows.get(to);
+        return window != null ? window : defaultWindow;
+    }
+
+    // "DELIVERED=0s, PROCESSING->SHIPPED=1s"
+    static Map<String, Duration> parseWindows(String spec) {
+        Map<String, Duration> windows = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.lastIndexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected STATUS=duration or FROM->TO=duration: " + entry);
+            }
+            windows.put(entry.substring(0, eq).trim().toUpperCase(),
+                    DurationStyle.detectAndParse(entry.substring(eq + 1).trim()));
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,105 @@
+package com.notification.coalesce;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: one thread and a ring of buckets instead of a thread or
+ * scheduled task per timeout. A timeout lands in the bucket of its deadline
+ * tick and fires when the wheel reaches that bucket on the right lap, so
+ * timing is accurate to one tick. Scheduling is a lock-free enqueue; there is
+ * no cancellation, callers ignore timeouts they no longer need.
+ */
+@Slf4j
+final class TimerWheel<T> implements AutoCloseable {
+
+    private static final class Timeout<T> {
+        final T item;
+        final long deadlineTick;
+
+        Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout<T>>> buckets;
+    private final Queue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> onExpiry;
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    TimerWheel(Duration tickDuration, int bucketCount, Consumer<T> onExpiry, String name) {
+        if (Integer.bitCount(bucketCount) != 1) {
+            throw new IllegalArgumentException("bucketCount must be a power of two");
+        }
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = bucketCount - 1;
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) buckets.add(new ArrayList<>());
+        this.onExpiry = onExpiry;
+        this.worker = Thread.ofPlatform().daemon().name(name).start(this::run);
+    }
+
+    /** Fires {@code item} once {@code delay} has passed (rounded up to whole ticks). */
+    void schedule(T item, Duration delay) {
+        long dueNanos = System.nanoTime() - startNanos + delay.toNanos();
+        incoming.add(new Timeout<>(item, Math.ceilDiv(dueNanos, tickNanos)));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long sleep = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+                if (sleep > 0) TimeUnit.NANOSECONDS.sleep(sleep);
+            } catch (InterruptedException e) {
+                return;
+            }
+            tick++;
+            transferIncoming();
+            expire(buckets.get((int) (tick & mask)));
+        }
+    }
+
+    private void transferIncoming() {
+        for (Timeout<T> t; (t = incoming.poll()) != null; ) {
+            // Already overdue: fire on this tick
+            long due = Math.max(t.deadlineTick, tick);
+            buckets.get((int) (due & mask)).add(due == t.deadlineTick ? t : new Timeout<>(t.item, due));
+        }
+    }
+
+    private void expire(List<Timeout<T>> bucket) {
+        List<T> due = new ArrayList<>();
+        bucket.removeIf(t -> {
+            if (t.deadlineTick > tick) return false;     // due on a later lap
+            due.add(t.item);
+            return true;
+        });
+        for (T item : due) {
+            try {
+                onExpiry.accept(item);
+            } catch (RuntimeException e) {
+                log.error("Timer callback failed", e);
+            }
+        }
+    }
+}
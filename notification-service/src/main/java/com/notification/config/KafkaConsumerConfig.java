@@ -1,15 +1,19 @@
 package com.notification.config;
 
+import com.notification.serialization.OrderEventDeserializer;
 import org.apache.kafka.clients.consumer.*;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class KafkaConsumerConfig {
@@ -17,17 +21,26 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // One consumer per partition at most; extra consumers sit idle
+    @Value("${notifications.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${notifications.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
     @Bean
     public ConsumerFactory<String, Map<String, Object>> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-group");
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // Binary order events, with JSON fallback while producers switch over
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderEventDeserializer.class);
         config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         // Manual ack for at-least-once processing
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         return new DefaultKafkaConsumerFactory<>(config);
     }
 
@@ -37,8 +50,18 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, Map<String, Object>> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.getContainerProperties()
-               .setAckMode(org.springframework.kafka.listener.ContainerProperties.AckMode.RECORD);
+        factory.setConcurrency(concurrency);
+        // Whole poll handed to the listener, which commits itself: parked status updates hold their offsets
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Lets a quiet partition seek back to a parked update whose send failed (onIdleContainer)
+        factory.getContainerProperties().setIdleEventInterval(10_000L);
         return factory;
     }
+
+    /** Runs each order's events of a batch on its own virtual thread. */
+    @Bean(destroyMethod = "close")
+    public ExecutorService orderEventExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
 }
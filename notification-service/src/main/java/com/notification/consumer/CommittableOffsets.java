@@ -0,0 +1,103 @@
+package com.notification.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * How far each partition may be committed: up to the end of the last batch,
+ * but never past a status update still parked in the coalescer. A crash inside
+ * a coalescing window then redelivers the update instead of losing it.
+ *
+ * A parked update whose notification could neither be sent nor handed to the
+ * retry topics is released from the park and reported by {@link #toRewind},
+ * so the consumer seeks back and reads it again. Holding it would stop the
+ * partition's commits until the next rebalance.
+ *
+ * {@link #park} may be called from any thread; the rest runs on the consumer
+ * thread.
+ */
+final class CommittableOffsets {
+
+    private static final class Progress {
+        final ConcurrentSkipListSet<Long> parked = new ConcurrentSkipListSet<>();
+        final ConcurrentSkipListSet<Long> failed = new ConcurrentSkipListSet<>();
+        long next = -1;
+        long committed = -1;
+    }
+
+    private final ConcurrentMap<TopicPartition, Progress> partitions = new ConcurrentHashMap<>();
+
+    /** Holds {@code record}'s offset until {@code sent} completes; a failed send is rewound to. */
+    void park(ConsumerRecord<?, ?> record, CompletableFuture<?> sent) {
+        Progress progress = partitions.computeIfAbsent(partition(record), k -> new Progress());
+        progress.parked.add(record.offset());
+        sent.whenComplete((r, e) -> {
+            // Marked failed before it leaves the park, so the commit never passes it in between
+            if (e != null) progress.failed.add(record.offset());
+            progress.parked.remove(record.offset());
+        });
+    }
+
+    /** Marks a handled batch; its parked records stay held. */
+    void processed(List<? extends ConsumerRecord<?, ?>> records) {
+        for (ConsumerRecord<?, ?> record : records) {
+            Progress progress = partitions.computeIfAbsent(partition(record), k -> new Progress());
+            progress.next = Math.max(progress.next, record.offset() + 1);
+        }
+    }
+
+    /** Offsets that moved since the last call, ready for {@code commitSync}. */
+    Map<TopicPartition, OffsetAndMetadata> toCommit() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        partitions.forEach((partition, progress) -> {
+            long upTo = Math.min(progress.next,
+                    Math.min(oldest(progress.parked), oldest(progress.failed)));
+            if (upTo > progress.committed) {
+                offsets.put(partition, new OffsetAndMetadata(upTo));
+                progress.committed = upTo;
+            }
+        });
+        return offsets;
+    }
+
+    /**
+     * Per partition, the oldest parked offset whose send failed since the last
+     * call. The caller seeks there; the commit stays behind it until the
+     * record is processed again.
+     */
+    Map<TopicPartition, Long> toRewind() {
+        Map<TopicPartition, Long> rewind = new HashMap<>();
+        partitions.forEach((partition, progress) -> {
+            // Drained one at a time, so a failure reported meanwhile is either taken or kept
+            Long oldestFailed = null;
+            for (Long offset; (offset = progress.failed.pollFirst()) != null; ) {
+                oldestFailed = oldestFailed == null ? offset : Math.min(oldestFailed, offset);
+            }
+            if (oldestFailed == null) return;
+            progress.next = Math.min(progress.next, oldestFailed);
+            rewind.put(partition, oldestFailed);
+        });
+        return rewind;
+    }
+
+    /** Forgets revoked partitions; their new owner resumes from the last commit. */
+    void revoked(Collection<TopicPartition> revoked) {
+        revoked.forEach(partitions::remove);
+    }
+
+    private static long oldest(ConcurrentSkipListSet<Long> offsets) {
+        Long oldest = offsets.ceiling(Long.MIN_VALUE);
+        return oldest != null ? oldest : Long.MAX_VALUE;
+    }
+
+    private static TopicPartition partition(ConsumerRecord<?, ?> record) {
+        return new TopicPartition(record.topic(), record.partition());
+    }
+}
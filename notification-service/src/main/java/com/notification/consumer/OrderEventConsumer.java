@@ -1,48 +1,164 @@
 package com.notification.consumer;
 
+import com.notification.dedupe.EventDeduplicator;
 import com.notification.service.NotificationService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
 
+/**
+ * Consumes {@code order-events} a poll at a time. Records are keyed by order
+ * number, so a batch is split per order: each order's events run in offset
+ * order on one virtual thread, while different orders run in parallel. Once
+ * every order is done the listener commits the batch, except that a partition
+ * stops at its oldest status update still parked in the coalescer; that
+ * offset is committed once the coalesced notification is sent. If it can be
+ * neither sent nor retried, the listener seeks back and consumes it again.
+ *
+ * A failed event is handed to {@link RetryingOrderEventConsumer}'s topics
+ * rather than retried here, together with the order's later events so they
+ * stay in order behind it: the rest of the batch, and in later polls every
+ * event for the order until its retries are resolved ({@link PendingRetries}).
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class OrderEventConsumer {
+public class OrderEventConsumer implements ConsumerSeekAware {
 
     private final NotificationService notificationService;
+    private final EventDeduplicator deduplicator;
+    private final PendingRetries pendingRetries;
+    private final ExecutorService orderEventExecutor;
+    private final KafkaTemplate<String, Map<String, Object>> retryKafkaTemplate;
+    private final Counter forwarded;
+    private final Counter rewound;
+    private final CommittableOffsets offsets = new CommittableOffsets();
+
+    public OrderEventConsumer(NotificationService notificationService,
+                              EventDeduplicator deduplicator,
+                              PendingRetries pendingRetries,
+                              ExecutorService orderEventExecutor,
+                              KafkaTemplate<String, Map<String, Object>> retryKafkaTemplate,
+                              MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.deduplicator = deduplicator;
+        this.pendingRetries = pendingRetries;
+        this.orderEventExecutor = orderEventExecutor;
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.forwarded = Counter.builder("notifications.retry.forwarded")
+                .description("Events handed from order-events to the retry topics")
+                .register(meterRegistry);
+        this.rewound = Counter.builder("notifications.coalesce.rewound")
+                .description("Partitions sought back to a parked status update that could neither be sent nor retried")
+                .register(meterRegistry);
+        Gauge.builder("notifications.retry.held-orders", pendingRetries, PendingRetries::size)
+                .description("Orders whose new events go to the retry topics behind an earlier one")
+                .register(meterRegistry);
+    }
+
+    // Events on newly assigned partitions may have been delivered by their previous owner
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        deduplicator.partitionsAssigned();
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        offsets.revoked(partitions);
+    }
+
+    // A quiet partition brings no batch to rewind from
+    @Override
+    public void onIdleContainer(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        rewind((partition, offset) -> callback.seek(partition.topic(), partition.partition(), offset));
+    }
 
     @KafkaListener(
         topics = "order-events",
         groupId = "notification-service-group",
         containerFactory = "kafkaListenerContainerFactory"
     )
-    public void handleOrderEvent(
-            @Payload Map<String, Object> event,
-            @Header(KafkaHeaders.RECEIVED_KEY) String orderNumber,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset) {
+    public void handleOrderEvents(List<ConsumerRecord<String, Map<String, Object>>> records, Consumer<?, ?> consumer) {
+        Map<Object, List<ConsumerRecord<String, Map<String, Object>>>> byOrder = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Map<String, Object>> record : records) {
+            // Unkeyed records keep their partition order
+            Object key = record.key() != null ? record.key() : record.partition();
+            byOrder.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+        }
 
-        String eventType = (String) event.get("event");
-        log.info("Received event: {} for order: {} [partition={}, offset={}]",
-                eventType, orderNumber, partition, offset);
+        CompletableFuture.allOf(byOrder.values().stream()
+                        .map(events -> CompletableFuture.runAsync(() -> handleInOrder(events), orderEventExecutor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
 
+        offsets.processed(records);
+        rewind(consumer::seek);
+        Map<TopicPartition, OffsetAndMetadata> commit = offsets.toCommit();
+        if (!commit.isEmpty()) consumer.commitSync(commit);
+
+        log.info("Processed {} events for {} orders", records.size(), byOrder.size());
+    }
+
+    private void rewind(BiConsumer<TopicPartition, Long> seek) {
+        offsets.toRewind().forEach((partition, offset) -> {
+            log.warn("Seeking {} back to {}: its parked status update was neither sent nor retried",
+                    partition, offset);
+            seek.accept(partition, offset);
+            rewound.increment();
+        });
+    }
+
+    private void handleInOrder(List<ConsumerRecord<String, Map<String, Object>>> events) {
+        boolean failed = false;
+        for (ConsumerRecord<String, Map<String, Object>> record : events) {
+            if (!failed) {
+                // An earlier event for the order is still being retried: queue up behind it
+                failed = pendingRetries.isPending(record.key()) || !handle(record);
+            }
+            if (failed) {
+                forwardToRetry(record);
+            }
+        }
+    }
+
+    private boolean handle(ConsumerRecord<String, Map<String, Object>> record) {
+        Map<String, Object> event = record.value();
+        log.debug("Received event: {} for order: {} [partition={}, offset={}]",
+                event.get("event"), record.key(), record.partition(), record.offset());
         try {
-            switch (eventType) {
-                case "ORDER_CREATED"        -> notificationService.sendOrderConfirmation(event);
-                case "ORDER_STATUS_UPDATED" -> notificationService.sendStatusUpdate(event);
-                case "ORDER_CANCELLED"      -> notificationService.sendCancellationNotice(event);
-                default -> log.warn("Unknown event type: {}", eventType);
+            CompletableFuture<Void> sent = notificationService.dispatch(event, record.timestamp());
+            if (notificationService.coalesces(event)) {
+                // Sent a window later; only its offset waits, not the order's later events
+                offsets.park(record, sent);
+                return true;
             }
+            // Blocks only this order's virtual thread; other orders keep filling the provider batches
+            sent.join();
+            return true;
         } catch (Exception e) {
-            // In production: send to dead-letter topic
-            log.error("Failed to process event {} for order {}: {}", eventType, orderNumber, e.getMessage());
+            log.warn("Failed to process event {} for order {}, scheduling retry: {}",
+                    event.get("event"), record.key(), e.getMessage());
+            return false;
         }
     }
+
+    // Waits for the broker ack: the batch offset is only committed once every failure is parked
+    private void forwardToRetry(ConsumerRecord<String, Map<String, Object>> record) {
+        pendingRetries.forwarded(record.key());
+        retryKafkaTemplate.send(RetryingOrderEventConsumer.FAILED_TOPIC, record.key(), record.value()).join();
+        forwarded.increment();
+    }
 }
@@ -0,0 +1,107 @@
+package com.notification.consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Orders with events on the retry topics, so an order's later events queue
+ * up behind its earlier ones instead of overtaking them.
+ *
+ * While an order is pending, the main consumer forwards its new events to
+ * the retry topics, also in later polls. An order leaves once this
+ * instance's retry consumer has resolved (delivered or dead-lettered) every
+ * event forwarded for it, or {@code hold-order-for} after its last forward,
+ * which covers retries resolved by another instance.
+ *
+ * On the retry topics, an event that fails on a tier marks its order there.
+ * Each tier is keyed by order number, so the order's later events reach that
+ * tier after it. They are moved on to the next tier without an attempt
+ * until the order's retries resolve, and so stay behind it all the way.
+ */
+@Component
+public class PendingRetries {
+
+    private record Pending(int events, long expiresAt) {}
+
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    // Order number -> tiers an event of the order failed on, each with its expiry
+    private final ConcurrentMap<String, ConcurrentMap<Integer, Long>> failedOn = new ConcurrentHashMap<>();
+    private final long holdNanos;
+    private final LongSupplier nanoTime;
+    private volatile long sweptAt;
+
+    public PendingRetries(@Value("${notifications.retry.hold-order-for:60s}") Duration holdFor) {
+        this(holdFor, System::nanoTime);
+    }
+
+    PendingRetries(Duration holdFor, LongSupplier nanoTime) {
+        this.holdNanos = holdFor.toNanos();
+        this.nanoTime = nanoTime;
+        this.sweptAt = nanoTime.getAsLong();
+    }
+
+    /** Call before an event for {@code orderNumber} goes to the retry topics. */
+    public void forwarded(String orderNumber) {
+        if (orderNumber == null) return;
+        long now = nanoTime.getAsLong();
+        pending.compute(orderNumber, (key, current) -> new Pending(
+                current == null || expired(current.expiresAt(), now) ? 1 : current.events() + 1, now + holdNanos));
+        sweep(now);
+    }
+
+    /** An event for {@code orderNumber} left the retry topics, delivered or dead-lettered. */
+    public void resolved(String orderNumber) {
+        if (orderNumber == null) return;
+        pending.computeIfPresent(orderNumber, (key, current) ->
+                current.events() > 1 ? new Pending(current.events() - 1, current.expiresAt()) : null);
+        // Later events were held behind the resolved one; on every tier they may now be tried
+        failedOn.remove(orderNumber);
+    }
+
+    public boolean isPending(String orderNumber) {
+        if (orderNumber == null) return false;
+        Pending current = pending.get(orderNumber);
+        if (current == null) return false;
+        if (!expired(current.expiresAt(), nanoTime.getAsLong())) return true;
+        pending.remove(orderNumber, current);
+        return false;
+    }
+
+    /** An event for {@code orderNumber} failed on retry {@code tier} and moves on to the next. */
+    public void failedOn(String orderNumber, int tier) {
+        if (orderNumber == null) return;
+        long now = nanoTime.getAsLong();
+        failedOn.computeIfAbsent(orderNumber, k -> new ConcurrentHashMap<>()).put(tier, now + holdNanos);
+        sweep(now);
+    }
+
+    /** Whether an earlier event for {@code orderNumber} failed on {@code tier} and is still unresolved. */
+    public boolean mustFollow(String orderNumber, int tier) {
+        if (orderNumber == null) return false;
+        ConcurrentMap<Integer, Long> tiers = failedOn.get(orderNumber);
+        Long expiresAt = tiers == null ? null : tiers.get(tier);
+        return expiresAt != null && !expired(expiresAt, nanoTime.getAsLong());
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    // Orders nobody asks about again would otherwise stay forever
+    private void sweep(long now) {
+        if (now - sweptAt < holdNanos) return;
+        sweptAt = now;
+        pending.values().removeIf(p -> expired(p.expiresAt(), now));
+        failedOn.values().forEach(tiers -> tiers.values().removeIf(expiresAt -> expired(expiresAt, now)));
+        failedOn.values().removeIf(ConcurrentMap::isEmpty);
+    }
+
+    private static boolean expired(long expiresAt, long now) {
+        return now - expiresAt >= 0;
+    }
+}
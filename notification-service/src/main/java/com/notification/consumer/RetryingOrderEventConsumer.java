@@ -0,0 +1,128 @@
+package com.notification.consumer;
+
+import com.notification.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Non-blocking retries for events the main consumer could not deliver.
+ *
+ * <pre>
+ * order-events-failed           immediate second attempt
+ * order-events-failed-retry-0   after notifications.retry.initial-delay-ms
+ * order-events-failed-retry-1   x notifications.retry.multiplier
+ * order-events-failed-retry-2   x notifications.retry.multiplier
+ * order-events-failed-dlt       parked until replayed
+ * </pre>
+ *
+ * Each tier has its own consumer, and waiting records pause only their own
+ * partition, so a failing provider never holds up {@code order-events}.
+ *
+ * An order's events stay in order through the tiers: once one fails on a
+ * tier, the order's later events pass that tier without an attempt, until
+ * the earlier one is delivered or dead-lettered ({@link PendingRetries}).
+ * The last tier attempts every event, since whatever failed there before it
+ * has been dead-lettered.
+ */
+@Component
+@Slf4j
+public class RetryingOrderEventConsumer {
+
+    public static final String FAILED_TOPIC = "order-events-failed";
+    public static final String DLT_TOPIC    = FAILED_TOPIC + "-dlt";
+
+    private static final String RETRY_SUFFIX = "-retry-";
+
+    private final NotificationService notificationService;
+    private final PendingRetries pendingRetries;
+    private final int lastTier;
+    private final DistributionSummary retryDepth;
+    private final Counter deadLettered;
+
+    public RetryingOrderEventConsumer(NotificationService notificationService, PendingRetries pendingRetries,
+                                      @Value("${notifications.retry.attempts:4}") int attempts,
+                                      MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.pendingRetries = pendingRetries;
+        this.lastTier = attempts;
+        this.retryDepth = DistributionSummary.builder("notifications.retry.depth")
+                .description("Retry tier at which a failed notification was finally delivered")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("notifications.dlt")
+                .description("Notifications parked on the dead-letter topic")
+                .register(meterRegistry);
+    }
+
+    @RetryableTopic(
+        attempts = "${notifications.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${notifications.retry.initial-delay-ms:1000}",
+            multiplierExpression = "${notifications.retry.multiplier:5}",
+            maxDelayExpression = "${notifications.retry.max-delay-ms:60000}"),
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        numPartitions = "${notifications.retry.partitions:6}",
+        kafkaTemplate = "retryKafkaTemplate",
+        listenerContainerFactory = "retryListenerContainerFactory"
+    )
+    @KafkaListener(
+        topics = FAILED_TOPIC,
+        groupId = "notification-service-retry",
+        containerFactory = "retryListenerContainerFactory"
+    )
+    public void retry(
+            @Payload Map<String, Object> event,
+            @Header(name = KafkaHeaders.RECEIVED_KEY, required = false) String orderNumber,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+
+        int tier = tier(topic);
+        if (tier < lastTier && pendingRetries.mustFollow(orderNumber, tier)) {
+            pendingRetries.failedOn(orderNumber, tier);
+            throw new HeldBehindEarlierEvent(orderNumber, topic);
+        }
+        try {
+            notificationService.dispatchNow(event).join();
+        } catch (RuntimeException e) {
+            pendingRetries.failedOn(orderNumber, tier);
+            throw e;
+        }
+        pendingRetries.resolved(orderNumber);
+        retryDepth.record(tier);
+        log.info("Delivered {} for order {} from {}", event.get("event"), orderNumber, topic);
+    }
+
+    @DltHandler
+    public void deadLetter(
+            @Payload Map<String, Object> event,
+            @Header(name = KafkaHeaders.RECEIVED_KEY, required = false) String orderNumber) {
+        deadLettered.increment();
+        pendingRetries.resolved(orderNumber);
+        log.error("Giving up on {} for order {}; parked on {}", event.get("event"), orderNumber, DLT_TOPIC);
+    }
+
+    /** Moves an event on to the next tier, behind its order's earlier event that failed on this one. */
+    static final class HeldBehindEarlierEvent extends RuntimeException {
+        HeldBehindEarlierEvent(String orderNumber, String topic) {
+            super("Order " + orderNumber + " has an earlier event retrying past " + topic, null, false, false);
+        }
+    }
+
+    // 1 for the failed topic itself, 2 for retry-0, and so on
+    static int tier(String topic) {
+        int i = topic.lastIndexOf(RETRY_SUFFIX);
+        return i < 0 ? 1 : Integer.parseInt(topic.substring(i + RETRY_SUFFIX.length())) + 2;
+    }
+}
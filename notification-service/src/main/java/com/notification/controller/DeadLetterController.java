@@ -0,0 +1,28 @@
+package com.notification.controller;
+
+import com.notification.service.DeadLetterReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/notifications/dlt")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private static final int MAX_REPLAY = 10_000;
+
+    private final DeadLetterReplayService replayService;
+
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Integer>> replay(@RequestParam(defaultValue = "1000") int max) {
+        if (max < 1 || max > MAX_REPLAY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "max must be between 1 and " + MAX_REPLAY);
+        }
+        return ResponseEntity.ok(Map.of("replayed", replayService.replay(max)));
+    }
+}
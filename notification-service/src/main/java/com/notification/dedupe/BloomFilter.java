@@ -0,0 +1,45 @@
+package com.notification.dedupe;
+
+/**
+ * Fixed-size Bloom filter over 64-bit hashes. Probe positions come from
+ * double hashing ({@code h1 + i * h2}), so one hash of the key is enough.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashes;
+
+    BloomFilter(int expectedKeys, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = new long[(int) Math.max(1, (m + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * ln2));
+    }
+
+    void put(long hash) {
+        long h2 = secondHash(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long hash) {
+        long h2 = secondHash(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    private static long secondHash(long hash) {
+        return Long.rotateLeft(hash * 0x9E3779B97F4A7C15L, 31) | 1;
+    }
+}
@@ -0,0 +1,191 @@
+package com.notification.dedupe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Remembers which order events were already delivered, so redeliveries after
+ * a rebalance or a retry don't notify the customer twice.
+ *
+ * The window holds the last {@code window-size} ids in two generations; when
+ * the current one is full the older one is dropped. Each generation has a
+ * Bloom filter, which answers "never seen" for almost every new event without
+ * touching the fingerprint table, and a table of 64-bit fingerprints that
+ * confirms a hit.
+ *
+ * The optional {@link EventIdStore} is only asked about events the window may
+ * have missed: ones produced before the window started covering (the oldest
+ * generation's start, this instance's start, or the last partition
+ * assignment, since a peer may have delivered them). An event produced after
+ * that would have been recorded here, so a window miss is final and costs no
+ * store round trip. {@code clock-skew} allows for the producer's clock.
+ */
+@Component
+public class EventDeduplicator {
+
+    private static final class Generation {
+        final BloomFilter bloom;
+        final FingerprintSet fingerprints;
+
+        Generation(int capacity, double falsePositiveRate) {
+            this.bloom = new BloomFilter(capacity, falsePositiveRate);
+            this.fingerprints = new FingerprintSet(capacity);
+        }
+
+        boolean contains(long hash) {
+            return bloom.mightContain(hash) && fingerprints.contains(hash);
+        }
+
+        void add(long hash) {
+            bloom.put(hash);
+            fingerprints.add(hash);
+        }
+
+        long sizeInBytes() {
+            return bloom.sizeInBytes() + fingerprints.sizeInBytes();
+        }
+    }
+
+    private final int generationCapacity;
+    private final double falsePositiveRate;
+    private final EventIdStore store;
+    private final long clockSkewMs;
+    private final Clock clock;
+
+    private Generation current;
+    private Generation previous;
+    private long currentStartedAt;
+    // Deliveries from here on are in the window
+    private volatile long windowStartedAt;
+    private volatile long assignedAt;
+
+    private Counter duplicates;
+    private Counter storeLookups;
+
+    @Autowired
+    public EventDeduplicator(@Value("${notifications.dedupe.window-size:1000000}") int windowSize,
+                             @Value("${notifications.dedupe.false-positive-rate:0.01}") double falsePositiveRate,
+                             @Value("${notifications.dedupe.clock-skew:5s}") Duration clockSkew,
+                             ObjectProvider<EventIdStore> store,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this(windowSize, falsePositiveRate, store.getIfAvailable(), clockSkew, Clock.systemUTC());
+        meterRegistry.ifAvailable(registry -> {
+            duplicates = Counter.builder("notifications.dedupe.duplicates")
+                    .description("Redelivered events that were not sent again")
+                    .register(registry);
+            storeLookups = Counter.builder("notifications.dedupe.store.lookups")
+                    .description("Window misses old enough to be checked against the persistent store")
+                    .register(registry);
+            Gauge.builder("notifications.dedupe.tracked", this, EventDeduplicator::tracked)
+                    .description("Event ids in the in-memory window")
+                    .register(registry);
+        });
+    }
+
+    /** Without metrics; {@code store} may be null. */
+    public EventDeduplicator(int windowSize, double falsePositiveRate, EventIdStore store) {
+        this(windowSize, falsePositiveRate, store, Duration.ofSeconds(5), Clock.systemUTC());
+    }
+
+    EventDeduplicator(int windowSize, double falsePositiveRate, EventIdStore store, Duration clockSkew, Clock clock) {
+        this.generationCapacity = Math.max(1, windowSize / 2);
+        this.falsePositiveRate = falsePositiveRate;
+        this.store = store;
+        this.clockSkewMs = clockSkew.toMillis();
+        this.clock = clock;
+        this.current = new Generation(generationCapacity, falsePositiveRate);
+        this.previous = new Generation(generationCapacity, falsePositiveRate);
+        this.currentStartedAt = clock.millis();
+        this.windowStartedAt = currentStartedAt;
+    }
+
+    /**
+     * True if {@code eventId} was already delivered. Without the time the
+     * event was produced, a window miss is always checked against the store.
+     * Events without an id are never duplicates.
+     */
+    public boolean isDuplicate(String eventId) {
+        return isDuplicate(eventId, Long.MIN_VALUE);
+    }
+
+    /** Like {@link #isDuplicate(String)}, for an event produced at {@code producedAt} (epoch millis). */
+    public boolean isDuplicate(String eventId, long producedAt) {
+        if (eventId == null) return false;
+
+        boolean duplicate = inWindow(hash(eventId)) || (store != null && mayPredateWindow(producedAt) && lookUp(eventId));
+        if (duplicate && duplicates != null) duplicates.increment();
+        return duplicate;
+    }
+
+    /**
+     * Called when partitions are assigned: their events may have been
+     * delivered by another instance, so the window only vouches for what is
+     * produced from now on.
+     */
+    public void partitionsAssigned() {
+        assignedAt = clock.millis();
+    }
+
+    /** Records a successful delivery. */
+    public void markDelivered(String eventId) {
+        if (eventId == null) return;
+
+        long hash = hash(eventId);
+        synchronized (this) {
+            if (current.fingerprints.size() >= generationCapacity) {
+                previous = current;
+                current = new Generation(generationCapacity, falsePositiveRate);
+                windowStartedAt = currentStartedAt;
+                currentStartedAt = clock.millis();
+            }
+            current.add(hash);
+        }
+        if (store != null) store.add(eventId);
+    }
+
+    public synchronized int tracked() {
+        return current.fingerprints.size() + previous.fingerprints.size();
+    }
+
+    /** Heap held by the window: both Bloom filters and both fingerprint tables. */
+    public synchronized long sizeInBytes() {
+        return current.sizeInBytes() + previous.sizeInBytes();
+    }
+
+    private boolean mayPredateWindow(long producedAt) {
+        return producedAt < Math.max(windowStartedAt, assignedAt) + clockSkewMs;
+    }
+
+    private boolean lookUp(String eventId) {
+        if (storeLookups != null) storeLookups.increment();
+        return store.contains(eventId);
+    }
+
+    private synchronized boolean inWindow(long hash) {
+        return current.contains(hash) || previous.contains(hash);
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer
+    static long hash(String eventId) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : eventId.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,13 @@
+package com.notification.dedupe;
+
+/**
+ * Durable record of delivered event ids, consulted only for events produced
+ * before the in-memory window started covering them (see
+ * {@link EventDeduplicator}).
+ */
+public interface EventIdStore {
+
+    boolean contains(String eventId);
+
+    void add(String eventId);
+}
@@ -0,0 +1,58 @@
+package com.notification.dedupe;
+
+/**
+ * Open-addressing set of 64-bit fingerprints (linear probing, no removal).
+ * Eight bytes per slot instead of a boxed entry per id.
+ */
+final class FingerprintSet {
+
+    private static final long EMPTY = 0;
+
+    private final long[] slots;
+    private final int mask;
+    private int size;
+
+    /** Sized so {@code capacity} fingerprints keep the table at most half full. */
+    FingerprintSet(int capacity) {
+        int slotCount = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.slots = new long[slotCount];
+        this.mask = slotCount - 1;
+    }
+
+    boolean contains(long fingerprint) {
+        long f = nonEmpty(fingerprint);
+        for (int i = slot(f); ; i = (i + 1) & mask) {
+            if (slots[i] == f) return true;
+            if (slots[i] == EMPTY) return false;
+        }
+    }
+
+    /** Callers stop adding at the capacity given to the constructor. */
+    void add(long fingerprint) {
+        long f = nonEmpty(fingerprint);
+        for (int i = slot(f); ; i = (i + 1) & mask) {
+            if (slots[i] == f) return;
+            if (slots[i] == EMPTY) {
+                slots[i] = f;
+                size++;
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return (long) slots.length * Long.BYTES;
+    }
+
+    private int slot(long f) {
+        return (int) (f ^ (f >>> 32)) & mask;
+    }
+
+    private static long nonEmpty(long fingerprint) {
+        return fingerprint == EMPTY ? 1 : fingerprint;
+    }
+}
@@ -0,0 +1,38 @@
+package com.notification.dedupe;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Delivered event ids kept in Redis with a TTL, shared by every instance and
+ * surviving restarts. Enabled with {@code notifications.dedupe.redis.enabled}.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.dedupe.redis.enabled", havingValue = "true")
+public class RedisEventIdStore implements EventIdStore {
+
+    private static final String PREFIX = "notify:delivered:";
+
+    private final StringRedisTemplate redis;
+    private final Duration ttl;
+
+    public RedisEventIdStore(StringRedisTemplate redis,
+                             @Value("${notifications.dedupe.redis.ttl:7d}") Duration ttl) {
+        this.redis = redis;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public boolean contains(String eventId) {
+        return Boolean.TRUE.equals(redis.hasKey(PREFIX + eventId));
+    }
+
+    @Override
+    public void add(String eventId) {
+        redis.opsForValue().set(PREFIX + eventId, "1", ttl);
+    }
+}
@@ -0,0 +1,124 @@
+package com.notification.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Queue, batcher and limiter for a single channel. One drainer thread cuts
+ * the queue into batches (at most {@code maxBatchSize}, waiting up to
+ * {@code linger} for a batch to fill), waits for rate tokens and a
+ * concurrency slot, then sends the batch on a virtual thread.
+ */
+@Slf4j
+final class ChannelDispatcher {
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private record Pending(Notification notification, CompletableFuture<Void> done) {}
+
+    private final NotificationChannel channel;
+    private final NotificationChannel.Limits limits;
+    private final BlockingQueue<Pending> queue;
+    private final TokenBucket rateLimit;
+    private final Semaphore inFlight;
+    private final long lingerNanos;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    ChannelDispatcher(NotificationChannel channel, int queueCapacity, Duration linger, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.limits = channel.limits();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.rateLimit = new TokenBucket(limits.ratePerSecond(), limits.burst());
+        this.inFlight = new Semaphore(limits.maxConcurrency());
+        this.lingerNanos = linger.toNanos();
+
+        String name = channel.name();
+        Gauge.builder("notifications.dispatch.queued", queue, BlockingQueue::size)
+                .tag("channel", name).register(meterRegistry);
+        this.sent = Counter.builder("notifications.dispatch.sent").tag("channel", name).register(meterRegistry);
+        this.failed = Counter.builder("notifications.dispatch.failed").tag("channel", name).register(meterRegistry);
+        this.batchTimer = Timer.builder("notifications.dispatch.batch").tag("channel", name).register(meterRegistry);
+
+        this.drainer = Thread.ofPlatform().daemon().name("notify-" + name).start(this::drain);
+    }
+
+    /** Blocks while the queue is full, which pushes back on the Kafka consumers. */
+    CompletableFuture<Void> submit(Notification notification) throws InterruptedException {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Dispatcher is shut down"));
+        }
+        Pending pending = new Pending(notification, new CompletableFuture<>());
+        queue.put(pending);
+        return pending.done();
+    }
+
+    /** Stops taking work, sends everything already queued and waits for it. */
+    void close() throws InterruptedException {
+        running = false;
+        drainer.join();
+        senders.close();
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                List<Pending> batch = nextBatch();
+                if (batch.isEmpty()) continue;
+                inFlight.acquire();
+                rateLimit.acquire(batch.size());
+                senders.execute(() -> send(batch));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.forEach(p -> p.done().completeExceptionally(e));
+        }
+    }
+
+    private List<Pending> nextBatch() throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(limits.maxBatchSize());
+        Pending first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) return batch;
+        batch.add(first);
+
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < limits.maxBatchSize()) {
+            queue.drainTo(batch, limits.maxBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == limits.maxBatchSize() || remaining <= 0) break;
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            channel.send(batch.stream().map(Pending::notification).toList());
+            sent.increment(batch.size());
+            batch.forEach(p -> p.done().complete(null));
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.warn("Channel {} failed a batch of {}: {}", channel.name(), batch.size(), e.getMessage());
+            batch.forEach(p -> p.done().completeExceptionally(e));
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            inFlight.release();
+        }
+    }
+}
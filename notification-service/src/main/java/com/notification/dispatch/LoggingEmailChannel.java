@@ -0,0 +1,47 @@
+package com.notification.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Local stand-in for an email provider: logs each message instead of sending
+ * it. Replace with a SendGrid/SES channel in production; the limits mirror a
+ * typical bulk-send quota.
+ */
+@Component
+@Slf4j
+public class LoggingEmailChannel implements NotificationChannel {
+
+    @Value("${notifications.channels.email.rate-per-second:5000}")
+    private double ratePerSecond;
+
+    @Value("${notifications.channels.email.burst:500}")
+    private int burst;
+
+    @Value("${notifications.channels.email.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${notifications.channels.email.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public Limits limits() {
+        return new Limits(ratePerSecond, burst, maxBatchSize, maxConcurrency);
+    }
+
+    @Override
+    public void send(List<Notification> batch) {
+        for (Notification n : batch) {
+            log.debug("[EMAIL] {} sent to {} | {}", n.subject(), n.recipient(), n.body());
+        }
+        log.info("[EMAIL] Sent batch of {}", batch.size());
+    }
+}
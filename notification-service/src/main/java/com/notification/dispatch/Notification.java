@@ -0,0 +1,4 @@
+package com.notification.dispatch;
+
+/** One outbound message, addressed to a channel by name (e.g. {@code email}). */
+public record Notification(String channel, String recipient, String subject, String body, String orderNumber) {}
@@ -0,0 +1,29 @@
+package com.notification.dispatch;
+
+import java.util.List;
+
+/**
+ * A delivery provider (email, SMS, push). Implementations are Spring beans and
+ * are picked up by {@link NotificationDispatcher} by {@link #name()}.
+ */
+public interface NotificationChannel {
+
+    String name();
+
+    /** The provider's quota; the dispatcher never exceeds it. */
+    Limits limits();
+
+    /**
+     * Sends a batch through the provider's bulk API. Throwing fails every
+     * notification in the batch.
+     */
+    void send(List<Notification> batch) throws Exception;
+
+    /**
+     * @param ratePerSecond  sustained messages per second
+     * @param burst          messages that may go out at once after an idle period
+     * @param maxBatchSize   largest bulk request the provider accepts
+     * @param maxConcurrency bulk requests in flight at once
+     */
+    record Limits(double ratePerSecond, int burst, int maxBatchSize, int maxConcurrency) {}
+}
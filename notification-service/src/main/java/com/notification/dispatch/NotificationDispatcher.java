@@ -0,0 +1,55 @@
+package com.notification.dispatch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous front door for outbound notifications. Each registered
+ * {@link NotificationChannel} gets its own queue, batcher, token-bucket rate
+ * limit and concurrency cap, so a slow or throttled provider never holds up
+ * another one.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private final Map<String, ChannelDispatcher> channels;
+
+    public NotificationDispatcher(List<NotificationChannel> channels,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notifications.dispatch.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notifications.dispatch.linger:20ms}") Duration linger) {
+        this.channels = channels.stream().collect(Collectors.toUnmodifiableMap(
+                NotificationChannel::name,
+                c -> new ChannelDispatcher(c, queueCapacity, linger, meterRegistry)));
+    }
+
+    /** Completes once the provider has accepted the batch containing {@code notification}. */
+    public CompletableFuture<Void> submit(Notification notification) {
+        ChannelDispatcher channel = channels.get(notification.channel());
+        if (channel == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("No notification channel named " + notification.channel()));
+        }
+        try {
+            return channel.submit(notification);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        for (ChannelDispatcher channel : channels.values()) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.notification.dispatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket refilled continuously at a fixed rate. A caller may take more
+ * tokens than are left and wait off the debt, so a batch larger than the
+ * burst still goes out at the configured average rate.
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = burst;
+        this.clock = clock;
+        this.tokens = burst;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    /** Takes {@code permits} and returns how many nanoseconds to wait before using them. */
+    synchronized long reserve(int permits) {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        tokens -= permits;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        long wait = reserve(permits);
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+    }
+}
@@ -0,0 +1,89 @@
+package com.notification.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@code order-events} values in either format order-service can
+ * produce: the tagged binary format (first byte 0xB1) or JSON.
+ *
+ * <pre>
+ * magic:byte(0xB1)  version:byte  { tag:byte  value:UTF }*  end:byte(0)
+ * </pre>
+ *
+ * Unknown tags are skipped, so producers can add fields before consumers
+ * know about them. The tag table mirrors order-service's OrderEventCodec.
+ */
+public class OrderEventDeserializer implements Deserializer<Map<String, Object>> {
+
+    private static final byte MAGIC   = (byte) 0xB1;
+    private static final int  VERSION = 1;
+    private static final int  END     = 0;
+
+    // Tag numbers are part of the wire format: never reuse or renumber them
+    private static final List<String> FIELDS = List.of(
+            "",                 // 0 = end marker
+            "event",            // 1
+            "orderNumber",      // 2
+            "customerId",       // 3
+            "customerEmail",    // 4
+            "totalAmount",      // 5
+            "previousStatus",   // 6
+            "newStatus",        // 7
+            "timestamp",        // 8
+            "eventId"           // 9
+    );
+
+    private static final int TOTAL_AMOUNT_TAG = FIELDS.indexOf("totalAmount");
+
+    private final JsonDeserializer<Map<String, Object>> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Map<String, Object> deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Map<String, Object> deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || data.length == 0 || data[0] != MAGIC) {
+            return headers == null ? json.deserialize(topic, data) : json.deserialize(topic, headers, data);
+        }
+        return decode(data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static Map<String, Object> decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 1, data.length - 1))) {
+            int version = in.readUnsignedByte();
+            if (version > VERSION) {
+                throw new SerializationException("Unsupported order event version " + version);
+            }
+            Map<String, Object> event = new LinkedHashMap<>();
+            for (int tag = in.readUnsignedByte(); tag != END; tag = in.readUnsignedByte()) {
+                String value = in.readUTF();
+                if (tag >= FIELDS.size()) continue;     // field from a newer producer
+                event.put(FIELDS.get(tag), tag == TOTAL_AMOUNT_TAG ? new BigDecimal(value) : value);
+            }
+            return event;
+        } catch (IOException e) {
+            throw new SerializationException("Malformed binary order event", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.notification.service;
+
+import com.notification.consumer.PendingRetries;
+import com.notification.consumer.RetryingOrderEventConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Re-drives parked notifications from the dead-letter topic into the retry
+ * topics, e.g. once a provider outage is over. Progress is tracked by its own
+ * consumer group, so each parked event is replayed once.
+ */
+@Service
+@Slf4j
+public class DeadLetterReplayService {
+
+    private static final String REPLAY_GROUP = "notification-service-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<String, Map<String, Object>> consumerFactory;
+    private final KafkaTemplate<String, Map<String, Object>> retryKafkaTemplate;
+    private final PendingRetries pendingRetries;
+    private final Counter replayed;
+
+    public DeadLetterReplayService(ConsumerFactory<String, Map<String, Object>> consumerFactory,
+                                   KafkaTemplate<String, Map<String, Object>> retryKafkaTemplate,
+                                   PendingRetries pendingRetries,
+                                   MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.pendingRetries = pendingRetries;
+        this.replayed = Counter.builder("notifications.dlt.replayed")
+                .description("Dead-lettered notifications sent back to the retry topics")
+                .register(meterRegistry);
+    }
+
+    /** Replays up to {@code max} parked events and returns how many were sent. */
+    public synchronized int replay(int max) {
+        try (Consumer<String, Map<String, Object>> consumer = consumerFactory.createConsumer(REPLAY_GROUP, "replay")) {
+            List<TopicPartition> partitions = consumer.partitionsFor(RetryingOrderEventConsumer.DLT_TOPIC).stream()
+                    .map(p -> new TopicPartition(p.topic(), p.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            Map<TopicPartition, OffsetAndMetadata> next = new HashMap<>();
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            while (sends.size() < max) {
+                var records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) break;
+                for (ConsumerRecord<String, Map<String, Object>> record : records) {
+                    if (sends.size() == max) break;
+                    pendingRetries.forwarded(record.key());
+                    sends.add(retryKafkaTemplate.send(RetryingOrderEventConsumer.FAILED_TOPIC, record.key(), record.value()));
+                    next.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            // Offsets only move once every replayed event is safely back on the retry path
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+            if (!next.isEmpty()) consumer.commitSync(next);
+
+            replayed.increment(sends.size());
+            log.info("Replayed {} notifications from {}", sends.size(), RetryingOrderEventConsumer.DLT_TOPIC);
+            return sends.size();
+        }
+    }
+}
@@ -1,40 +1,147 @@
 package com.notification.service;
 
+import com.notification.coalesce.StatusUpdateCoalescer;
+import com.notification.consumer.PendingRetries;
+import com.notification.consumer.RetryingOrderEventConsumer;
+import com.notification.dedupe.EventDeduplicator;
+import com.notification.dispatch.Notification;
+import com.notification.dispatch.NotificationDispatcher;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
- * NotificationService — simulates sending emails/SMS.
- * In production: wire in SendGrid, AWS SES, or Twilio.
+ * NotificationService — turns order events into customer messages and hands
+ * them to the {@link NotificationDispatcher}, which batches and rate-limits
+ * them per provider.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
-    public void sendOrderConfirmation(Map<String, Object> event) {
+    private static final String EMAIL = "email";
+
+    private final NotificationDispatcher dispatcher;
+    private final EventDeduplicator deduplicator;
+    private final StatusUpdateCoalescer coalescer;
+    private final PendingRetries pendingRetries;
+    private final ExecutorService orderEventExecutor;
+    private final KafkaTemplate<String, Map<String, Object>> retryKafkaTemplate;
+
+    @Value("${notifications.coalesce.enabled:true}")
+    private boolean coalesceStatusUpdates;
+
+    /**
+     * Queues the notification for one order event. The future fails if the
+     * provider rejects it, so the caller can hand the event to the retry topics.
+     * Events already delivered (same {@code eventId}) complete without sending.
+     * Status updates are parked in the {@link StatusUpdateCoalescer} and
+     * complete once the notification they were folded into is sent, which may
+     * be a window later (see {@link #coalesces}).
+     */
+    public CompletableFuture<Void> dispatch(Map<String, Object> event, long producedAt) {
+        return dispatch(event, producedAt, coalesceStatusUpdates);
+    }
+
+    /** True if {@link #dispatch} parks this event rather than sending it at once. */
+    public boolean coalesces(Map<String, Object> event) {
+        return coalesceStatusUpdates && "ORDER_STATUS_UPDATED".equals(event.get("event"));
+    }
+
+    /** Like {@link #dispatch} but never coalesces; used when retrying. */
+    public CompletableFuture<Void> dispatchNow(Map<String, Object> event) {
+        return dispatch(event, Long.MIN_VALUE, false);
+    }
+
+    // producedAt (the record timestamp) tells the deduplicator whether its window can vouch for the event
+    private CompletableFuture<Void> dispatch(Map<String, Object> event, long producedAt, boolean coalesce) {
+        String eventId = (String) event.get("eventId");
+        if (deduplicator.isDuplicate(eventId, producedAt)) {
+            log.debug("Skipping already delivered event {} for order {}", eventId, event.get("orderNumber"));
+            return CompletableFuture.completedFuture(null);
+        }
+        return send(event, coalesce).thenRun(() -> deduplicator.markDelivered(eventId));
+    }
+
+    private CompletableFuture<Void> send(Map<String, Object> event, boolean coalesce) {
+        String eventType = (String) event.get("event");
+        String orderNumber = (String) event.get("orderNumber");
+        return switch (eventType == null ? "" : eventType) {
+            case "ORDER_CREATED"        -> sendOrderConfirmation(event);
+            case "ORDER_STATUS_UPDATED" -> coalesce ? park(orderNumber, event) : sendStatusUpdate(event);
+            case "ORDER_CANCELLED"      -> {
+                // A status update still waiting in its window is moot once the order is cancelled
+                coalescer.discard(orderNumber);
+                yield sendCancellationNotice(event);
+            }
+            default -> {
+                log.warn("Unknown event type: {}", eventType);
+                yield CompletableFuture.completedFuture(null);
+            }
+        };
+    }
+
+    private CompletableFuture<Void> park(String orderNumber, Map<String, Object> event) {
+        return coalescer.submit(orderNumber, event, this::sendCoalesced);
+    }
+
+    // Called on the coalescer's timer thread, so the send runs on the executor. A failed
+    // send goes to the retry topics; only when that fails too are the parked updates consumed again.
+    private CompletableFuture<Void> sendCoalesced(Map<String, Object> coalesced) {
+        Map<String, Object> event = new LinkedHashMap<>(coalesced);
+        // Its own id: the parked events' ids are marked delivered once this send or its retry
+        // forward completes, and would make the retry consumer skip a copy that kept one
+        event.computeIfPresent("eventId", (k, id) -> id + "/coalesced");
+        String orderNumber = (String) event.get("orderNumber");
+
+        return CompletableFuture.supplyAsync(() -> sendStatusUpdate(event), orderEventExecutor)
+                .thenCompose(sent -> sent)
+                .exceptionallyCompose(e -> {
+                    log.warn("Coalesced status update for order {} failed, scheduling retry: {}",
+                            orderNumber, e.getMessage());
+                    pendingRetries.forwarded(orderNumber);
+                    return retryKafkaTemplate.send(RetryingOrderEventConsumer.FAILED_TOPIC, orderNumber, event)
+                            .<Void>thenApply(r -> null);
+                })
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        log.error("Could not send or retry the coalesced status update for order {}; "
+                                + "it will be consumed again: {}", orderNumber, e.getMessage());
+                    }
+                });
+    }
+
+    public CompletableFuture<Void> sendOrderConfirmation(Map<String, Object> event) {
         String email  = (String) event.get("customerEmail");
         String order  = (String) event.get("orderNumber");
         Object amount = event.get("totalAmount");
 
-        // Simulate email send — replace with real provider
-        log.info("[EMAIL] Order confirmation sent to {} | Order: {} | Total: ${}", email, order, amount);
+        return dispatcher.submit(new Notification(EMAIL, email, "Order confirmation",
+                "Order: " + order + " | Total: $" + amount, order));
     }
 
-    public void sendStatusUpdate(Map<String, Object> event) {
+    public CompletableFuture<Void> sendStatusUpdate(Map<String, Object> event) {
         String email      = (String) event.get("customerEmail");
         String order      = (String) event.get("orderNumber");
         String newStatus  = (String) event.get("newStatus");
         String prevStatus = (String) event.get("previousStatus");
 
-        log.info("[EMAIL] Status update sent to {} | Order: {} | {} -> {}", email, order, prevStatus, newStatus);
+        return dispatcher.submit(new Notification(EMAIL, email, "Status update",
+                "Order: " + order + " | " + prevStatus + " -> " + newStatus, order));
     }
 
-    public void sendCancellationNotice(Map<String, Object> event) {
+    public CompletableFuture<Void> sendCancellationNotice(Map<String, Object> event) {
         String email = (String) event.get("customerEmail");
         String order = (String) event.get("orderNumber");
 
-        log.info("[EMAIL] Cancellation notice sent to {} | Order: {}", email, order);
+        return dispatcher.submit(new Notification(EMAIL, email, "Cancellation notice", "Order: " + order, order));
     }
 }
@@ -0,0 +1,68 @@
+package com.notification.benchmark;
+
+import com.notification.dedupe.EventDeduplicator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedupe lookups per second against a full window, for redeliveries (hits)
+ * and new events (misses, answered by the Bloom filter), plus record cost.
+ * Heap held per million tracked ids is printed once per trial. No Docker needed.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main DedupeBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DedupeBenchmark {
+
+    private static final int PROBES = 1 << 16;
+
+    @Param({"1000000", "10000000"})
+    private int windowSize;
+
+    private EventDeduplicator dedupe;
+    private String[] delivered;
+    private String[] unseen;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dedupe = new EventDeduplicator(windowSize, 0.01, null);
+        delivered = new String[PROBES];
+        unseen = new String[PROBES];
+        // Ids from the newer half of the window, so none has rotated out by the end
+        for (int i = 0; i < windowSize; i++) {
+            String id = UUID.randomUUID().toString();
+            dedupe.markDelivered(id);
+            if (i >= windowSize - PROBES) delivered[i - (windowSize - PROBES)] = id;
+        }
+        for (int i = 0; i < PROBES; i++) unseen[i] = UUID.randomUUID().toString();
+
+        System.out.printf("%nwindow=%d  tracked=%d  heap=%.1f MB (%.1f MB per million ids)%n",
+                windowSize, dedupe.tracked(), dedupe.sizeInBytes() / 1e6,
+                dedupe.sizeInBytes() / 1e6 / (dedupe.tracked() / 1e6));
+    }
+
+    @Benchmark
+    public boolean lookupDuplicate() {
+        return dedupe.isDuplicate(delivered[ThreadLocalRandom.current().nextInt(PROBES)]);
+    }
+
+    @Benchmark
+    public boolean lookupNew() {
+        return dedupe.isDuplicate(unseen[ThreadLocalRandom.current().nextInt(PROBES)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean lookupNewContended() {
+        return dedupe.isDuplicate(unseen[ThreadLocalRandom.current().nextInt(PROBES)]);
+    }
+}
@@ -0,0 +1,134 @@
+package com.notification.coalesce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+class StatusUpdateCoalescerTest {
+
+    private final List<Map<String, Object>> sent = new CopyOnWriteArrayList<>();
+    private StatusUpdateCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new StatusUpdateCoalescer(Duration.ofMillis(300), Duration.ofSeconds(2),
+                StatusUpdateCoalescer.parseWindows("DELIVERED=0s, PROCESSING->SHIPPED=50ms"),
+                Duration.ofMillis(10), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.close();
+    }
+
+    @Test
+    @DisplayName("A burst of transitions is sent once, from the first previous status to the latest one")
+    void burst_isCoalesced() {
+        submit("ORD-1", "PENDING", "CONFIRMED");
+        submit("ORD-1", "CONFIRMED", "PROCESSING");
+        submit("ORD-1", "PROCESSING", "PACKED");
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> sent.size() == 1);
+        assertThat(sent.get(0)).containsEntry("previousStatus", "PENDING").containsEntry("newStatus", "PACKED");
+        assertThat(coalescer.pendingOrders()).isZero();
+    }
+
+    @Test
+    @DisplayName("A zero window sends immediately and takes the order's pending update with it")
+    void zeroWindow_flushesAtOnce() {
+        submit("ORD-2", "PENDING", "SHIPPED");
+        submit("ORD-2", "SHIPPED", "DELIVERED");
+
+        assertThat(sent).singleElement().satisfies(e -> {
+            assertThat(e).containsEntry("previousStatus", "PENDING");
+            assertThat(e).containsEntry("newStatus", "DELIVERED");
+        });
+    }
+
+    @Test
+    @DisplayName("Transition-specific windows override the default, and orders are coalesced independently")
+    void windows_perTransitionAndPerOrder() {
+        submit("ORD-3", "PROCESSING", "SHIPPED");
+        submit("ORD-4", "PENDING", "CONFIRMED");
+
+        await().atMost(Duration.ofMillis(250)).until(() -> sent.size() == 1);
+        assertThat(sent.get(0)).containsEntry("orderNumber", "ORD-3");
+        await().atMost(Duration.ofSeconds(2)).until(() -> sent.size() == 2);
+    }
+
+    @Test
+    @DisplayName("Steady updates are still sent once the maximum window has passed")
+    void steadyUpdates_cappedByMaxWindow() throws InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger n = new AtomicInteger();
+        while (sent.isEmpty() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4)) {
+            submit("ORD-5", "S" + n.get(), "S" + n.incrementAndGet());
+            Thread.sleep(100);
+        }
+
+        assertThat(sent).isNotEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+    }
+
+    @Test
+    @DisplayName("Discarding drops a pending update, and close flushes whatever is left")
+    void discardAndClose() throws InterruptedException {
+        submit("ORD-6", "PENDING", "CONFIRMED");
+        submit("ORD-7", "PENDING", "CONFIRMED");
+
+        coalescer.discard("ORD-6");
+        coalescer.close();
+
+        assertThat(sent).extracting(e -> e.get("orderNumber")).containsExactly("ORD-7");
+    }
+
+    @Test
+    @DisplayName("Every parked update completes only when the notification it was folded into is sent")
+    void parkedUpdates_completeWithTheirSend() {
+        CompletableFuture<Void> send = new CompletableFuture<>();
+        CompletableFuture<Void> first = coalescer.submit("ORD-8", event("ORD-8", "PENDING", "CONFIRMED"), e -> send);
+        CompletableFuture<Void> second = coalescer.submit("ORD-8", event("ORD-8", "CONFIRMED", "DELIVERED"), e -> send);
+
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+        send.complete(null);
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+    }
+
+    @Test
+    @DisplayName("A failed send fails its parked updates, and a discarded update completes")
+    void parkedUpdates_failOrDiscard() {
+        CompletableFuture<Void> failed = coalescer.submit("ORD-9", event("ORD-9", "SHIPPED", "DELIVERED"),
+                e -> CompletableFuture.failedFuture(new IllegalStateException("provider down")));
+        CompletableFuture<Void> dropped = coalescer.submit("ORD-10", event("ORD-10", "PENDING", "CONFIRMED"),
+                e -> new CompletableFuture<>());
+        coalescer.discard("ORD-10");
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(dropped).isCompleted();
+    }
+
+    private CompletableFuture<Void> submit(String orderNumber, String from, String to) {
+        return coalescer.submit(orderNumber, event(orderNumber, from, to), e -> {
+            sent.add(e);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static Map<String, Object> event(String orderNumber, String from, String to) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("event", "ORDER_STATUS_UPDATED");
+        event.put("orderNumber", orderNumber);
+        event.put("previousStatus", from);
+        event.put("newStatus", to);
+        return event;
+    }
+}
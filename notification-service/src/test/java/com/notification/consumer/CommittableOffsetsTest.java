@@ -0,0 +1,79 @@
+package com.notification.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CommittableOffsetsTest {
+
+    private static final TopicPartition P0 = new TopicPartition("order-events", 0);
+    private static final TopicPartition P1 = new TopicPartition("order-events", 1);
+
+    private final CommittableOffsets offsets = new CommittableOffsets();
+
+    @Test
+    @DisplayName("A parked status update holds its partition's commit until its notification is sent")
+    void parkedRecord_holdsCommit() {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        offsets.park(record(0, 11), sent);
+        offsets.processed(List.of(record(0, 10), record(0, 11), record(0, 12), record(1, 5)));
+
+        assertThat(offsets.toCommit()).containsOnly(
+                entry(P0, new OffsetAndMetadata(11)), entry(P1, new OffsetAndMetadata(6)));
+
+        offsets.processed(List.of(record(0, 13)));
+        assertThat(offsets.toCommit()).isEmpty();
+
+        sent.complete(null);
+        assertThat(offsets.toCommit()).containsOnly(entry(P0, new OffsetAndMetadata(14)));
+    }
+
+    @Test
+    @DisplayName("A failed send is rewound to once, and the commit stays behind it until it is processed again")
+    void failedSend_isRewound() {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        offsets.park(record(0, 3), sent);
+        offsets.processed(List.of(record(0, 2), record(0, 3), record(0, 4)));
+        sent.completeExceptionally(new IllegalStateException("retry topic down"));
+
+        assertThat(offsets.toRewind()).containsOnly(entry(P0, 3L));
+        assertThat(offsets.toCommit()).containsOnly(entry(P0, new OffsetAndMetadata(3)));
+        assertThat(offsets.toRewind()).isEmpty();
+
+        offsets.processed(List.of(record(0, 3), record(0, 4)));
+        assertThat(offsets.toCommit()).containsOnly(entry(P0, new OffsetAndMetadata(5)));
+    }
+
+    @Test
+    @DisplayName("Several failed sends on a partition rewind to the oldest")
+    void severalFailedSends_rewindToOldest() {
+        offsets.park(record(0, 8), CompletableFuture.failedFuture(new IllegalStateException("down")));
+        offsets.park(record(0, 5), CompletableFuture.failedFuture(new IllegalStateException("down")));
+        offsets.park(record(1, 2), CompletableFuture.completedFuture(null));
+        offsets.processed(List.of(record(0, 5), record(0, 8), record(1, 2)));
+
+        assertThat(offsets.toRewind()).containsOnly(entry(P0, 5L));
+    }
+
+    @Test
+    @DisplayName("Revoked partitions are forgotten and start over when assigned again")
+    void revokedPartition_isForgotten() {
+        offsets.park(record(0, 7), new CompletableFuture<>());
+        offsets.processed(List.of(record(0, 7)));
+        offsets.revoked(List.of(P0));
+
+        offsets.processed(List.of(record(0, 7), record(0, 8)));
+
+        assertThat(offsets.toCommit()).containsOnly(entry(P0, new OffsetAndMetadata(9)));
+    }
+
+    private static ConsumerRecord<String, String> record(int partition, long offset) {
+        return new ConsumerRecord<>("order-events", partition, offset, "ORD-1", "event");
+    }
+}
@@ -0,0 +1,131 @@
+package com.notification.consumer;
+
+import com.notification.dedupe.EventDeduplicator;
+import com.notification.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.*;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderEventConsumerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("order-events", 0);
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Map<String, Object>> retryKafkaTemplate = mock(KafkaTemplate.class);
+    private final Consumer<?, ?> kafkaConsumer = mock(Consumer.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<String> dispatched = new CopyOnWriteArrayList<>();
+
+    private final OrderEventConsumer consumer = new OrderEventConsumer(notificationService,
+            mock(EventDeduplicator.class), new PendingRetries(Duration.ofSeconds(60)), executor,
+            retryKafkaTemplate, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Each order's events are handled in offset order, one after the other, while orders run in parallel")
+    void sameOrderInSequence_ordersInParallel() {
+        // Both orders' first events must be in flight at once, or neither gets past the barrier
+        CyclicBarrier bothOrders = new CyclicBarrier(2);
+        when(notificationService.dispatch(anyMap(), anyLong())).thenAnswer(call -> {
+            Map<String, Object> event = call.getArgument(0);
+            String id = (String) event.get("eventId");
+            dispatched.add(id);
+            if (id.endsWith("-a")) {
+                return CompletableFuture.runAsync(() -> await(bothOrders));
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+
+        consumer.handleOrderEvents(List.of(
+                record(0, "ORD-1", "1-a"), record(1, "ORD-2", "2-a"), record(2, "ORD-1", "1-b"),
+                record(3, "ORD-2", "2-b"), record(4, "ORD-1", "1-c")), kafkaConsumer);
+
+        assertThat(dispatched).containsSubsequence("1-a", "1-b", "1-c").containsSubsequence("2-a", "2-b");
+        // A later event only starts once the earlier one has been sent
+        assertThat(dispatched.indexOf("1-b")).isGreaterThan(dispatched.indexOf("2-a"));
+        assertThat(dispatched.indexOf("2-b")).isGreaterThan(dispatched.indexOf("1-a"));
+        verify(kafkaConsumer).commitSync(Map.of(P0, new OffsetAndMetadata(5)));
+    }
+
+    @Test
+    @DisplayName("A parked status update holds the commit until its notification is sent")
+    void parkedRecord_holdsCommit() {
+        CompletableFuture<Void> parked = new CompletableFuture<>();
+        when(notificationService.coalesces(argThat(e -> "ORDER_STATUS_UPDATED".equals(e.get("event")))))
+                .thenReturn(true);
+        when(notificationService.dispatch(anyMap(), anyLong())).thenAnswer(call ->
+                "ORDER_STATUS_UPDATED".equals(((Map<?, ?>) call.getArgument(0)).get("event"))
+                        ? parked : CompletableFuture.completedFuture(null));
+
+        consumer.handleOrderEvents(List.of(record(0, "ORD-1", "1-a"),
+                statusUpdate(1, "ORD-2", "2-a"), record(2, "ORD-1", "1-b")), kafkaConsumer);
+        verify(kafkaConsumer).commitSync(Map.of(P0, new OffsetAndMetadata(1)));
+
+        consumer.handleOrderEvents(List.of(record(3, "ORD-3", "3-a")), kafkaConsumer);
+        verifyNoMoreInteractions(kafkaConsumer);
+
+        parked.complete(null);
+        consumer.handleOrderEvents(List.of(record(4, "ORD-3", "3-b")), kafkaConsumer);
+        verify(kafkaConsumer).commitSync(Map.of(P0, new OffsetAndMetadata(5)));
+    }
+
+    @Test
+    @DisplayName("A failed event and the order's later events go to the retry topic before the batch is committed")
+    void failedEvent_isForwardedWithLaterEvents() {
+        CompletableFuture<Object> acked = new CompletableFuture<>();
+        when(retryKafkaTemplate.send(anyString(), anyString(), anyMap())).thenAnswer(call -> acked);
+        when(notificationService.dispatch(anyMap(), anyLong())).thenAnswer(call ->
+                "1-a".equals(((Map<?, ?>) call.getArgument(0)).get("eventId"))
+                        ? CompletableFuture.failedFuture(new IllegalStateException("provider down"))
+                        : CompletableFuture.completedFuture(null));
+
+        CompletableFuture<Void> handled = CompletableFuture.runAsync(() -> consumer.handleOrderEvents(List.of(
+                record(0, "ORD-1", "1-a"), record(1, "ORD-1", "1-b"), record(2, "ORD-2", "2-a")), kafkaConsumer));
+
+        verify(retryKafkaTemplate, timeout(2_000)).send(eq(RetryingOrderEventConsumer.FAILED_TOPIC), eq("ORD-1"),
+                argThat(e -> "1-a".equals(e.get("eventId"))));
+        verify(kafkaConsumer, after(200).never()).commitSync(anyMap());
+
+        acked.complete(null);
+        handled.join();
+        verify(retryKafkaTemplate).send(eq(RetryingOrderEventConsumer.FAILED_TOPIC), eq("ORD-1"),
+                argThat(e -> "1-b".equals(e.get("eventId"))));
+        verify(notificationService, never()).dispatch(argThat(e -> "1-b".equals(e.get("eventId"))), anyLong());
+        verify(kafkaConsumer).commitSync(Map.of(P0, new OffsetAndMetadata(3)));
+    }
+
+    private static ConsumerRecord<String, Map<String, Object>> record(long offset, String order, String eventId) {
+        return new ConsumerRecord<>("order-events", 0, offset, order,
+                Map.of("event", "ORDER_CREATED", "orderNumber", order, "eventId", eventId));
+    }
+
+    private static ConsumerRecord<String, Map<String, Object>> statusUpdate(long offset, String order, String eventId) {
+        return new ConsumerRecord<>("order-events", 0, offset, order,
+                Map.of("event", "ORDER_STATUS_UPDATED", "orderNumber", order, "eventId", eventId));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.notification.consumer;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PendingRetriesTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final PendingRetries pending = new PendingRetries(Duration.ofSeconds(60), now::get);
+
+    @Test
+    @DisplayName("An order stays held until every forwarded event is resolved")
+    void heldUntilEveryRetryResolves() {
+        pending.forwarded("ORD-1");
+        pending.forwarded("ORD-1");
+
+        pending.resolved("ORD-1");
+        assertThat(pending.isPending("ORD-1")).isTrue();
+
+        pending.resolved("ORD-1");
+        assertThat(pending.isPending("ORD-1")).isFalse();
+        assertThat(pending.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Other orders are not held")
+    void otherOrders_notHeld() {
+        pending.forwarded("ORD-1");
+
+        assertThat(pending.isPending("ORD-2")).isFalse();
+        assertThat(pending.isPending(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("The hold lapses after hold-order-for without a new forward, and each forward restarts it")
+    void holdLapses() {
+        pending.forwarded("ORD-1");
+        now.addAndGet(Duration.ofSeconds(50).toNanos());
+        pending.forwarded("ORD-1");
+
+        now.addAndGet(Duration.ofSeconds(50).toNanos());
+        assertThat(pending.isPending("ORD-1")).isTrue();
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(pending.isPending("ORD-1")).isFalse();
+        assertThat(pending.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("A failure on a tier makes the order's later events follow it there, until the order resolves")
+    void failedTier_isFollowedUntilResolved() {
+        pending.forwarded("ORD-1");
+        pending.failedOn("ORD-1", 2);
+
+        assertThat(pending.mustFollow("ORD-1", 2)).isTrue();
+        assertThat(pending.mustFollow("ORD-1", 3)).as("not failed there yet").isFalse();
+        assertThat(pending.mustFollow("ORD-2", 2)).isFalse();
+
+        pending.resolved("ORD-1");
+        assertThat(pending.mustFollow("ORD-1", 2)).isFalse();
+    }
+
+    @Test
+    @DisplayName("A tier failure lapses after hold-order-for, like the hold")
+    void failedTier_lapses() {
+        pending.failedOn("ORD-1", 1);
+
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+
+        assertThat(pending.mustFollow("ORD-1", 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Lapsed orders nobody asks about again are swept on a later forward")
+    void lapsedOrders_areSwept() {
+        pending.forwarded("ORD-1");
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        pending.forwarded("ORD-2");
+
+        assertThat(pending.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.notification.consumer;
+
+import com.notification.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RetryingOrderEventConsumerTest {
+
+    private static final String FAILED = RetryingOrderEventConsumer.FAILED_TOPIC;
+    private static final String RETRY_0 = FAILED + "-retry-0";
+    private static final String RETRY_2 = FAILED + "-retry-2";
+
+    private static final Map<String, Object> CONFIRMED = Map.of("event", "ORDER_CONFIRMED", "eventId", "e-1");
+    private static final Map<String, Object> SHIPPED = Map.of("event", "ORDER_STATUS_UPDATED", "eventId", "e-2");
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final PendingRetries pendingRetries = new PendingRetries(Duration.ofSeconds(60));
+    private final RetryingOrderEventConsumer consumer =
+            new RetryingOrderEventConsumer(notificationService, pendingRetries, 4, new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("A later event passes the tier its order's earlier event failed on, and is tried once that one is delivered")
+    void laterEvent_followsEarlierFailure() {
+        when(notificationService.dispatchNow(CONFIRMED))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("provider down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(notificationService.dispatchNow(SHIPPED)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThatThrownBy(() -> consumer.retry(CONFIRMED, "ORD-1", FAILED)).hasRootCauseMessage("provider down");
+        assertThatThrownBy(() -> consumer.retry(SHIPPED, "ORD-1", FAILED))
+                .isInstanceOf(RetryingOrderEventConsumer.HeldBehindEarlierEvent.class);
+        verify(notificationService, never()).dispatchNow(SHIPPED);
+
+        consumer.retry(CONFIRMED, "ORD-1", RETRY_0);
+        consumer.retry(SHIPPED, "ORD-1", RETRY_0);
+
+        verify(notificationService).dispatchNow(SHIPPED);
+    }
+
+    @Test
+    @DisplayName("Other orders are tried as usual")
+    void otherOrder_isTried() {
+        when(notificationService.dispatchNow(CONFIRMED))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("provider down")));
+        when(notificationService.dispatchNow(SHIPPED)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThatThrownBy(() -> consumer.retry(CONFIRMED, "ORD-1", FAILED));
+        consumer.retry(SHIPPED, "ORD-2", FAILED);
+
+        verify(notificationService).dispatchNow(SHIPPED);
+    }
+
+    @Test
+    @DisplayName("The last tier tries every event, since the earlier failure there was dead-lettered")
+    void lastTier_triesEveryEvent() {
+        when(notificationService.dispatchNow(CONFIRMED))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("provider down")));
+        when(notificationService.dispatchNow(SHIPPED)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThatThrownBy(() -> consumer.retry(CONFIRMED, "ORD-1", RETRY_2));
+        consumer.retry(SHIPPED, "ORD-1", RETRY_2);
+
+        verify(notificationService).dispatchNow(SHIPPED);
+    }
+
+    @Test
+    @DisplayName("Topics map to tiers: 1 for the failed topic, 2 for retry-0 and so on")
+    void tierOfTopic() {
+        assertThat(RetryingOrderEventConsumer.tier(FAILED)).isEqualTo(1);
+        assertThat(RetryingOrderEventConsumer.tier(RETRY_0)).isEqualTo(2);
+        assertThat(RetryingOrderEventConsumer.tier(RETRY_2)).isEqualTo(4);
+    }
+}
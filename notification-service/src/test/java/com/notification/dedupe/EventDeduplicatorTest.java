@@ -0,0 +1,126 @@
+package com.notification.dedupe;
+
+import org.junit.jupiter.api.*;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class EventDeduplicatorTest {
+
+    @Test
+    @DisplayName("A delivered event id is reported as a duplicate; new and missing ids are not")
+    void isDuplicate_afterDelivery() {
+        EventDeduplicator dedupe = new EventDeduplicator(1_000, 0.01, null);
+
+        dedupe.markDelivered("evt-1");
+
+        assertThat(dedupe.isDuplicate("evt-1")).isTrue();
+        assertThat(dedupe.isDuplicate("evt-2")).isFalse();
+        assertThat(dedupe.isDuplicate(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Bloom false positives never drop a new event: hits are confirmed by fingerprint")
+    void isDuplicate_noFalsePositives() {
+        EventDeduplicator dedupe = new EventDeduplicator(200_000, 0.05, null);
+        IntStream.range(0, 100_000).forEach(i -> dedupe.markDelivered(UUID.randomUUID().toString()));
+
+        long falseHits = IntStream.range(0, 100_000)
+                .filter(i -> dedupe.isDuplicate(UUID.randomUUID().toString()))
+                .count();
+
+        assertThat(falseHits).isZero();
+    }
+
+    @Test
+    @DisplayName("The window keeps the most recent ids and forgets the oldest generation")
+    void window_rotatesGenerations() {
+        EventDeduplicator dedupe = new EventDeduplicator(100, 0.01, null);
+        IntStream.range(0, 150).forEach(i -> dedupe.markDelivered("evt-" + i));
+
+        assertThat(dedupe.tracked()).isLessThanOrEqualTo(100);
+        assertThat(dedupe.isDuplicate("evt-149")).isTrue();
+        assertThat(dedupe.isDuplicate("evt-60")).isTrue();
+        assertThat(dedupe.isDuplicate("evt-0")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Ids outside the window fall back to the persistent store")
+    void isDuplicate_fallsBackToStore() {
+        Set<String> durable = new HashSet<>();
+        EventIdStore store = new EventIdStore() {
+            @Override public boolean contains(String eventId) { return durable.contains(eventId); }
+            @Override public void add(String eventId) { durable.add(eventId); }
+        };
+        EventDeduplicator dedupe = new EventDeduplicator(10, 0.01, store);
+        IntStream.range(0, 50).forEach(i -> dedupe.markDelivered("evt-" + i));
+
+        assertThat(dedupe.isDuplicate("evt-0")).isTrue();
+        assertThat(durable).hasSize(50);
+    }
+
+    @Test
+    @DisplayName("Window misses for events produced after the window started are final; older ones ask the store")
+    void store_onlyForEventsOlderThanWindow() {
+        CountingStore store = new CountingStore(Set.of("evt-old", "evt-new"));
+        MutableClock clock = new MutableClock(1_000_000);
+        EventDeduplicator dedupe = new EventDeduplicator(100, 0.01, store, Duration.ofSeconds(5), clock);
+
+        assertThat(dedupe.isDuplicate("evt-new", 1_010_000)).isFalse();
+        assertThat(store.lookups).isZero();
+
+        assertThat(dedupe.isDuplicate("evt-old", 1_002_000)).isTrue();
+        assertThat(dedupe.isDuplicate("evt-old")).isTrue();
+        assertThat(store.lookups).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("After a rotation or a partition assignment, older events go back to the store")
+    void store_afterRotationAndAssignment() {
+        CountingStore store = new CountingStore(Set.of("evt-peer"));
+        MutableClock clock = new MutableClock(1_000_000);
+        EventDeduplicator dedupe = new EventDeduplicator(10, 0.01, store, Duration.ofSeconds(5), clock);
+
+        clock.millis = 2_000_000;
+        assertThat(dedupe.isDuplicate("evt-peer", 1_500_000)).isFalse();
+        assertThat(store.lookups).isZero();
+
+        dedupe.partitionsAssigned();
+        assertThat(dedupe.isDuplicate("evt-peer", 1_500_000)).isTrue();
+
+        clock.millis = 3_000_000;
+        IntStream.range(0, 11).forEach(i -> dedupe.markDelivered("evt-" + i));
+        clock.millis = 4_000_000;
+        IntStream.range(11, 16).forEach(i -> dedupe.markDelivered("evt-" + i));
+        assertThat(dedupe.isDuplicate("evt-peer", 2_500_000)).isTrue();
+        assertThat(store.lookups).isEqualTo(2);
+    }
+
+    private static final class CountingStore implements EventIdStore {
+        final Set<String> delivered = new HashSet<>();
+        int lookups;
+
+        CountingStore(Set<String> delivered) {
+            this.delivered.addAll(delivered);
+        }
+
+        @Override public boolean contains(String eventId) { lookups++; return delivered.contains(eventId); }
+        @Override public void add(String eventId) { delivered.add(eventId); }
+    }
+
+    private static final class MutableClock extends Clock {
+        long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public long millis() { return millis; }
+        @Override public Instant instant() { return Instant.ofEpochMilli(millis); }
+    }
+}
@@ -0,0 +1,129 @@
+package com.notification.dispatch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    /** Stub provider that records batches and can be made slow or failing. */
+    static class RecordingChannel implements NotificationChannel {
+        final Limits limits;
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        volatile long sendMillis;
+        volatile boolean failing;
+
+        RecordingChannel(Limits limits) {
+            this.limits = limits;
+        }
+
+        @Override public String name() { return "test"; }
+        @Override public Limits limits() { return limits; }
+
+        @Override
+        public void send(List<Notification> batch) throws Exception {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                if (sendMillis > 0) Thread.sleep(sendMillis);
+                if (failing) throw new IllegalStateException("provider unavailable");
+                batchSizes.add(batch.size());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) dispatcher.close();
+    }
+
+    @Test
+    @DisplayName("Concurrent submissions are sent in batches no larger than the provider accepts")
+    void submit_batchesUpToMaxSize() {
+        RecordingChannel channel = new RecordingChannel(new NotificationChannel.Limits(100_000, 100_000, 50, 4));
+        dispatcher = dispatcher(channel);
+
+        CompletableFuture.allOf(submitAll(1_000)).join();
+
+        assertThat(channel.batchSizes).allMatch(size -> size <= 50);
+        assertThat(channel.batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(1_000);
+        assertThat(channel.batchSizes.size()).isLessThan(1_000 / 5);
+    }
+
+    @Test
+    @DisplayName("Sends never exceed the token-bucket rate or the concurrency cap")
+    void submit_respectsRateAndConcurrency() {
+        RecordingChannel channel = new RecordingChannel(new NotificationChannel.Limits(1_000, 50, 25, 2));
+        channel.sendMillis = 5;
+        dispatcher = dispatcher(channel);
+
+        long start = System.nanoTime();
+        CompletableFuture.allOf(submitAll(550)).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 50 go out on the burst, the other 500 at 1,000/s
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(450);
+        assertThat(channel.maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A failed batch fails every notification in it, and unknown channels fail fast")
+    void submit_propagatesFailures() {
+        RecordingChannel channel = new RecordingChannel(new NotificationChannel.Limits(1_000, 100, 10, 1));
+        channel.failing = true;
+        dispatcher = dispatcher(channel);
+
+        assertThatThrownBy(() -> dispatcher.submit(notification("test", 1)).join())
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> dispatcher.submit(notification("sms", 1)).join())
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("The token bucket lets a burst through and then charges the debt at the configured rate")
+    void tokenBucket_burstThenRate() {
+        long[] now = {0};
+        TokenBucket bucket = new TokenBucket(100, 10, () -> now[0]);
+
+        assertThat(bucket.reserve(10)).isZero();
+        assertThat(bucket.reserve(5)).isCloseTo(TimeUnit.MILLISECONDS.toNanos(50), within(1_000L));
+        now[0] += TimeUnit.SECONDS.toNanos(1);
+        assertThat(bucket.reserve(10)).isZero();    // refilled to capacity, never beyond
+        assertThat(bucket.reserve(1)).isPositive();
+    }
+
+    private NotificationDispatcher dispatcher(NotificationChannel channel) {
+        return new NotificationDispatcher(List.of(channel), new SimpleMeterRegistry(), 10_000, Duration.ofMillis(5));
+    }
+
+    private CompletableFuture<?>[] submitAll(int count) {
+        try (ExecutorService producers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<CompletableFuture<Void>>> submitted = IntStream.range(0, count)
+                    .mapToObj(i -> producers.submit(() -> dispatcher.submit(notification("test", i))))
+                    .toList();
+            return submitted.stream().map(f -> {
+                try {
+                    return f.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toArray(CompletableFuture[]::new);
+        }
+    }
+
+    private static Notification notification(String channel, int i) {
+        return new Notification(channel, "buyer" + i + "@example.com", "Order confirmation", "Order: ORD-" + i, "ORD-" + i);
+    }
+}
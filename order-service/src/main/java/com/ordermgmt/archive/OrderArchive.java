@@ -0,0 +1,76 @@
+package com.ordermgmt.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermgmt.dto.OrderResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for orders that {@link OrderArchiver} moved out of the
+ * partitioned tables. Each order is one {@code order_archive} row holding the
+ * order and its items as gzipped JSON, so a lookup is one primary-key read.
+ *
+ * JSON rather than the cache's binary format: an archived row is kept for
+ * years and must stay readable whatever that format becomes.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderArchive {
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    public Optional<OrderResponse> findById(Long id) {
+        return jdbc.query("SELECT payload FROM order_archive WHERE id = ?",
+                        (rs, n) -> decode(rs.getBytes(1)), id)
+                .stream().findFirst();
+    }
+
+    public Optional<OrderResponse> findByOrderNumber(String orderNumber) {
+        return jdbc.query("SELECT payload FROM order_archive WHERE order_number = ?",
+                        (rs, n) -> decode(rs.getBytes(1)), orderNumber)
+                .stream().findFirst();
+    }
+
+    /** Stores every order; one archived by an earlier, interrupted run is left as it is. */
+    public void store(List<OrderResponse> orders) {
+        jdbc.batchUpdate("""
+                INSERT INTO order_archive (id, order_number, customer_id, status, created_at, payload)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT (id) DO NOTHING""",
+                orders.stream().map(o -> new Object[]{
+                        o.id(), o.orderNumber(), o.customerId(), o.status().name(),
+                        Timestamp.valueOf(o.createdAt()), encode(o)}).toList());
+    }
+
+    byte[] encode(OrderResponse order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, order);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive order " + order.orderNumber(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    OrderResponse decode(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, OrderResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived order", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ordermgmt.archive;
+
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.service.OrderQueryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished orders (DELIVERED or CANCELLED) created more than
+ * {@code orders.archive.after-months} ago into {@link OrderArchive}, in
+ * batches of {@code orders.archive.batch-size}. Each batch is one
+ * transaction: lock the rows, copy them to the archive, delete them (items
+ * go by cascade). SKIP LOCKED lets several instances run it at once.
+ *
+ * Finished orders have no further transitions, so nothing can change an
+ * order between its copy and its delete. Months left empty are dropped by
+ * {@link OrderPartitionMaintainer}'s next run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiver {
+
+    private final JdbcTemplate jdbc;
+    private final TransactionOperations transactions;
+    private final OrderQueryService orderQueries;
+    private final OrderArchive archive;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.archive.after-months:12}")
+    private int afterMonths = 12;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    private Counter archived;
+
+    @PostConstruct
+    void registerMetrics() {
+        archived = Counter.builder("orders.archived")
+                .description("Finished orders moved to the order archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 45 3 * * *}")
+    public void archiveScheduled() {
+        if (enabled) archiveExpired();
+    }
+
+    /** Archives finished orders created before the first day of the month {@code after-months} ago. */
+    public int archiveExpired() {
+        return archiveCreatedBefore(LocalDate.now().withDayOfMonth(1).minusMonths(afterMonths).atStartOfDay());
+    }
+
+    public int archiveCreatedBefore(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactions.execute(status -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+
+        if (total > 0) log.info("Archived {} orders created before {}", total, cutoff);
+        return total;
+    }
+
+    // The created_at bound limits every statement to the partitions before the cutoff
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbc.queryForList("""
+                SELECT id FROM orders
+                WHERE created_at < ? AND status IN ('DELIVERED', 'CANCELLED')
+                ORDER BY created_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED""", Long.class, cutoff, batchSize);
+        if (ids.isEmpty()) return 0;
+
+        List<OrderResponse> orders = orderQueries.findAllById(ids);
+        archive.store(orders);
+        jdbc.update("DELETE FROM orders WHERE id = ANY(?) AND created_at < ?",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+                    ps.setObject(2, cutoff);
+                });
+
+        archived.increment(ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ordermgmt.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the monthly partitions of {@code orders} and {@code order_items}
+ * ahead of inserts: at startup and daily it creates any missing partition up
+ * to {@code orders.partitions.months-ahead} months out. There is no default
+ * partition, so an order whose month has no partition fails to insert rather
+ * than landing in a catch-all that would later block creating that month.
+ *
+ * The same run drops the partitions of past months that hold no orders,
+ * which is what archiving leaves behind. The previous month is kept until the
+ * following one. The DDL lives in the {@code ensure_order_partitions} and
+ * {@code drop_empty_order_partitions} functions (V7, V8).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPartitionMaintainer {
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${orders.partitions.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${orders.partitions.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        Integer added = jdbc.queryForObject("SELECT ensure_order_partitions(?, ?)", Integer.class,
+                thisMonth, thisMonth.plusMonths(monthsAhead));
+        Integer dropped = jdbc.queryForObject("SELECT drop_empty_order_partitions(?)", Integer.class,
+                thisMonth.minusMonths(1));
+        log.info("Order partitions maintained: {} months added, {} empty months dropped", added, dropped);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ordermgmt.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link VersionedCache} over a plain cache, with the fences held in this
+ * process. Atomic within one process only; the two-level cache fences in
+ * Redis instead.
+ */
+final class LocallyFencedCache implements VersionedCache {
+
+    private final Cache cache;
+    private final Map<Object, Long> fences = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .<Object, Long>build()
+            .asMap();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    LocallyFencedCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean putIfNotOlder(Object fenceKey, long version, Object value, Object... keys) {
+        lock.lock();
+        try {
+            Long fence = fences.get(fenceKey);
+            if (fence != null && fence > version) return false;
+            fences.put(fenceKey, version);
+            for (Object key : keys) cache.put(key, value);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void evictAndFence(Object fenceKey, long version, Object... keys) {
+        lock.lock();
+        try {
+            fences.merge(fenceKey, version, Math::max);
+            for (Object key : keys) cache.evict(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.ordermgmt.cache;
+
+import com.ordermgmt.dto.OrderResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the {@code orders} cache coherent across its two keys: an order is
+ * cached under both its id and its order number, and every write, eviction
+ * and read fill updates both entries together.
+ *
+ * Writes are applied after the surrounding transaction commits, so readers
+ * never see uncommitted state. Two commits can finish their callbacks in
+ * either order, and a reader can fill the cache with a snapshot it loaded
+ * before a write committed. So every put is version-fenced
+ * ({@link VersionedCache}): it is only stored if no newer version of the
+ * order has been written or evicted. On the two-level cache the fence is
+ * checked in Redis and holds across instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderCacheMaintainer {
+
+    public static final String CACHE_NAME = "orders";
+
+    // Versionless snapshots (none today) never win over a versioned one
+    private static final long NO_VERSION = -1;
+
+    // Striped locks keep one instance's L2 write and L1 update for an order in step. They are
+    // ReentrantLocks, not monitors, because they are held across Redis calls: a virtual thread
+    // blocking inside synchronized would pin its carrier thread for the round trip
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] locks = newLocks();
+
+    private final CacheManager cacheManager;
+    private volatile VersionedCache versioned;
+
+    /** An order whose cache entries go, with the version its write committed. */
+    public record Eviction(Long id, String orderNumber, long version) {}
+
+    /**
+     * Returns the order cached under {@code key}, or loads it and caches it
+     * under both keys. The load is only cached if nothing newer was written
+     * or evicted while it ran; the caller gets what it loaded either way.
+     */
+    public OrderResponse read(Object key, Supplier<OrderResponse> loader) {
+        OrderResponse cached = cache().get(key, OrderResponse.class);
+        if (cached != null) return cached;
+        OrderResponse loaded = loader.get();
+        put(loaded);
+        return loaded;
+    }
+
+    /** Caches {@code order} under both keys once the current transaction commits. */
+    public void writeThrough(OrderResponse order) {
+        afterCommit(() -> put(order));
+    }
+
+    /** Drops both keys of {@code order} once the current transaction commits. */
+    public void evict(OrderResponse order) {
+        afterCommit(() -> evict(new Eviction(order.id(), order.orderNumber(), version(order))));
+    }
+
+    /**
+     * Drops both keys of every order in {@code evictions} from one
+     * after-commit callback, for bulk writes that never load full snapshots.
+     */
+    public void evictAll(Collection<Eviction> evictions) {
+        if (evictions.isEmpty()) return;
+        List<Eviction> orders = List.copyOf(evictions);
+        afterCommit(() -> orders.forEach(this::evict));
+    }
+
+    void put(OrderResponse order) {
+        VersionedCache cache = versioned();
+        withLock(order.id(), () -> {
+            if (!cache.putIfNotOlder(order.id(), version(order), order, order.id(), order.orderNumber())) {
+                log.debug("Skipping stale cache write for order {}", order.orderNumber());
+            }
+        });
+    }
+
+    private void evict(Eviction order) {
+        VersionedCache cache = versioned();
+        withLock(order.id(), () -> cache.evictAndFence(order.id(), order.version(), order.id(), order.orderNumber()));
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("No cache named " + CACHE_NAME);
+        }
+        return cache;
+    }
+
+    // Caches without a shared level (tests, a single instance) keep their fences in-process
+    private VersionedCache versioned() {
+        VersionedCache current = versioned;
+        if (current == null) {
+            Cache cache = cache();
+            current = cache instanceof VersionedCache v ? v : new LocallyFencedCache(cache);
+            versioned = current;
+        }
+        return current;
+    }
+
+    private void withLock(Long id, Runnable action) {
+        ReentrantLock lock = locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long version(OrderResponse order) {
+        return order.version() != null ? order.version() : NO_VERSION;
+    }
+
+    // Outside a transaction (e.g. tests) the write is applied immediately
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static ReentrantLock[] newLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
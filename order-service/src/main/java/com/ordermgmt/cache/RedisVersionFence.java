@@ -0,0 +1,81 @@
+package com.ordermgmt.cache;
+
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link VersionedCache} on a RedisCache's entries, used as the L2 of
+ * {@link TwoLevelCache}. The fence and the entries it guards are read and
+ * written by one Lua script, so the compare-and-set is
+ * atomic across every instance. Entries use the RedisCache's own key prefix
+ * and value format, and the fence ({@code <prefix>fence:<id>}) lives as long
+ * as the entries. All keys of one call must be on one node (no Redis Cluster).
+ */
+final class RedisVersionFence implements VersionedCache {
+
+    // KEYS: fence, entries...  ARGV: version, ttl ms, value
+    private static final RedisScript<Long> PUT = RedisScript.of("""
+            local fence = tonumber(redis.call('GET', KEYS[1]))
+            if fence and fence > tonumber(ARGV[1]) then return 0 end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            for i = 2, #KEYS do redis.call('SET', KEYS[i], ARGV[3], 'PX', ARGV[2]) end
+            return 1""", Long.class);
+
+    // KEYS: fence, entries...  ARGV: version, ttl ms
+    private static final RedisScript<Long> EVICT = RedisScript.of("""
+            local fence = tonumber(redis.call('GET', KEYS[1]))
+            if not fence or fence < tonumber(ARGV[1]) then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            end
+            for i = 2, #KEYS do redis.call('DEL', KEYS[i]) end
+            return 1""", Long.class);
+
+    private static final RedisSerializer<Long> RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final StringRedisTemplate redis;
+    private final RedisCacheConfiguration config;
+    private final String prefix;
+    private final byte[] ttlMillis;
+
+    RedisVersionFence(String cacheName, RedisCacheConfiguration config, Duration ttl, StringRedisTemplate redis) {
+        this.redis = redis;
+        this.config = config;
+        this.prefix = config.getKeyPrefixFor(cacheName);
+        this.ttlMillis = bytes(ttl.toMillis());
+    }
+
+    @Override
+    public boolean putIfNotOlder(Object fenceKey, long version, Object value, Object... keys) {
+        ByteBuffer serialized = config.getValueSerializationPair().write(value);
+        byte[] valueBytes = new byte[serialized.remaining()];
+        serialized.get(valueBytes);
+        Long stored = redis.execute(PUT, RedisSerializer.byteArray(), RESULT, keys(fenceKey, keys),
+                bytes(version), ttlMillis, valueBytes);
+        return stored != null && stored == 1;
+    }
+
+    @Override
+    public void evictAndFence(Object fenceKey, long version, Object... keys) {
+        redis.execute(EVICT, RedisSerializer.byteArray(), RESULT, keys(fenceKey, keys), bytes(version), ttlMillis);
+    }
+
+    private List<String> keys(Object fenceKey, Object... keys) {
+        List<String> redisKeys = new ArrayList<>(keys.length + 1);
+        redisKeys.add(prefix + "fence:" + fenceKey);
+        for (Object key : keys) redisKeys.add(prefix + key);
+        return redisKeys;
+    }
+
+    private static byte[] bytes(long number) {
+        return Long.toString(number).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,190 @@
+package com.ordermgmt.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache with an in-process Caffeine level (L1) in front of a shared Redis
+ * level (L2). Reads fill L1 from L2; writes go to both levels and broadcast
+ * an invalidation so other instances drop their L1 copy.
+ *
+ * L1 keys use the key's string form, matching how RedisCache builds its keys.
+ * Version-fenced writes ({@link VersionedCache}) compare and write on L2
+ * through {@code fence} (one Redis script, see {@link RedisVersionFence}),
+ * and only touch L1 once L2 has accepted them.
+ */
+public class TwoLevelCache implements Cache, VersionedCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final InvalidationPublisher publisher;
+    private final VersionedCache fence;
+
+    private final LongAdder remoteHits   = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    @FunctionalInterface
+    interface InvalidationPublisher {
+        /** @param key the evicted key, or {@code null} when the whole cache was cleared */
+        void publish(String cacheName, String key);
+    }
+
+    TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                  Cache remote, InvalidationPublisher publisher, VersionedCache fence) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.fence = fence;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        if (wrapper.get() != null) {
+            // Never over a value written meanwhile: that one is at least as new as what L2 returned
+            local.asMap().putIfAbsent(localKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remote.get(key, valueLoader);
+        if (value != null) {
+            local.put(localKey(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        putLocal(key, value);
+        publisher.publish(name, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            putLocal(key, value);
+            publisher.publish(name, localKey(key));
+        } else {
+            putLocal(key, existing.get());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        publisher.publish(name, localKey(key));
+    }
+
+    @Override
+    public boolean putIfNotOlder(Object fenceKey, long version, Object value, Object... keys) {
+        if (!fence.putIfNotOlder(fenceKey, version, value, keys)) {
+            // L2 holds something newer; drop any older copy here so the next read fetches it
+            for (Object key : keys) local.invalidate(localKey(key));
+            return false;
+        }
+        for (Object key : keys) {
+            putLocal(key, value);
+            publisher.publish(name, localKey(key));
+        }
+        return true;
+    }
+
+    @Override
+    public void evictAndFence(Object fenceKey, long version, Object... keys) {
+        fence.evictAndFence(fenceKey, version, keys);
+        for (Object key : keys) {
+            local.invalidate(localKey(key));
+            publisher.publish(name, localKey(key));
+        }
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publish(name, null);
+    }
+
+    /** Applies an invalidation received from another instance (L1 only). */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    com.github.benmanes.caffeine.cache.Cache<String, Object> local() {
+        return local;
+    }
+
+    long remoteHits() {
+        return remoteHits.sum();
+    }
+
+    long remoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    private void putLocal(Object key, Object value) {
+        if (value == null) {
+            local.invalidate(localKey(key));
+        } else {
+            local.put(localKey(key), value);
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ordermgmt.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the Redis CacheManager in a {@link TwoLevelCache} and
+ * keeps the local levels of all instances coherent over Redis pub/sub.
+ * Messages have the form {@code instanceId|cacheName|key}; an empty key
+ * means the whole cache was cleared.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private final RedisCacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final Duration remoteTtl;
+
+    public TwoLevelCacheManager(RedisCacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry, long localMaximumSize, Duration localTtl,
+                                Duration remoteTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.remoteTtl = remoteTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(instanceId)) return;
+
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        if (!(remoteCacheManager.getCache(name) instanceof RedisCache remote)) {
+            throw new IllegalStateException("No remote cache named " + name);
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+
+        TwoLevelCache cache = new TwoLevelCache(name, local, remote, this::publishInvalidation,
+                new RedisVersionFence(name, remote.getCacheConfiguration(), remoteTtl, redisTemplate));
+        registerMetrics(cache);
+        return cache;
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    instanceId + "|" + cacheName + "|" + (key == null ? "" : key));
+        } catch (RuntimeException e) {
+            // Peers fall back to the local TTL for this entry
+            log.warn("Could not publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private void registerMetrics(TwoLevelCache cache) {
+        Tags local  = Tags.of("cache", cache.getName(), "level", "local");
+        Tags remote = Tags.of("cache", cache.getName(), "level", "remote");
+
+        Gauge.builder("cache.level.size", cache, c -> c.local().estimatedSize())
+                .tags(local).description("Entries held in the in-process cache level")
+                .register(meterRegistry);
+        Gauge.builder("cache.level.hit.ratio", cache,
+                        c -> hitRatio(c.local().stats().hitCount(), c.local().stats().missCount()))
+                .tags(local).description("Share of lookups answered by this level; NaN before any lookup")
+                .register(meterRegistry);
+        Gauge.builder("cache.level.hit.ratio", cache, c -> hitRatio(c.remoteHits(), c.remoteMisses()))
+                .tags(remote).description("Share of lookups answered by this level; NaN before any lookup")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("cache.level.gets", cache, c -> c.local().stats().hitCount())
+                .tags(local.and("result", "hit")).description("Lookups per cache level and result")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.gets", cache, c -> c.local().stats().missCount())
+                .tags(local.and("result", "miss")).description("Lookups per cache level and result")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.gets", cache, TwoLevelCache::remoteHits)
+                .tags(remote.and("result", "hit")).description("Lookups per cache level and result")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.gets", cache, TwoLevelCache::remoteMisses)
+                .tags(remote.and("result", "miss")).description("Lookups per cache level and result")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.level.evictions", cache, c -> c.local().stats().evictionCount())
+                .tags(local).description("Entries evicted from the in-process cache level for size or ttl")
+                .register(meterRegistry);
+    }
+
+    // Caffeine's own hitRate() reports 1.0 before any lookup, which reads as a perfect cache
+    private static double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+}
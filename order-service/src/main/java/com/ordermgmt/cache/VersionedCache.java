@@ -0,0 +1,17 @@
+package com.ordermgmt.cache;
+
+/**
+ * Writes that compare versions instead of overwriting. Each entity has a
+ * fence: the newest version stored or evicted for it. A value is stored
+ * under its keys only if its version is not older than the fence, so a
+ * snapshot read before a write committed can never replace what that write
+ * cached. Implementations make the compare and the write one atomic step.
+ */
+interface VersionedCache {
+
+    /** Stores {@code value} under every key and raises the fence, unless the fence is newer than {@code version}. */
+    boolean putIfNotOlder(Object fenceKey, long version, Object value, Object... keys);
+
+    /** Drops every key and raises the fence to {@code version}, so older snapshots cannot be cached again. */
+    void evictAndFence(Object fenceKey, long version, Object... keys);
+}
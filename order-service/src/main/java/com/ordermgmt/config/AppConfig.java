@@ -1,59 +1,128 @@
 package com.ordermgmt.config;
 
+import com.ordermgmt.cache.TwoLevelCacheManager;
+import com.ordermgmt.serialization.OrderEventSerializer;
+import com.ordermgmt.serialization.OrderRedisSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.*;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.*;
 import org.springframework.data.redis.cache.*;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.*;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
-public class KafkaConfig {
+class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // "binary" (OrderEventCodec) or "json"; switch only once every consumer reads binary
+    @Value("${orders.events.format:binary}")
+    private String eventFormat;
+
+    @Value("${spring.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${spring.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${spring.kafka.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+
+    @Value("${spring.kafka.producer.properties.linger.ms:10}")
+    private int lingerMs;
+
+    @Value("${spring.kafka.producer.properties.max.block.ms:2000}")
+    private long maxBlockMs;
+
+    @Value("${spring.kafka.producer.properties.request.timeout.ms:5000}")
+    private int requestTimeoutMs;
+
+    @Value("${spring.kafka.producer.properties.delivery.timeout.ms:9000}")
+    private int deliveryTimeoutMs;
+
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         // Idempotent producer — exactly-once delivery guarantee
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         config.put(ProducerConfig.ACKS_CONFIG, "all");
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
-        return new DefaultKafkaProducerFactory<>(config);
+        // The relay sends whole outbox batches: let them fill per-partition batches, compressed
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        // Bounded memory: once buffer-memory is queued unsent, send() blocks at most max.block.ms, then fails
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        // Every send is acked or failed within delivery.timeout.ms, before the relay stops waiting
+        config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(config,
+                new StringSerializer(), new OrderEventSerializer("binary".equalsIgnoreCase(eventFormat)));
+        // Producer client metrics (kafka.producer.record.send.rate, batch.size.avg, record.error.rate, ...)
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
     }
 }
 
 @Configuration
 class RedisConfig {
 
+    @Value("${cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${cache.local.ttl:5m}")
+    private Duration localTtl;
+
+    @Value("${cache.remote.ttl:10m}")
+    private Duration remoteTtl;
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate redisTemplate,
+                                     MeterRegistry meterRegistry) {
+        // Compact binary values; entries in any other format read as misses
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))           // TTL: 10 min
+                .entryTtl(remoteTtl)
                 .serializeValuesWith(
                     RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer())
+                        .fromSerializer(new OrderRedisSerializer())
                 );
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
                 .build();
+        redisCacheManager.initializeCaches();
+
+        // Caffeine near-cache (L1) in front of Redis (L2)
+        return new TwoLevelCacheManager(redisCacheManager, redisTemplate, meterRegistry,
+                localMaximumSize, localTtl, remoteTtl);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager,
+                new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return container;
     }
 }
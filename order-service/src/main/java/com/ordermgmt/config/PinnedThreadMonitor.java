@@ -0,0 +1,86 @@
+package com.ordermgmt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier, which on
+ * JDK 21 means blocking inside {@code synchronized} or a native frame. A
+ * pinned thread holds one of the few carrier threads for as long as it
+ * blocks, so a hot pinned section quietly turns back into a small thread
+ * pool. Listens for JFR's {@code jdk.VirtualThreadPinned} events above
+ * {@code threshold}, times them per site (our innermost frame, else the top
+ * frame) and logs the full stack the first time a site is seen.
+ */
+@Slf4j
+public class PinnedThreadMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String OWN_PACKAGE = "com.ordermgmt.";
+
+    private final Duration threshold;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+
+    void record(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String site = site(frames);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        if (reportedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), site,
+                    frames.stream().map(PinnedThreadMonitor::describe).collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(f -> f.isJavaFrame() && f.getMethod().getType().getName().startsWith(OWN_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(PinnedThreadMonitor::describe)
+                .orElse("unknown");
+    }
+
+    private static String describe(RecordedFrame frame) {
+        String method = frame.getMethod().getType().getName() + '.' + frame.getMethod().getName();
+        return frame.getLineNumber() > 0 ? method + ':' + frame.getLineNumber() : method;
+    }
+}
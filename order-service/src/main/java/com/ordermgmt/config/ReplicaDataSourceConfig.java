@@ -0,0 +1,82 @@
+package com.ordermgmt.config;
+
+import com.ordermgmt.datasource.ReadWriteRoutingDataSource;
+import com.ordermgmt.datasource.ReadYourWrites;
+import com.ordermgmt.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * With {@code datasource.replica.enabled}, replaces the single pool with a
+ * primary pool ({@code spring.datasource.*}), a replica pool
+ * ({@code datasource.replica.*}, sized on its own) and a router in front of
+ * them that every JPA, JDBC and Flyway user gets as the DataSource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:}") String username,
+                                              @Value("${datasource.replica.password:}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username.isEmpty() ? primary.determineUsername() : username)
+                .password(password.isEmpty() ? primary.determinePassword() : password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${datasource.replica.max-lag:1s}") Duration maxLag,
+                                               @Value("${datasource.replica.receiver-timeout:60s}") Duration receiverTimeout,
+                                               @Value("${datasource.replica.lag-check-interval-ms:1000}") long intervalMs,
+                                               MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, maxLag, receiverTimeout,
+                Duration.ofMillis(intervalMs), meterRegistry);
+        monitor.check();
+        return monitor;
+    }
+
+    // The window must cover the lag the replica is allowed, or a write could still be missing there
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${datasource.replica.max-lag:1s}") Duration maxLag,
+                                         @Value("${datasource.replica.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWrites(window.compareTo(maxLag) >= 0 ? window : maxLag, 100_000);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor, ReadYourWrites readYourWrites,
+                                 MeterRegistry meterRegistry) {
+        return ReadWriteRoutingDataSource.lazy(
+                new ReadWriteRoutingDataSource(primary, replica, lagMonitor, readYourWrites, meterRegistry));
+    }
+}
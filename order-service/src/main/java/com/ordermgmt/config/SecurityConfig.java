@@ -1,13 +1,13 @@
 package com.ordermgmt.config;
 
-import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.*;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.security.authentication.*;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -18,10 +18,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
 
 @Configuration
 @EnableWebSecurity
@@ -52,32 +49,36 @@ public class SecurityConfig {
 
 @Component
 @Slf4j
+@RequiredArgsConstructor
 class JwtFilter extends OncePerRequestFilter {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtVerifier jwtVerifier;
+    private final TrustedHopVerifier trustedHop;
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res,
                                     FilterChain chain) throws IOException, jakarta.servlet.ServletException {
+        String username = trustedUser(req);
         String header = req.getHeader("Authorization");
-        if (header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
+        if (username == null && header != null && header.startsWith("Bearer ")) {
             try {
-                SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-                Claims claims = Jwts.parser().verifyWith(key).build()
-                        .parseSignedClaims(token).getPayload();
-
-                String username = claims.getSubject();
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UsernamePasswordAuthenticationToken auth =
-                            new UsernamePasswordAuthenticationToken(username, null, java.util.List.of());
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                }
+                username = jwtVerifier.verify(header.substring(7));
             } catch (JwtException e) {
                 log.warn("Invalid JWT token: {}", e.getMessage());
             }
         }
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken auth =
+                    new UsernamePasswordAuthenticationToken(username, null, java.util.List.of());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
         chain.doFilter(req, res);
     }
+
+    // The gateway already verified the token; its signed user header saves verifying it again
+    private String trustedUser(HttpServletRequest req) {
+        if (!trustedHop.enabled()) return null;
+        String userId = req.getHeader(TrustedHopVerifier.USER_HEADER);
+        return trustedHop.verify(userId, req.getHeader(TrustedHopVerifier.AUTH_HEADER)) ? userId : null;
+    }
 }
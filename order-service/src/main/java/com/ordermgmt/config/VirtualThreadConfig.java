@@ -0,0 +1,48 @@
+package com.ordermgmt.config;
+
+import com.ordermgmt.datasource.GuardedDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Support for {@code spring.threads.virtual.enabled}, which itself moves
+ * Tomcat, the task executor and the scheduler onto virtual threads: the
+ * pinning report, and the guard that stops thousands of request threads
+ * from piling up on the connection pool.
+ */
+@Configuration
+class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = {"spring.threads.virtual.enabled", "threads.virtual.pinning-diagnostics.enabled"},
+            havingValue = "true")
+    public PinnedThreadMonitor pinnedThreadMonitor(@Value("${threads.virtual.pinning-threshold:20ms}") Duration threshold,
+                                                   MeterRegistry meterRegistry) {
+        return new PinnedThreadMonitor(threshold, meterRegistry);
+    }
+
+    // Wraps whichever "dataSource" is in use (the single pool or the replica router), so every
+    // JPA, JDBC and Flyway user goes through the guard
+    @Bean
+    @ConditionalOnProperty(name = "datasource.guard.enabled", havingValue = "true")
+    public static BeanPostProcessor guardedDataSourcePostProcessor(
+            @Value("${datasource.guard.max-concurrent:40}") int maxConcurrent,
+            @Value("${datasource.guard.acquire-timeout:500ms}") Duration acquireTimeout,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource target)) return bean;
+                return new GuardedDataSource(target, maxConcurrent, acquireTimeout, meterRegistry.getObject());
+            }
+        };
+    }
+}
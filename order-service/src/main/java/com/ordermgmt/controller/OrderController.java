@@ -1,21 +1,36 @@
 package com.ordermgmt.controller;
 
+import com.ordermgmt.dto.OrderResponse;
 import com.ordermgmt.model.*;
+import com.ordermgmt.service.CursorPage;
+import com.ordermgmt.service.OrderCursor;
+import com.ordermgmt.service.OrderExportService;
 import com.ordermgmt.service.OrderService;
+import com.ordermgmt.stats.OrderStatistics;
+import com.ordermgmt.stats.OrderStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.*;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -23,11 +38,16 @@ import java.util.Map;
 @Tag(name = "Orders", description = "Order management endpoints")
 public class OrderController {
 
+    private static final int MAX_BATCH_ORDERS = 10_000;
+    private static final int MAX_CURSOR_PAGE_SIZE = 1_000;
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderStatistics orderStatistics;
 
     @PostMapping
     @Operation(summary = "Create a new order")
-    public ResponseEntity<Order> createOrder(
+    public ResponseEntity<OrderResponse> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
             @AuthenticationPrincipal UserDetails user) {
 
@@ -44,24 +64,44 @@ public class OrderController {
         );
         return ResponseEntity
                 .created(URI.create("/api/v1/orders/" + order.getId()))
-                .body(order);
+                .body(OrderResponse.from(order));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create many orders in one request (bulk ingest)")
+    public ResponseEntity<BatchCreateOrderResponse> createOrders(
+            @Valid @RequestBody BatchCreateOrderRequest request) {
+
+        List<OrderService.OrderRequest> orders = request.orders().stream()
+                .map(o -> new OrderService.OrderRequest(
+                        o.customerId(), o.customerEmail(), o.shippingAddress(),
+                        o.items().stream()
+                                .map(i -> new OrderService.OrderItemRequest(
+                                        i.productId(), i.productName(), i.quantity(), i.unitPrice()))
+                                .toList()))
+                .toList();
+
+        List<OrderService.CreatedOrder> created = orderService.createOrders(orders);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new BatchCreateOrderResponse(created.size(), created));
     }
 
+    // Both lookups carry the version as ETag; Spring answers a matching If-None-Match with 304 and no body
     @GetMapping("/{id}")
-    @Operation(summary = "Get order by ID")
-    public ResponseEntity<Order> getOrder(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+    @Operation(summary = "Get order by ID (conditional with If-None-Match)")
+    public ResponseEntity<OrderResponse> getOrder(@PathVariable Long id) {
+        return withETag(orderService.getOrderById(id));
     }
 
     @GetMapping("/number/{orderNumber}")
-    @Operation(summary = "Get order by order number")
-    public ResponseEntity<Order> getOrderByNumber(@PathVariable String orderNumber) {
-        return ResponseEntity.ok(orderService.getOrderByNumber(orderNumber));
+    @Operation(summary = "Get order by order number (conditional with If-None-Match)")
+    public ResponseEntity<OrderResponse> getOrderByNumber(@PathVariable String orderNumber) {
+        return withETag(orderService.getOrderByNumber(orderNumber));
     }
 
     @GetMapping
     @Operation(summary = "List all orders (paginated)")
-    public ResponseEntity<Page<Order>> getAllOrders(
+    public ResponseEntity<Page<OrderResponse>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -74,29 +114,115 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders(PageRequest.of(page, size, sort)));
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "List orders newest first using an opaque continuation cursor (no COUNT query)")
+    public ResponseEntity<CursorPage<OrderResponse>> getOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(
+                orderService.getOrdersPage(parseCursor(cursor), pageSize(size), from, to));
+    }
+
+    @GetMapping("/customer/{customerId}/cursor")
+    @Operation(summary = "Get a customer's orders newest first using an opaque continuation cursor")
+    public ResponseEntity<CursorPage<OrderResponse>> getCustomerOrdersByCursor(
+            @PathVariable String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(
+                orderService.getCustomerOrdersPage(customerId, parseCursor(cursor), pageSize(size)));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream matching orders with their items as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Set<OrderStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String customerId) {
+
+        OrderExportService.Format exportFormat = switch (format.toLowerCase()) {
+            case "ndjson" -> OrderExportService.Format.NDJSON;
+            case "csv"    -> OrderExportService.Format.CSV;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        };
+        OrderExportService.ExportFilter filter =
+                new OrderExportService.ExportFilter(status, from, to, customerId);
+
+        // Written on an MVC async thread; the export opens its own read-only transaction
+        StreamingResponseBody body = out -> orderExportService.export(filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == OrderExportService.Format.CSV
+                        ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=orders." + exportFormat.name().toLowerCase())
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Order counts per status and daily revenue (optionally one customer's), served from memory")
+    public ResponseEntity<OrderStats> getStats(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String customerId) {
+        if (days < 1 || days > orderStatistics.windowDays()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "days must be between 1 and " + orderStatistics.windowDays());
+        }
+        return ResponseEntity.ok(orderStatistics.snapshot(days, customerId));
+    }
+
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "Get orders by customer ID")
-    public ResponseEntity<Page<Order>> getCustomerOrders(
+    public ResponseEntity<Page<OrderResponse>> getCustomerOrders(
             @PathVariable String customerId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
+        // Stable order so consecutive pages neither skip nor repeat rows
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt", "id");
         return ResponseEntity.ok(
-                orderService.getOrdersByCustomer(customerId, PageRequest.of(page, size)));
+                orderService.getOrdersByCustomer(customerId, PageRequest.of(page, size, newestFirst)));
     }
 
     @PatchMapping("/{id}/status")
-    @Operation(summary = "Update order status")
-    public ResponseEntity<Order> updateStatus(
+    @Operation(summary = "Update order status (only if the order is still at the If-Match version, when given)")
+    public ResponseEntity<OrderResponse> updateStatus(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, String> body) {
         OrderStatus status = OrderStatus.valueOf(body.get("status").toUpperCase());
-        return ResponseEntity.ok(orderService.updateOrderStatus(id, status));
+        Long expectedVersion = parseIfMatch(ifMatch);
+        try {
+            return withETag(OrderResponse.from(orderService.updateOrderStatus(id, status, expectedVersion)));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw versionConflict(expectedVersion);
+        }
+    }
+
+    @PatchMapping("/status:bulk")
+    @Operation(summary = "Move many orders to one status; invalid transitions are reported per order, not applied")
+    public ResponseEntity<OrderService.BulkStatusResult> bulkUpdateStatus(
+            @Valid @RequestBody BulkStatusRequest request) {
+        return ResponseEntity.ok(orderService.bulkUpdateStatus(request.ids(), request.status()));
     }
 
     @DeleteMapping("/{id}")
-    @Operation(summary = "Cancel an order")
-    public ResponseEntity<Void> cancelOrder(@PathVariable Long id) {
-        orderService.cancelOrder(id);
+    @Operation(summary = "Cancel an order (only if it is still at the If-Match version, when given)")
+    public ResponseEntity<Void> cancelOrder(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = parseIfMatch(ifMatch);
+        try {
+            orderService.cancelOrder(id, expectedVersion);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw versionConflict(expectedVersion);
+        }
         return ResponseEntity.noContent().build();
     }
 
@@ -105,6 +231,49 @@ public class OrderController {
         return ResponseEntity.ok(Map.of("status", "UP", "service", "order-service"));
     }
 
+    private static OrderCursor parseCursor(String cursor) {
+        try {
+            return OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<OrderResponse> withETag(OrderResponse order) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (order.version() != null) ok.eTag("\"" + order.version() + "\"");
+        return ok.body(order);
+    }
+
+    // Accepts the ETag as sent back by clients: "3", W/"3", or * for any version
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must be an order ETag");
+        }
+    }
+
+    // A stale If-Match is the client's precondition failing; without one, retries ran out
+    private static ResponseStatusException versionConflict(Long expectedVersion) {
+        return expectedVersion != null
+                ? new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                        "Order has changed since version " + expectedVersion)
+                : new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Order is being updated concurrently, try again");
+    }
+
+    private static int pageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        return size;
+    }
+
     // Request records — clean Java 21 style
     public record CreateOrderItemRequest(
         String productId, String productName,
@@ -113,4 +282,14 @@ public class OrderController {
     public record CreateOrderRequest(
         String customerId, String customerEmail,
         String shippingAddress, List<CreateOrderItemRequest> items) {}
+
+    public record BatchCreateOrderRequest(
+        @NotEmpty @Size(max = MAX_BATCH_ORDERS) List<CreateOrderRequest> orders) {}
+
+    public record BatchCreateOrderResponse(
+        int created, List<OrderService.CreatedOrder> orders) {}
+
+    public record BulkStatusRequest(
+        @NotEmpty @Size(max = MAX_BATCH_ORDERS) List<@NotNull Long> ids,
+        @NotNull OrderStatus status) {}
 }
@@ -0,0 +1,17 @@
+package com.ordermgmt.datasource;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown by {@link GuardedDataSource} when no connection permit frees up in
+ * time. Spring MVC resolves it to a 503 even when it arrives wrapped, e.g. in
+ * the transaction manager's {@code CannotCreateTransactionException}.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Database busy, retry shortly")
+public class DatabaseBusyException extends RuntimeException {
+
+    public DatabaseBusyException() {
+        super("Too many requests waiting for a database connection");
+    }
+}
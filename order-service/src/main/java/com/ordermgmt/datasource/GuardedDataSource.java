@@ -0,0 +1,105 @@
+package com.ordermgmt.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds how many threads may hold or wait for a database connection at
+ * once. On platform threads Tomcat's pool did this implicitly; with virtual
+ * threads every request gets its own thread, and thousands of them would
+ * queue inside the connection pool until its 30 s timeout. Past
+ * {@code maxConcurrent}, a caller waits at most {@code acquireTimeout} for a
+ * permit and then fails fast with {@link DatabaseBusyException}, a 503. A
+ * permit is held from {@code getConnection} until the connection is closed.
+ */
+public class GuardedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public GuardedDataSource(DataSource target, int maxConcurrent, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.rejected = Counter.builder("datasource.guard.rejected")
+                .description("Connection requests refused because too many were already held or waiting")
+                .register(meterRegistry);
+        Gauge.builder("datasource.guard.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a connection permit")
+                .register(meterRegistry);
+        Gauge.builder("datasource.guard.in-use", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Connection permits held, by threads using or waiting in the pool for a connection")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return guarded(() -> getTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return guarded(() -> getTargetDataSource().getConnection(username, password));
+    }
+
+    private void acquire() {
+        try {
+            if (permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new DatabaseBusyException();
+    }
+
+    private interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    private Connection guarded(ConnectionSource source) throws SQLException {
+        Connection connection;
+        try {
+            connection = source.open();
+        } catch (SQLException | RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals": return proxy == args[0];
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "close":
+                            if (!released.compareAndSet(false, true)) return null;
+                            try {
+                                connection.close();
+                            } finally {
+                                permits.release();
+                            }
+                            return null;
+                        default:
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,132 @@
+package com.ordermgmt.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to
+ * the primary. A read-only transaction still goes to the primary when the
+ * replica lags by more than {@code max-lag} ({@link ReplicaLagMonitor}) or
+ * when its user committed a write within the read-your-writes window
+ * ({@link ReadYourWrites}). A read-write transaction that only read does not
+ * start that window.
+ *
+ * The transaction manager takes a connection before it publishes the
+ * read-only flag, so the router must sit behind a
+ * {@link LazyConnectionDataSourceProxy}, which defers the choice to the first
+ * statement; {@link #lazy} builds that pair.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    private final Counter writes;
+    private final Counter sticky;
+    private final Counter lagging;
+    private final Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        writes = routed(meterRegistry, "primary", "read-write");
+        sticky = routed(meterRegistry, "primary", "read-your-writes");
+        lagging = routed(meterRegistry, "primary", "replica-lagging");
+        replicaReads = routed(meterRegistry, "replica", "read-only");
+    }
+
+    /** The router, initialised and wrapped so the routing decision waits for the first statement. */
+    public static DataSource lazy(ReadWriteRoutingDataSource router) {
+        router.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(router);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return Target.PRIMARY;
+        }
+        String client = ReadYourWrites.currentClient();
+        if (client != null && readYourWrites.mustReadPrimary(client)) {
+            sticky.increment();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.replicaUsable()) {
+            lagging.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return rememberWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return rememberWrites(super.getConnection(username, password));
+    }
+
+    // The window starts at commit, when the write becomes visible on the primary. Only
+    // transactions that changed something count: Postgres assigns a transaction id on the
+    // first write, so one that is still unassigned at commit only read
+    private Connection rememberWrites(Connection connection) {
+        String client = ReadYourWrites.currentClient();
+        if (client == null || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("commit") || method.getParameterCount() != 0) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                    boolean wrote = wrote(connection);
+                    connection.commit();
+                    if (wrote) readYourWrites.wrote(client);
+                    return null;
+                });
+    }
+
+    private static boolean wrote(Connection connection) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT txid_current_if_assigned() IS NOT NULL")) {
+            return rs.next() && rs.getBoolean(1);
+        } catch (SQLException e) {
+            // Cannot tell; pinning the client costs less than showing it a stale read
+            return true;
+        }
+    }
+
+    private static Counter routed(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
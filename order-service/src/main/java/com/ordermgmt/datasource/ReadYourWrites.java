@@ -0,0 +1,45 @@
+package com.ordermgmt.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Clients that committed a write in the last {@code window}, whose reads
+ * {@link ReadWriteRoutingDataSource} keeps on the primary so they see their
+ * own change even if the replica has not replayed it yet. A client is the
+ * authenticated user; work without one (schedulers, Kafka) is never pinned.
+ *
+ * Held per instance: a client whose next request lands on another instance
+ * is only covered by that instance's lag check.
+ */
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(Duration window, long maximumClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumClients)
+                .build();
+    }
+
+    public void wrote(String client) {
+        recentWriters.put(client, Boolean.TRUE);
+    }
+
+    public boolean mustReadPrimary(String client) {
+        return recentWriters.getIfPresent(client) != null;
+    }
+
+    /** The user the current thread works for, or null outside an authenticated request. */
+    public static String currentClient() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) return null;
+        return auth.getName();
+    }
+}
@@ -0,0 +1,91 @@
+package com.ordermgmt.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the replica's replay lag and says whether reads may go to it. The
+ * replica is usable while its lag is at most {@code max-lag} and the last
+ * check is recent; an unreachable replica, one whose WAL receiver is not
+ * streaming from the primary, or a monitor that stopped checking, sends every
+ * read to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // A replica that has replayed everything it received is caught up, however
+    // old its last replayed transaction is (an idle primary sends nothing new),
+    // but only while it is still receiving: a disconnected receiver also has
+    // nothing left to replay. Keepalives refresh last_msg_receipt_time on an
+    // idle primary. NULL (no live receiver) counts as unusable; the replica's
+    // user needs pg_read_all_stats to see the receiver's status.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                 WHERE status = 'streaming'
+                                   AND last_msg_receipt_time > now() - make_interval(secs => ?)) THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::BIGINT
+            END""";
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final double receiverTimeoutSeconds;
+    private final long staleAfterNanos;
+
+    private final AtomicLong lagMillis = new AtomicLong(-1);
+    private volatile boolean usable;
+    private volatile long checkedAt;
+
+    /**
+     * {@code checkInterval} is how often {@link #check()} is scheduled; three missed checks count as unusable.
+     * A WAL receiver that heard nothing from the primary for {@code receiverTimeout} counts as disconnected.
+     */
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, Duration receiverTimeout, Duration checkInterval,
+                             MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        this.maxLagMillis = maxLag.toMillis();
+        this.receiverTimeoutSeconds = receiverTimeout.toMillis() / 1000.0;
+        this.staleAfterNanos = checkInterval.multipliedBy(3).toNanos();
+        Gauge.builder("datasource.replica.lag", lagMillis, AtomicLong::get)
+                .description("Replica replay lag in milliseconds at the last check, -1 when unreachable or not streaming")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            Long lag = replica.queryForObject(LAG_SQL, Long.class, receiverTimeoutSeconds);
+            if (lag == null && usable) log.warn("Replica is not streaming from the primary, reads go to the primary");
+            record(lag == null ? -1 : lag);
+        } catch (RuntimeException e) {
+            // DataAccessException, or Hikari failing to start the replica pool
+            if (usable) log.warn("Replica unreachable, reads go to the primary: {}", e.getMessage());
+            record(-1);
+        }
+    }
+
+    void record(long lag) {
+        boolean nowUsable = lag >= 0 && lag <= maxLagMillis;
+        if (usable && !nowUsable && lag >= 0) {
+            log.warn("Replica lag {} ms exceeds {} ms, reads go to the primary", lag, maxLagMillis);
+        }
+        lagMillis.set(lag);
+        usable = nowUsable;
+        checkedAt = System.nanoTime();
+    }
+
+    public boolean replicaUsable() {
+        return usable && System.nanoTime() - checkedAt < staleAfterNanos;
+    }
+}
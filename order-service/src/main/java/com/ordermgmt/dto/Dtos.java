@@ -6,7 +6,6 @@ import jakarta.validation.constraints.*;
 import lombok.*;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
 
 // ── Request DTOs ─────────────────────────────────────────────────────────────
@@ -45,29 +44,7 @@ class CreateOrderRequest {
 
 // ── Response DTOs ─────────────────────────────────────────────────────────────
 
-@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
-class OrderItemResponse {
-    private Long id;
-    private String productId;
-    private String productName;
-    private Integer quantity;
-    private BigDecimal unitPrice;
-    private BigDecimal subtotal;
-}
-
-@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
-class OrderResponse {
-    private Long id;
-    private String orderNumber;
-    private String customerId;
-    private String customerEmail;
-    private OrderStatus status;
-    private BigDecimal totalAmount;
-    private String shippingAddress;
-    private List<OrderItemResponse> items;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
-}
+// OrderResponse and OrderItemResponse are public records in their own files
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 class UpdateOrderStatusRequest {
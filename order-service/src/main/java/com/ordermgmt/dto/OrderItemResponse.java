@@ -0,0 +1,20 @@
+package com.ordermgmt.dto;
+
+import com.ordermgmt.model.OrderItem;
+
+import java.math.BigDecimal;
+
+public record OrderItemResponse(
+    Long id,
+    String productId,
+    String productName,
+    Integer quantity,
+    BigDecimal unitPrice,
+    BigDecimal subtotal
+) {
+
+    public static OrderItemResponse from(OrderItem item) {
+        return new OrderItemResponse(item.getId(), item.getProductId(), item.getProductName(),
+                item.getQuantity(), item.getUnitPrice(), item.getSubtotal());
+    }
+}
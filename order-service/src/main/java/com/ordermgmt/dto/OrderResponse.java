@@ -0,0 +1,41 @@
+package com.ordermgmt.dto;
+
+import com.ordermgmt.model.Order;
+import com.ordermgmt.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read model returned by every order GET endpoint and held in the orders
+ * cache. Immutable and detached from JPA, so serializing it can never
+ * trigger a lazy load. {@code version} doubles as the order's ETag.
+ */
+public record OrderResponse(
+    Long id,
+    String orderNumber,
+    String customerId,
+    String customerEmail,
+    OrderStatus status,
+    BigDecimal totalAmount,
+    String shippingAddress,
+    List<OrderItemResponse> items,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    Long version
+) {
+
+    public OrderResponse {
+        items = items == null ? List.of() : List.copyOf(items);
+    }
+
+    /** Maps a managed entity; its items must already be loaded. */
+    public static OrderResponse from(Order order) {
+        return new OrderResponse(order.getId(), order.getOrderNumber(), order.getCustomerId(),
+                order.getCustomerEmail(), order.getStatus(), order.getTotalAmount(),
+                order.getShippingAddress(),
+                order.getItems().stream().map(OrderItemResponse::from).toList(),
+                order.getCreatedAt(), order.getUpdatedAt(), order.getVersion());
+    }
+}
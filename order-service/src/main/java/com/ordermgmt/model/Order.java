@@ -2,7 +2,6 @@ package com.ordermgmt.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -20,7 +19,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -46,13 +46,23 @@ public class Order {
     @Column(length = 500)
     private String shippingAddress;
 
-    @CreationTimestamp
+    // Partition key of orders and order_items; set in onCreate so the items can copy it
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Bumped on every write; a flush based on an older version fails instead of losing an update
+    @Version
+    private Long version;
+
+    // Runs before the items are cascaded, whose onCreate reads createdAt
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) createdAt = LocalDateTime.now();
+    }
+
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
@@ -1,9 +1,11 @@
 package com.ordermgmt.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -15,13 +17,20 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
 
+    // Back-reference only; serializing it would recurse through Order.items
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    // The order's createdAt: partition key of order_items and half of its foreign key
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+
     @Column(nullable = false)
     private String productId;
 
@@ -36,4 +45,9 @@ public class OrderItem {
 
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal subtotal;
+
+    @PrePersist
+    void onCreate() {
+        if (orderCreatedAt == null) orderCreatedAt = order.getCreatedAt();
+    }
 }
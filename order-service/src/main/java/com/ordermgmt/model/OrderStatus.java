@@ -1,10 +1,50 @@
 package com.ordermgmt.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Order lifecycle. Orders move forward one step at a time and can be
+ * cancelled until they ship; DELIVERED and CANCELLED are terminal.
+ */
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
     PROCESSING,
     SHIPPED,
     DELIVERED,
-    CANCELLED
+    CANCELLED;
+
+    // Transition table, filled once the constants exist
+    private Set<OrderStatus> next = Set.of();
+    private Set<OrderStatus> previous = Set.of();
+
+    static {
+        allow(PENDING,    CONFIRMED, CANCELLED);
+        allow(CONFIRMED,  PROCESSING, CANCELLED);
+        allow(PROCESSING, SHIPPED, CANCELLED);
+        allow(SHIPPED,    DELIVERED);
+
+        for (OrderStatus target : values()) {
+            EnumSet<OrderStatus> from = EnumSet.noneOf(OrderStatus.class);
+            for (OrderStatus source : values()) {
+                if (source.next.contains(target)) from.add(source);
+            }
+            target.previous = Collections.unmodifiableSet(from);
+        }
+    }
+
+    private static void allow(OrderStatus from, OrderStatus first, OrderStatus... rest) {
+        from.next = Collections.unmodifiableSet(EnumSet.of(first, rest));
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return next.contains(target);
+    }
+
+    /** Statuses an order may be in to move to this one; empty for PENDING. */
+    public Set<OrderStatus> allowedPredecessors() {
+        return previous;
+    }
 }
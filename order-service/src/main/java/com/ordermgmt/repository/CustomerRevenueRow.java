@@ -0,0 +1,6 @@
+package com.ordermgmt.repository;
+
+import java.math.BigDecimal;
+
+/** Order count and revenue of one customer's orders. */
+public record CustomerRevenueRow(String customerId, Long orders, BigDecimal revenue) {}
@@ -0,0 +1,7 @@
+package com.ordermgmt.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Order count and revenue of the orders created on one day. */
+public record DailyRevenueRow(LocalDate day, Long orders, BigDecimal revenue) {}
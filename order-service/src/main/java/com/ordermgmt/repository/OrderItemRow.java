@@ -0,0 +1,14 @@
+package com.ordermgmt.repository;
+
+import java.math.BigDecimal;
+
+/** Line-item columns plus the owning order's id, read without loading the order. */
+public record OrderItemRow(
+    Long orderId,
+    Long id,
+    String productId,
+    String productName,
+    Integer quantity,
+    BigDecimal unitPrice,
+    BigDecimal subtotal
+) {}
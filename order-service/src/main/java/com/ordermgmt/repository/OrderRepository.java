@@ -2,19 +2,37 @@ package com.ordermgmt.repository;
 
 import com.ordermgmt.model.Order;
 import com.ordermgmt.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Constructor expression shared by the read-model queries below
+    String ORDER_ROW = "new com.ordermgmt.repository.OrderRow(o.id, o.orderNumber, o.customerId, "
+            + "o.customerEmail, o.status, o.totalAmount, o.shippingAddress, o.createdAt, o.updatedAt, "
+            + "o.version)";
+
+    // (createdAt, id) < (:createdAt, :id), for the keyset queries below
+    String BEFORE_CURSOR = "o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.id < :id)";
+    String NEWEST_FIRST = " ORDER BY o.createdAt DESC, o.id DESC";
+
     Optional<Order> findByOrderNumber(String orderNumber);
 
     Page<Order> findByCustomerId(String customerId, Pageable pageable);
@@ -25,9 +43,6 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
     Optional<Order> findByIdWithItems(@Param("id") Long id);
 
-    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.customerId = :customerId")
-    Page<Order> findByCustomerIdWithItems(@Param("customerId") String customerId, Pageable pageable);
-
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     long countByStatus(@Param("status") OrderStatus status);
 
@@ -37,4 +52,131 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         @Param("end") LocalDateTime end,
         Pageable pageable
     );
+
+    // ── Read model: column projections, never managed entities ────────────────
+
+    @Query("SELECT " + ORDER_ROW + " FROM Order o WHERE o.id = :id")
+    Optional<OrderRow> findRowById(@Param("id") Long id);
+
+    @Query("SELECT " + ORDER_ROW + " FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<OrderRow> findRowByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    @Query("SELECT " + ORDER_ROW + " FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<OrderRow> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT " + ORDER_ROW + " FROM Order o",
+           countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderRow> findAllRows(Pageable pageable);
+
+    // Paged over order rows only; items come from one IN query per page, so a fetch join
+    // never forces Hibernate to paginate in memory (HHH000104)
+    @Query(value = "SELECT " + ORDER_ROW + " FROM Order o WHERE o.customerId = :customerId",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.customerId = :customerId")
+    Page<OrderRow> findRowsByCustomerId(@Param("customerId") String customerId, Pageable pageable);
+
+    // i.order.id reads the FK column; the owning order is never joined or loaded
+    @Query("""
+            SELECT new com.ordermgmt.repository.OrderItemRow(i.order.id, i.id, i.productId,
+                   i.productName, i.quantity, i.unitPrice, i.subtotal)
+            FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id""")
+    List<OrderItemRow> findItemRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Keyset pagination: seek past (createdAt, id) on the composite indexes from V4
+    // instead of OFFSET, and no COUNT(*). HQL cannot compare tuples, so the seek is
+    // spelled out; the leading createdAt <= bound keeps it one index range scan.
+    // Pass an unsorted Pageable of size + 1; it only limits the rows.
+    @Query("SELECT " + ORDER_ROW + " FROM Order o WHERE " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderRow> findRowsBefore(
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") long id,
+        Pageable limit
+    );
+
+    @Query("SELECT " + ORDER_ROW + " FROM Order o WHERE o.customerId = :customerId AND "
+            + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderRow> findCustomerRowsBefore(
+        @Param("customerId") String customerId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") long id,
+        Pageable limit
+    );
+
+    @Query("SELECT " + ORDER_ROW + " FROM Order o WHERE o.createdAt BETWEEN :start AND :end AND "
+            + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderRow> findDateRangeRowsBefore(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") long id,
+        Pageable limit
+    );
+
+    // Server-side cursor for exports: pgjdbc only honours the fetch size inside a transaction,
+    // so the caller must consume the stream within @Transactional and close it.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT " + ORDER_ROW + """
+             FROM Order o
+            WHERE o.status IN :statuses
+              AND o.createdAt BETWEEN :start AND :end
+              AND (:customerId IS NULL OR o.customerId = :customerId)
+            ORDER BY o.createdAt, o.id""")
+    Stream<OrderRow> streamForExport(
+        @Param("statuses") Collection<OrderStatus> statuses,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("customerId") String customerId
+    );
+
+    // ── Bulk status transitions ───────────────────────────────────────────────
+
+    // Locked in id order, so two bulk requests over overlapping ids cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT new com.ordermgmt.repository.OrderStatusRow(o.id, o.orderNumber, o.customerId,
+                   o.customerEmail, o.status, o.totalAmount, o.createdAt, o.version)
+            FROM Order o WHERE o.id IN :ids ORDER BY o.id""")
+    List<OrderStatusRow> lockStatusRows(@Param("ids") Collection<Long> ids);
+
+    // One set-based statement per chunk. The status guard keeps invalid transitions out even
+    // for rows nobody locked. Bulk JPQL skips @UpdateTimestamp and @Version, so updatedAt is
+    // passed in and the version is bumped here.
+    @Modifying
+    @Query("""
+            UPDATE Order o SET o.status = :target, o.updatedAt = :now, o.version = o.version + 1
+            WHERE o.id IN :ids AND o.status IN :allowed""")
+    int transitionStatus(
+        @Param("ids") Collection<Long> ids,
+        @Param("allowed") Collection<OrderStatus> allowed,
+        @Param("target") OrderStatus target,
+        @Param("now") LocalDateTime now
+    );
+
+    // ── Statistics reconciliation (OrderStatistics) ───────────────────────────
+
+    @Query("""
+            SELECT new com.ordermgmt.repository.StatusCountRow(o.status, COUNT(o))
+            FROM Order o GROUP BY o.status""")
+    List<StatusCountRow> countGroupedByStatus();
+
+    // Revenue excludes cancelled orders; both ranges use the created_at indexes
+    @Query("""
+            SELECT new com.ordermgmt.repository.DailyRevenueRow(CAST(o.createdAt AS LocalDate),
+                   COUNT(o), SUM(o.totalAmount))
+            FROM Order o
+            WHERE o.createdAt >= :since AND o.status <> :excluded
+            GROUP BY CAST(o.createdAt AS LocalDate)""")
+    List<DailyRevenueRow> revenueByDaySince(
+        @Param("since") LocalDateTime since,
+        @Param("excluded") OrderStatus excluded
+    );
+
+    @Query("""
+            SELECT new com.ordermgmt.repository.CustomerRevenueRow(o.customerId, COUNT(o), SUM(o.totalAmount))
+            FROM Order o
+            WHERE o.createdAt >= :since AND o.status <> :excluded
+            GROUP BY o.customerId""")
+    List<CustomerRevenueRow> revenueByCustomerSince(
+        @Param("since") LocalDateTime since,
+        @Param("excluded") OrderStatus excluded
+    );
 }
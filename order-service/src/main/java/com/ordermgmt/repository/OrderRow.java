@@ -0,0 +1,20 @@
+package com.ordermgmt.repository;
+
+import com.ordermgmt.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Order columns read by JPQL constructor expressions, without a managed entity. */
+public record OrderRow(
+    Long id,
+    String orderNumber,
+    String customerId,
+    String customerEmail,
+    OrderStatus status,
+    BigDecimal totalAmount,
+    String shippingAddress,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    Long version
+) {}
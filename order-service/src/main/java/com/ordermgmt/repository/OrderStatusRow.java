@@ -0,0 +1,21 @@
+package com.ordermgmt.repository;
+
+import com.ordermgmt.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns a status transition needs to pick its outcome, publish its
+ * event, evict (and version-fence) the cache and adjust the statistics.
+ */
+public record OrderStatusRow(
+    Long id,
+    String orderNumber,
+    String customerId,
+    String customerEmail,
+    OrderStatus status,
+    BigDecimal totalAmount,
+    LocalDateTime createdAt,
+    Long version
+) {}
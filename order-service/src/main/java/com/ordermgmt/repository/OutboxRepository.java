@@ -0,0 +1,36 @@
+package com.ordermgmt.repository;
+
+import com.ordermgmt.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest first so events for the same order keep their relative order. An event waiting
+    // out a retry backoff holds back every later event with its key
+    @Query(value = """
+            SELECT e.* FROM outbox_events e
+            WHERE (e.next_attempt_at IS NULL OR e.next_attempt_at <= :now)
+              AND NOT EXISTS (
+                  SELECT 1 FROM outbox_events r
+                  WHERE r.attempts > 0 AND r.message_key = e.message_key
+                    AND r.id < e.id AND r.next_attempt_at > :now)
+            ORDER BY e.id
+            LIMIT :limit""", nativeQuery = true)
+    List<OutboxEvent> findReadyBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByAttemptsGreaterThan(int attempts);
+
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+
+    // Transaction-scoped advisory lock: only one relay drains the outbox at a time
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAcquireRelayLock(@Param("key") long key);
+}
@@ -0,0 +1,6 @@
+package com.ordermgmt.repository;
+
+import com.ordermgmt.model.OrderStatus;
+
+/** One group of the per-status order count. */
+public record StatusCountRow(OrderStatus status, Long orders) {}
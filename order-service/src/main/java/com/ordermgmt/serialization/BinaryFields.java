@@ -0,0 +1,74 @@
+package com.ordermgmt.serialization;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Nullable field encodings shared by the binary codecs. Every nullable
+ * value is preceded by a presence byte.
+ */
+final class BinaryFields {
+
+    private BinaryFields() {}
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeLong(value);
+    }
+
+    static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    static void writeInt(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeInt(value);
+    }
+
+    static Integer readInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    // Money columns are NUMERIC(12, 2), so the unscaled value fits a long
+    static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeByte(value.scale());
+            out.writeLong(value.unscaledValue().longValueExact());
+        }
+    }
+
+    static BigDecimal readDecimal(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        int scale = in.readByte();
+        return new BigDecimal(BigInteger.valueOf(in.readLong()), scale);
+    }
+
+    static void writeTimestamp(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    static LocalDateTime readTimestamp(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ordermgmt.serialization;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tagged binary encoding of the {@code order-events} payloads.
+ *
+ * <pre>
+ * magic:byte(0xB1)  version:byte  { tag:byte  value:UTF }*  end:byte(0)
+ * </pre>
+ *
+ * Every value is a length-prefixed UTF string, so a reader skips tags it does
+ * not know; adding a field is compatible and does not bump the version. The
+ * magic byte can never start a JSON document, which lets consumers accept
+ * both formats while producers switch over. notification-service keeps its
+ * own copy of the tag table — keep the two in sync.
+ */
+public final class OrderEventCodec {
+
+    public static final byte MAGIC   = (byte) 0xB1;
+    public static final byte VERSION = 1;
+
+    private static final byte END = 0;
+
+    // Tag numbers are part of the wire format: never reuse or renumber them
+    private static final List<String> FIELDS = List.of(
+            "",                 // 0 = end marker
+            "event",            // 1
+            "orderNumber",      // 2
+            "customerId",       // 3
+            "customerEmail",    // 4
+            "totalAmount",      // 5
+            "previousStatus",   // 6
+            "newStatus",        // 7
+            "timestamp",        // 8
+            "eventId"           // 9
+    );
+
+    private static final int TOTAL_AMOUNT_TAG = FIELDS.indexOf("totalAmount");
+
+    private OrderEventCodec() {}
+
+    public static byte[] encode(Map<String, ?> event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            for (Map.Entry<String, ?> field : event.entrySet()) {
+                int tag = FIELDS.indexOf(field.getKey());
+                if (tag <= 0) {
+                    throw new IllegalArgumentException("No tag for event field " + field.getKey());
+                }
+                if (field.getValue() == null) continue;
+                out.writeByte(tag);
+                // Amounts read back from the jsonb outbox may be Doubles; normalise to plain decimals
+                out.writeUTF(field.getValue() instanceof Number n
+                        ? new BigDecimal(n.toString()).toPlainString() : field.getValue().toString());
+            }
+            out.writeByte(END);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Map<String, Object> decode(byte[] bytes) {
+        if (!isBinary(bytes)) {
+            throw new IllegalArgumentException("Not a binary order event");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            int version = in.readUnsignedByte();
+            if (version > VERSION) {
+                throw new IllegalArgumentException("Unsupported order event version " + version);
+            }
+            Map<String, Object> event = new LinkedHashMap<>();
+            for (int tag = in.readUnsignedByte(); tag != END; tag = in.readUnsignedByte()) {
+                String value = in.readUTF();
+                if (tag >= FIELDS.size()) continue;     // field from a newer producer
+                event.put(FIELDS.get(tag), tag == TOTAL_AMOUNT_TAG ? new BigDecimal(value) : value);
+            }
+            return event;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length > 1 && bytes[0] == MAGIC;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ordermgmt.serialization;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer for order events. Map payloads are written with
+ * {@link OrderEventCodec} when binary mode is on; anything else, or every
+ * value in JSON mode, goes through the regular {@link JsonSerializer}.
+ */
+public class OrderEventSerializer implements Serializer<Object> {
+
+    private final boolean binary;
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+
+    public OrderEventSerializer(boolean binary) {
+        this.binary = binary;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (binary && data instanceof Map<?, ?> event) {
+            return OrderEventCodec.encode((Map<String, ?>) event);
+        }
+        return headers == null ? json.serialize(topic, data) : json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ordermgmt.serialization;
+
+import com.ordermgmt.dto.OrderItemResponse;
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.model.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ordermgmt.serialization.BinaryFields.*;
+
+/**
+ * Compact binary encoding of a cached {@link OrderResponse}, replacing
+ * polymorphic JSON. Layout (version 2, which added the order version):
+ *
+ * <pre>
+ * version:byte  id  orderNumber  customerId  customerEmail  status
+ * totalAmount  shippingAddress  createdAt  updatedAt  version
+ * itemCount:int  { id  productId  productName  quantity  unitPrice  subtotal }*
+ * </pre>
+ *
+ * An entry written in any other version (including the old JSON entries)
+ * decodes to {@code null}, which the cache treats as a miss, so instances on
+ * different versions just refill from the database.
+ */
+@Slf4j
+public class OrderRedisSerializer implements RedisSerializer<OrderResponse> {
+
+    static final byte VERSION = 2;
+
+    @Override
+    public byte[] serialize(OrderResponse order) {
+        if (order == null) return new byte[0];
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeLong(out, order.id());
+            writeString(out, order.orderNumber());
+            writeString(out, order.customerId());
+            writeString(out, order.customerEmail());
+            writeString(out, order.status() == null ? null : order.status().name());
+            writeDecimal(out, order.totalAmount());
+            writeString(out, order.shippingAddress());
+            writeTimestamp(out, order.createdAt());
+            writeTimestamp(out, order.updatedAt());
+            writeLong(out, order.version());
+
+            List<OrderItemResponse> items = order.items();
+            out.writeInt(items.size());
+            for (OrderItemResponse item : items) {
+                writeLong(out, item.id());
+                writeString(out, item.productId());
+                writeString(out, item.productName());
+                writeInt(out, item.quantity());
+                writeDecimal(out, item.unitPrice());
+                writeDecimal(out, item.subtotal());
+            }
+        } catch (IOException | ArithmeticException e) {
+            throw new SerializationException("Could not encode order " + order.orderNumber(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public OrderResponse deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        if (bytes[0] != VERSION) {
+            log.debug("Ignoring cached order in unknown format (first byte {})", bytes[0]);
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            Long id = readLong(in);
+            String orderNumber = readString(in);
+            String customerId = readString(in);
+            String customerEmail = readString(in);
+            String status = readString(in);
+            BigDecimal totalAmount = readDecimal(in);
+            String shippingAddress = readString(in);
+            LocalDateTime createdAt = readTimestamp(in);
+            LocalDateTime updatedAt = readTimestamp(in);
+            Long version = readLong(in);
+
+            int itemCount = in.readInt();
+            List<OrderItemResponse> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(new OrderItemResponse(readLong(in), readString(in), readString(in),
+                        readInt(in), readDecimal(in), readDecimal(in)));
+            }
+            return new OrderResponse(id, orderNumber, customerId, customerEmail,
+                    status == null ? null : OrderStatus.valueOf(status),
+                    totalAmount, shippingAddress, items, createdAt, updatedAt, version);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Could not decode cached order", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return OrderResponse.class;
+    }
+}
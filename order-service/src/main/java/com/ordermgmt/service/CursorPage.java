@@ -0,0 +1,18 @@
+package com.ordermgmt.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/** One keyset page; {@code nextCursor} is null on the last page. */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    // Callers fetch size + 1 rows: the extra row only signals that another page exists
+    static <R, T> CursorPage<T> of(List<R> rows, int size,
+                                   Function<R, OrderCursor> cursorOf, Function<List<R>, List<T>> mapper) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(mapper.apply(rows), null);
+        }
+        List<R> page = rows.subList(0, size);
+        return new CursorPage<>(mapper.apply(page), cursorOf.apply(page.get(size - 1)).encode());
+    }
+}
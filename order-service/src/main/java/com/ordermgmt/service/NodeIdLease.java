@@ -0,0 +1,88 @@
+package com.ordermgmt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * An order number node id held by this instance, claimed in
+ * {@code order_number_node_leases} and kept alive by {@link #renew()}. Another
+ * instance can only take the id once its heartbeat is older than the TTL, by
+ * the database clock. This instance stops issuing numbers earlier: once a TTL
+ * (less a safety margin) has passed on its own clock since it last sent a
+ * heartbeat that succeeded. So two live instances never number with one id.
+ */
+@Slf4j
+class NodeIdLease {
+
+    private static final String CLAIM = """
+            INSERT INTO order_number_node_leases (node_id, owner, heartbeat_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (node_id) DO UPDATE SET owner = EXCLUDED.owner, heartbeat_at = now()
+            WHERE order_number_node_leases.heartbeat_at < now() - make_interval(secs => ?)
+            RETURNING node_id""";
+
+    private final JdbcTemplate jdbc;
+    private final long nodeId;
+    private final String owner;
+    private final long validNanos;
+    private volatile long heldUntilNanos;
+
+    private NodeIdLease(JdbcTemplate jdbc, long nodeId, String owner, long validNanos, long sentAt) {
+        this.jdbc = jdbc;
+        this.nodeId = nodeId;
+        this.owner = owner;
+        this.validNanos = validNanos;
+        this.heldUntilNanos = sentAt + validNanos;
+    }
+
+    /**
+     * Claims the first free node id, searching from the next value of
+     * {@code order_number_node_seq} so each startup tends to get an id the
+     * last one did not use. Fails when all {@code maxNodeId + 1} are held.
+     */
+    static NodeIdLease acquire(JdbcTemplate jdbc, long maxNodeId, Duration ttl) {
+        String owner = UUID.randomUUID().toString();
+        Long start = jdbc.queryForObject("SELECT nextval('order_number_node_seq')", Long.class);
+        long ids = maxNodeId + 1;
+        // A quarter of the TTL is left for clock rate differences and slow statements
+        long validNanos = ttl.toNanos() - ttl.toNanos() / 4;
+        for (long i = 0; i < ids; i++) {
+            long candidate = Math.floorMod(start + i, ids);
+            long sentAt = System.nanoTime();
+            if (!jdbc.queryForList(CLAIM, Long.class, candidate, owner, ttl.toMillis() / 1000.0).isEmpty()) {
+                return new NodeIdLease(jdbc, candidate, owner, validNanos, sentAt);
+            }
+        }
+        throw new IllegalStateException("No free order number node id: all " + ids + " are leased");
+    }
+
+    long nodeId() {
+        return nodeId;
+    }
+
+    boolean isHeld() {
+        return System.nanoTime() - heldUntilNanos < 0;
+    }
+
+    /** Extends the lease; returns false if it was lost to another instance after expiring. */
+    boolean renew() {
+        long sentAt = System.nanoTime();
+        int renewed = jdbc.update("UPDATE order_number_node_leases SET heartbeat_at = now() "
+                + "WHERE node_id = ? AND owner = ?", nodeId, owner);
+        if (renewed == 1) {
+            heldUntilNanos = sentAt + validNanos;
+            return true;
+        }
+        heldUntilNanos = sentAt;
+        log.error("Lease on order number node id {} was lost; order numbers cannot be issued", nodeId);
+        return false;
+    }
+
+    void release() {
+        heldUntilNanos = System.nanoTime();
+        jdbc.update("DELETE FROM order_number_node_leases WHERE node_id = ? AND owner = ?", nodeId, owner);
+    }
+}
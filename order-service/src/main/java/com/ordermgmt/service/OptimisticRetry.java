@@ -0,0 +1,78 @@
+package com.ordermgmt.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs an order read-modify-write in its own transaction and, if the flush
+ * loses a version race, runs it again on fresh state. The write validates
+ * what it reads, so a retry only succeeds when the change still makes sense
+ * after the concurrent one; otherwise its own exception ends the loop.
+ *
+ * Callers must not already hold a transaction: a retry inside a joined
+ * transaction would run on a rollback-only session.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticRetry {
+
+    private final TransactionOperations transactions;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.optimistic-retry.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${orders.optimistic-retry.backoff:20ms}")
+    private Duration backoff = Duration.ofMillis(20);
+
+    /**
+     * @param retryable false when the caller pinned a version (If-Match): a
+     *                  conflict then means the client is stale and is reported, not retried
+     */
+    public <T> T execute(String operation, boolean retryable, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactions.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (!retryable || attempt >= maxAttempts) {
+                    conflicts(operation, retryable ? "exhausted" : "rejected").increment();
+                    throw e;
+                }
+                conflicts(operation, "retried").increment();
+                log.debug("Version conflict on {} (attempt {}), retrying", operation, attempt);
+                pause(attempt, e);
+            }
+        }
+    }
+
+    private Counter conflicts(String operation, String outcome) {
+        return Counter.builder("orders.write.conflicts")
+                .description("Optimistic locking conflicts on order writes")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Linear backoff with jitter, so writers that collided do not collide again in lockstep
+    private void pause(int attempt, OptimisticLockingFailureException cause) {
+        long base = backoff.toMillis() * attempt;
+        long millis = base / 2 + ThreadLocalRandom.current().nextLong(base + 1);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
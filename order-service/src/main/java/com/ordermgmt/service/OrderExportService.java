@@ -0,0 +1,167 @@
+package com.ordermgmt.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermgmt.dto.OrderItemResponse;
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.OrderRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Streams orders straight from a JDBC cursor to the response body. Orders are
+ * read as {@link OrderRow} projections, so nothing accumulates in the
+ * persistence context, and written in chunks whose items come from one IN
+ * query (no N+1). Memory stays flat however many rows match. A slow client
+ * blocks the writer, which in turn stops fetching.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    public record ExportFilter(
+        Set<OrderStatus> statuses,
+        LocalDateTime from,
+        LocalDateTime to,
+        String customerId
+    ) {}
+
+    private static final LocalDateTime MIN_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String CSV_HEADER = "order_number,customer_id,customer_email,status,total_amount,"
+            + "created_at,product_id,product_name,quantity,unit_price,subtotal\n";
+
+    private final OrderRepository orderRepository;
+    private final OrderQueryService orderQueries;
+    private final ObjectMapper objectMapper;
+
+    @Value("${orders.export.chunk-size:500}")
+    private int chunkSize = 500;
+
+    /** @return the number of orders written */
+    @Transactional(readOnly = true)
+    public long export(ExportFilter filter, Format format, OutputStream out) throws IOException {
+        Set<OrderStatus> statuses = filter.statuses() == null || filter.statuses().isEmpty()
+                ? EnumSet.allOf(OrderStatus.class) : filter.statuses();
+        LocalDateTime from = filter.from() != null ? filter.from() : MIN_CREATED_AT;
+        LocalDateTime to   = filter.to()   != null ? filter.to()   : MAX_CREATED_AT;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.setRootValueSeparator(null);       // lines are terminated explicitly below
+        } else {
+            writer.write(CSV_HEADER);
+        }
+
+        long exported = 0;
+        List<OrderRow> chunk = new ArrayList<>(chunkSize);
+        try (Stream<OrderRow> orders = orderRepository.streamForExport(statuses, from, to, filter.customerId())) {
+            Iterator<OrderRow> it = orders.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() == chunkSize || !it.hasNext()) {
+                    writeChunk(chunk, format, writer, json);
+                    exported += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        if (json != null) json.flush();
+        writer.flush();
+
+        log.info("Exported {} orders as {}", exported, format);
+        return exported;
+    }
+
+    private void writeChunk(List<OrderRow> chunk, Format format, Writer writer, JsonGenerator json)
+            throws IOException {
+        Map<Long, List<OrderItemResponse>> itemsByOrder =
+                orderQueries.itemsByOrder(chunk.stream().map(OrderRow::id).toList());
+
+        for (OrderRow order : chunk) {
+            List<OrderItemResponse> items = itemsByOrder.getOrDefault(order.id(), List.of());
+            if (format == Format.NDJSON) {
+                writeJsonLine(order, items, json);
+            } else {
+                writeCsvRows(order, items, writer);
+            }
+        }
+        // Push each chunk to the client so the response makes progress
+        if (json != null) json.flush();
+        writer.flush();
+    }
+
+    private void writeJsonLine(OrderRow order, List<OrderItemResponse> items, JsonGenerator json)
+            throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", order.id());
+        json.writeStringField("orderNumber", order.orderNumber());
+        json.writeStringField("customerId", order.customerId());
+        json.writeStringField("customerEmail", order.customerEmail());
+        json.writeStringField("status", order.status().name());
+        json.writeNumberField("totalAmount", order.totalAmount());
+        json.writeStringField("shippingAddress", order.shippingAddress());
+        json.writeStringField("createdAt", String.valueOf(order.createdAt()));
+        json.writeArrayFieldStart("items");
+        for (OrderItemResponse item : items) {
+            json.writeStartObject();
+            json.writeStringField("productId", item.productId());
+            json.writeStringField("productName", item.productName());
+            json.writeNumberField("quantity", item.quantity());
+            json.writeNumberField("unitPrice", item.unitPrice());
+            json.writeNumberField("subtotal", item.subtotal());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    // One row per line item; an order without items still gets one row
+    private void writeCsvRows(OrderRow order, List<OrderItemResponse> items, Writer writer) throws IOException {
+        String orderColumns = String.join(",",
+                csv(order.orderNumber()), csv(order.customerId()), csv(order.customerEmail()),
+                order.status().name(), plain(order.totalAmount()), String.valueOf(order.createdAt()));
+        if (items.isEmpty()) {
+            writer.write(orderColumns + ",,,,,\n");
+            return;
+        }
+        for (OrderItemResponse item : items) {
+            writer.write(orderColumns);
+            writer.write(',');
+            writer.write(String.join(",",
+                    csv(item.productId()), csv(item.productName()), String.valueOf(item.quantity()),
+                    plain(item.unitPrice()), plain(item.subtotal())));
+            writer.write('\n');
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
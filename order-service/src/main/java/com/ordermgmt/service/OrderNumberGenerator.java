@@ -0,0 +1,12 @@
+package com.ordermgmt.service;
+
+/**
+ * Source of order numbers. Implementations must be thread-safe and must never
+ * hand out the same number twice, across threads or across instances.
+ * {@link SnowflakeOrderNumberGenerator} is the default; declare a
+ * {@code @Primary} bean to replace it.
+ */
+public interface OrderNumberGenerator {
+
+    String next();
+}
@@ -0,0 +1,102 @@
+package com.ordermgmt.service;
+
+import com.ordermgmt.dto.OrderItemResponse;
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.repository.OrderItemRow;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.OrderRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Read path for orders. Reads order and item columns into immutable rows and
+ * assembles {@link OrderResponse}s, so no entity is managed, no proxy is
+ * serialized and no lazy load can fire. Any number of orders costs one
+ * item query.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+
+    // Single-order lookups fill the orders cache too. A replica snapshot older than a committed
+    // write is kept out by the cache's version fence, so these read the replica like the rest
+    public Optional<OrderResponse> findById(Long id) {
+        return orderRepository.findRowById(id).map(row -> withItems(List.of(row)).get(0));
+    }
+
+    public Optional<OrderResponse> findByOrderNumber(String orderNumber) {
+        return orderRepository.findRowByOrderNumber(orderNumber).map(row -> withItems(List.of(row)).get(0));
+    }
+
+    /** Orders with the given ids in id order; ids that do not exist are skipped. */
+    public List<OrderResponse> findAllById(Collection<Long> ids) {
+        return withItems(orderRepository.findRowsByIds(ids));
+    }
+
+    public Page<OrderResponse> findAll(Pageable pageable) {
+        return withItems(orderRepository.findAllRows(pageable));
+    }
+
+    /** Three statements per page (rows, count, items) whatever the page size. */
+    public Page<OrderResponse> findByCustomer(String customerId, Pageable pageable) {
+        return withItems(orderRepository.findRowsByCustomerId(customerId, pageable));
+    }
+
+    /** Newest-first keyset page, limited to a created-at range when both bounds are given. */
+    public CursorPage<OrderResponse> findPage(OrderCursor cursor, int size,
+                                              LocalDateTime start, LocalDateTime end) {
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<OrderRow> rows = (start != null && end != null)
+                ? orderRepository.findDateRangeRowsBefore(start, end, cursor.createdAt(), cursor.id(), limit)
+                : orderRepository.findRowsBefore(cursor.createdAt(), cursor.id(), limit);
+        return CursorPage.of(rows, size, OrderCursor::after, this::withItems);
+    }
+
+    public CursorPage<OrderResponse> findCustomerPage(String customerId, OrderCursor cursor, int size) {
+        List<OrderRow> rows = orderRepository.findCustomerRowsBefore(
+                customerId, cursor.createdAt(), cursor.id(), PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, OrderCursor::after, this::withItems);
+    }
+
+    private Page<OrderResponse> withItems(Page<OrderRow> rows) {
+        return new PageImpl<>(withItems(rows.getContent()), rows.getPageable(), rows.getTotalElements());
+    }
+
+    List<OrderResponse> withItems(List<OrderRow> rows) {
+        if (rows.isEmpty()) return List.of();
+
+        Map<Long, List<OrderItemResponse>> itemsByOrder = itemsByOrder(rows.stream().map(OrderRow::id).toList());
+        return rows.stream()
+                .map(r -> toResponse(r, itemsByOrder.getOrDefault(r.id(), List.of())))
+                .toList();
+    }
+
+    public Map<Long, List<OrderItemResponse>> itemsByOrder(Collection<Long> orderIds) {
+        return orderRepository.findItemRowsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId,
+                        Collectors.mapping(OrderQueryService::toResponse, Collectors.toList())));
+    }
+
+    static OrderResponse toResponse(OrderRow row, List<OrderItemResponse> items) {
+        return new OrderResponse(row.id(), row.orderNumber(), row.customerId(), row.customerEmail(),
+                row.status(), row.totalAmount(), row.shippingAddress(), items,
+                row.createdAt(), row.updatedAt(), row.version());
+    }
+
+    private static OrderItemResponse toResponse(OrderItemRow item) {
+        return new OrderItemResponse(item.id(), item.productId(), item.productName(),
+                item.quantity(), item.unitPrice(), item.subtotal());
+    }
+}
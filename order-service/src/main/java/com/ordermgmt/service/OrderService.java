@@ -1,12 +1,20 @@
 package com.ordermgmt.service;
 
+import com.ordermgmt.archive.OrderArchive;
+import com.ordermgmt.cache.OrderCacheMaintainer;
+import com.ordermgmt.dto.OrderResponse;
 import com.ordermgmt.model.*;
 import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.OrderStatusRow;
+import com.ordermgmt.repository.OutboxRepository;
+import com.ordermgmt.stats.OrderChange;
+import com.ordermgmt.stats.OrderStatistics;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,16 +28,79 @@ import java.util.*;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxRepository outboxRepository;
+    private final EntityManager entityManager;
+    private final OrderCacheMaintainer orderCache;
+    private final OrderQueryService orderQueries;
+    private final OptimisticRetry optimisticRetry;
+    private final OrderNumberGenerator orderNumbers;
+    private final OrderStatistics statistics;
+    private final OrderArchive orderArchive;
+
+    @Value("${orders.batch.flush-size:500}")
+    private int batchFlushSize = 500;
+
+    @Value("${orders.bulk-status.chunk-size:1000}")
+    private int bulkChunkSize = 1000;
 
     private static final String ORDER_TOPIC   = "order-events";
-    private static final String CACHE_NAME    = "orders";
 
     @Transactional
     public Order createOrder(String customerId, String customerEmail,
                              String shippingAddress, List<OrderItemRequest> itemRequests) {
+        Order saved = orderRepository.save(
+                buildOrder(customerId, customerEmail, shippingAddress, itemRequests));
+        log.info("Order created: {}", saved.getOrderNumber());
+
+        // Queue event in the outbox — OutboxRelay publishes it for notification-service
+        enqueueEvent(saved.getOrderNumber(), orderCreatedEvent(saved));
+        statistics.record(OrderChange.created(saved));
+
+        return saved;
+    }
+
+    /**
+     * Bulk ingest in a single transaction. Orders, items and outbox rows are
+     * flushed every {@code batchFlushSize} orders so Hibernate sends them as
+     * JDBC batches, then the persistence context is cleared to bound memory.
+     */
+    @Transactional
+    public List<CreatedOrder> createOrders(List<OrderRequest> requests) {
+        List<CreatedOrder> created = new ArrayList<>(requests.size());
+        List<Order> chunk = new ArrayList<>(batchFlushSize);
+
+        for (OrderRequest req : requests) {
+            chunk.add(buildOrder(req.customerId(), req.customerEmail(),
+                    req.shippingAddress(), req.items()));
+            if (chunk.size() == batchFlushSize) {
+                persistChunk(chunk, created);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, created);
+        }
+
+        log.info("Batch created {} orders", created.size());
+        return created;
+    }
+
+    private void persistChunk(List<Order> chunk, List<CreatedOrder> created) {
+        List<Order> saved = orderRepository.saveAll(chunk);
+        outboxRepository.saveAll(saved.stream()
+                .map(o -> outboxEvent(o.getOrderNumber(), orderCreatedEvent(o)))
+                .toList());
+        entityManager.flush();
+
+        saved.forEach(o -> created.add(new CreatedOrder(o.getId(), o.getOrderNumber())));
+        statistics.recordAll(saved.stream().map(OrderChange::created).toList());
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    private Order buildOrder(String customerId, String customerEmail,
+                             String shippingAddress, List<OrderItemRequest> itemRequests) {
         Order order = Order.builder()
-                .orderNumber(generateOrderNumber())
+                .orderNumber(orderNumbers.next())
                 .customerId(customerId)
                 .customerEmail(customerEmail)
                 .shippingAddress(shippingAddress)
@@ -51,88 +122,191 @@ public class OrderService {
             total = total.add(subtotal);
         }
         order.setTotalAmount(total);
+        return order;
+    }
 
-        Order saved = orderRepository.save(order);
-        log.info("Order created: {}", saved.getOrderNumber());
+    private Map<String, Object> orderCreatedEvent(Order order) {
+        return Map.of(
+                "event", "ORDER_CREATED",
+                "orderNumber", order.getOrderNumber(),
+                "customerId", order.getCustomerId(),
+                "customerEmail", order.getCustomerEmail(),
+                "totalAmount", order.getTotalAmount(),
+                "timestamp", LocalDateTime.now().toString()
+        );
+    }
 
-        // Publish event to Kafka — notification-service picks this up
-        kafkaTemplate.send(ORDER_TOPIC, saved.getOrderNumber(),
-                Map.of(
-                    "event", "ORDER_CREATED",
-                    "orderNumber", saved.getOrderNumber(),
-                    "customerId", saved.getCustomerId(),
-                    "customerEmail", saved.getCustomerEmail(),
-                    "totalAmount", saved.getTotalAmount(),
-                    "timestamp", LocalDateTime.now().toString()
-                ));
+    // Cache fills go through the maintainer's version fence, not @Cacheable: a snapshot loaded
+    // before a concurrent write committed must not replace what that write cached
+    public OrderResponse getOrderById(Long id) {
+        // Finished orders move to the archive after orders.archive.after-months
+        return orderCache.read(id, () -> orderQueries.findById(id)
+                .or(() -> orderArchive.findById(id))
+                .orElseThrow(() -> new NoSuchElementException("Order not found: " + id)));
+    }
 
-        return saved;
+    public OrderResponse getOrderByNumber(String orderNumber) {
+        return orderCache.read(orderNumber, () -> orderQueries.findByOrderNumber(orderNumber)
+                .or(() -> orderArchive.findByOrderNumber(orderNumber))
+                .orElseThrow(() -> new NoSuchElementException("Order not found: " + orderNumber)));
     }
 
-    @Cacheable(value = CACHE_NAME, key = "#id")
-    @Transactional(readOnly = true)
-    public Order getOrderById(Long id) {
-        return orderRepository.findByIdWithItems(id)
-                .orElseThrow(() -> new NoSuchElementException("Order not found: " + id));
+    public Page<OrderResponse> getOrdersByCustomer(String customerId, Pageable pageable) {
+        return orderQueries.findByCustomer(customerId, pageable);
     }
 
-    @Cacheable(value = CACHE_NAME, key = "#orderNumber")
-    @Transactional(readOnly = true)
-    public Order getOrderByNumber(String orderNumber) {
-        return orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new NoSuchElementException("Order not found: " + orderNumber));
+    public Page<OrderResponse> getAllOrders(Pageable pageable) {
+        return orderQueries.findAll(pageable);
     }
 
-    @Transactional(readOnly = true)
-    public Page<Order> getOrdersByCustomer(String customerId, Pageable pageable) {
-        return orderRepository.findByCustomerId(customerId, pageable);
+    public CursorPage<OrderResponse> getOrdersPage(OrderCursor cursor, int size,
+                                                   LocalDateTime start, LocalDateTime end) {
+        return orderQueries.findPage(cursor, size, start, end);
     }
 
-    @Transactional(readOnly = true)
-    public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+    public CursorPage<OrderResponse> getCustomerOrdersPage(String customerId, OrderCursor cursor, int size) {
+        return orderQueries.findCustomerPage(customerId, cursor, size);
     }
 
-    @CacheEvict(value = CACHE_NAME, key = "#id")
-    @Transactional
     public Order updateOrderStatus(Long id, OrderStatus newStatus) {
-        Order order = orderRepository.findById(id)
+        return updateOrderStatus(id, newStatus, null);
+    }
+
+    /**
+     * With {@code expectedVersion} (the client's If-Match) a concurrent write
+     * is reported as a conflict. Without it, a lost version race is retried on
+     * fresh state for as long as the transition is still allowed.
+     */
+    public Order updateOrderStatus(Long id, OrderStatus newStatus, Long expectedVersion) {
+        return optimisticRetry.execute("update-status", expectedVersion == null,
+                () -> applyStatus(id, newStatus, expectedVersion));
+    }
+
+    // Write-through: both cache keys get the new state after commit instead of being evicted
+    private Order applyStatus(Long id, OrderStatus newStatus, Long expectedVersion) {
+        Order order = orderRepository.findByIdWithItems(id)
                 .orElseThrow(() -> new NoSuchElementException("Order not found: " + id));
+        checkVersion(order, expectedVersion);
 
         OrderStatus previous = order.getStatus();
+        if (!previous.canTransitionTo(newStatus)) {
+            throw new IllegalStateException("Cannot change order status from " + previous + " to " + newStatus);
+        }
         order.setStatus(newStatus);
-        Order updated = orderRepository.save(order);
+        // Flushed so the cached snapshot carries the new @UpdateTimestamp and version,
+        // and so a lost version race fails here rather than at commit
+        Order updated = orderRepository.saveAndFlush(order);
+        orderCache.writeThrough(OrderResponse.from(updated));
+        statistics.record(OrderChange.transition(updated, previous));
 
         log.info("Order {} status changed: {} -> {}", order.getOrderNumber(), previous, newStatus);
 
-        kafkaTemplate.send(ORDER_TOPIC, updated.getOrderNumber(),
-                Map.of(
-                    "event", "ORDER_STATUS_UPDATED",
-                    "orderNumber", updated.getOrderNumber(),
-                    "customerId", updated.getCustomerId(),
-                    "customerEmail", updated.getCustomerEmail(),
-                    "previousStatus", previous.name(),
-                    "newStatus", newStatus.name(),
-                    "timestamp", LocalDateTime.now().toString()
-                ));
+        enqueueEvent(updated.getOrderNumber(), statusUpdatedEvent(updated.getOrderNumber(),
+                updated.getCustomerId(), updated.getCustomerEmail(), previous, newStatus));
 
         return updated;
     }
 
-    @CacheEvict(value = CACHE_NAME, key = "#id")
+    /**
+     * Moves many orders to {@code target} in one transaction. Each chunk of
+     * {@code bulkChunkSize} ids costs one locking SELECT, one set-based UPDATE
+     * guarded by the allowed predecessor statuses, one batched outbox insert
+     * and one cache eviction callback, instead of a load, update and insert
+     * per order. Duplicate ids are reported once, in request order.
+     */
     @Transactional
+    public BulkStatusResult bulkUpdateStatus(Collection<Long> ids, OrderStatus target) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        Map<Long, StatusOutcome> outcomes = new HashMap<>(distinctIds.size() * 2);
+        LocalDateTime now = LocalDateTime.now();
+
+        int updated = 0;
+        for (int from = 0; from < distinctIds.size(); from += bulkChunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + bulkChunkSize, distinctIds.size()));
+            updated += transitionChunk(chunk, target, now, outcomes);
+        }
+
+        List<StatusOutcome> results = distinctIds.stream()
+                .map(id -> outcomes.getOrDefault(id, new StatusOutcome(id, null, null, StatusChange.NOT_FOUND)))
+                .toList();
+        log.info("Bulk status update to {}: {} of {} orders changed", target, updated, distinctIds.size());
+        return new BulkStatusResult(distinctIds.size(), updated, results);
+    }
+
+    private int transitionChunk(List<Long> ids, OrderStatus target, LocalDateTime now,
+                                Map<Long, StatusOutcome> outcomes) {
+        // Rows stay locked until commit, so the outcomes below are what the UPDATE will see
+        List<OrderStatusRow> eligible = new ArrayList<>(ids.size());
+        for (OrderStatusRow row : orderRepository.lockStatusRows(ids)) {
+            StatusChange change = row.status() == target ? StatusChange.UNCHANGED
+                    : row.status().canTransitionTo(target) ? StatusChange.UPDATED
+                    : StatusChange.INVALID_TRANSITION;
+            outcomes.put(row.id(), new StatusOutcome(row.id(), row.orderNumber(), row.status(), change));
+            if (change == StatusChange.UPDATED) eligible.add(row);
+        }
+        if (eligible.isEmpty()) return 0;
+
+        int updated = orderRepository.transitionStatus(
+                eligible.stream().map(OrderStatusRow::id).toList(), target.allowedPredecessors(), target, now);
+
+        outboxRepository.saveAll(eligible.stream()
+                .map(r -> outboxEvent(r.orderNumber(), statusUpdatedEvent(
+                        r.orderNumber(), r.customerId(), r.customerEmail(), r.status(), target)))
+                .toList());
+        entityManager.flush();
+        entityManager.clear();
+
+        // The rows are locked, so the UPDATE moved each one to exactly the version after the one read
+        orderCache.evictAll(eligible.stream()
+                .map(r -> new OrderCacheMaintainer.Eviction(r.id(), r.orderNumber(), r.version() + 1))
+                .toList());
+        statistics.recordAll(eligible.stream()
+                .map(r -> new OrderChange(r.customerId(), r.totalAmount(), r.createdAt().toLocalDate(),
+                        r.status(), target))
+                .toList());
+        return updated;
+    }
+
+    private static Map<String, Object> statusUpdatedEvent(String orderNumber, String customerId,
+                                                          String customerEmail,
+                                                          OrderStatus previous, OrderStatus next) {
+        return Map.of(
+                "event", "ORDER_STATUS_UPDATED",
+                "orderNumber", orderNumber,
+                "customerId", customerId,
+                "customerEmail", customerEmail,
+                "previousStatus", previous.name(),
+                "newStatus", next.name(),
+                "timestamp", LocalDateTime.now().toString()
+        );
+    }
+
     public void cancelOrder(Long id) {
-        Order order = orderRepository.findById(id)
+        cancelOrder(id, null);
+    }
+
+    public void cancelOrder(Long id, Long expectedVersion) {
+        optimisticRetry.execute("cancel", expectedVersion == null, () -> {
+            applyCancel(id, expectedVersion);
+            return null;
+        });
+    }
+
+    private void applyCancel(Long id, Long expectedVersion) {
+        Order order = orderRepository.findByIdWithItems(id)
                 .orElseThrow(() -> new NoSuchElementException("Order not found: " + id));
+        checkVersion(order, expectedVersion);
 
-        if (order.getStatus() == OrderStatus.SHIPPED || order.getStatus() == OrderStatus.DELIVERED) {
-            throw new IllegalStateException("Cannot cancel order in status: " + order.getStatus());
+        OrderStatus previous = order.getStatus();
+        if (!previous.canTransitionTo(OrderStatus.CANCELLED)) {
+            throw new IllegalStateException("Cannot cancel order in status: " + previous);
         }
 
         order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        orderCache.writeThrough(OrderResponse.from(orderRepository.saveAndFlush(order)));
+        statistics.record(OrderChange.transition(order, previous));
 
-        kafkaTemplate.send(ORDER_TOPIC, order.getOrderNumber(),
+        enqueueEvent(order.getOrderNumber(),
                 Map.of(
                     "event", "ORDER_CANCELLED",
                     "orderNumber", order.getOrderNumber(),
@@ -141,10 +315,44 @@ public class OrderService {
                 ));
     }
 
-    private String generateOrderNumber() {
-        return "ORD-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+    private static void checkVersion(Order order, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Order.class, order.getId());
+        }
+    }
+
+    // Written in the caller's transaction, so rolled-back changes never publish
+    private void enqueueEvent(String orderNumber, Map<String, Object> payload) {
+        outboxRepository.save(outboxEvent(orderNumber, payload));
     }
 
+    // The event id is fixed here, so relay retries and consumer redeliveries all carry the same one
+    private OutboxEvent outboxEvent(String orderNumber, Map<String, Object> payload) {
+        Map<String, Object> withId = new LinkedHashMap<>(payload);
+        withId.put("eventId", UUID.randomUUID().toString());
+        return OutboxEvent.builder()
+                .topic(ORDER_TOPIC)
+                .messageKey(orderNumber)
+                .payload(withId)
+                .build();
+    }
+
+    public record OrderRequest(
+        String customerId,
+        String customerEmail,
+        String shippingAddress,
+        List<OrderItemRequest> items
+    ) {}
+
+    public record CreatedOrder(Long id, String orderNumber) {}
+
+    public enum StatusChange { UPDATED, UNCHANGED, INVALID_TRANSITION, NOT_FOUND }
+
+    /** Per-order result of a bulk transition; orderNumber and previousStatus are null when NOT_FOUND. */
+    public record StatusOutcome(Long id, String orderNumber, OrderStatus previousStatus, StatusChange result) {}
+
+    public record BulkStatusResult(int requested, int updated, List<StatusOutcome> outcomes) {}
+
     // Used internally by service layer — not exposed via constructor injection issues
     public record OrderItemRequest(
         String productId,
@@ -0,0 +1,143 @@
+package com.ordermgmt.service;
+
+import com.ordermgmt.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Sends a batch of outbox events to Kafka and reports, per event, whether the
+ * broker acknowledged it. Every send completes through a callback, so one
+ * failed record no longer fails the rest of its batch. The producer batches
+ * and compresses the sends (see {@code spring.kafka.producer}), and the
+ * caller's batch size bounds how many are in flight at once.
+ *
+ * Events that share a key go out in rounds: the n-th event of a key is only
+ * sent once its (n-1)-th was acknowledged, so a later event for an order can
+ * never reach consumers ahead of an earlier one that failed. Events left
+ * behind a failure are reported as held and not sent. An event with no answer
+ * within the send timeout counts as failed; if its ack arrives later, the
+ * retry is a duplicate that consumers drop by event id.
+ */
+@Component
+@Slf4j
+public class OutboxPublisher {
+
+    static final TimeoutException NO_ACK = new TimeoutException("No ack within the send timeout");
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final long sendTimeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    public OutboxPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                           @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs,
+                           MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Ids of the acknowledged events, the cause for each failed one, and the
+     * events not sent because an earlier event with their key failed.
+     */
+    public record Delivery(Set<Long> delivered, Map<Long, Throwable> failed, Set<Long> held) {}
+
+    public Delivery publish(List<OutboxEvent> events) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        Map<String, Deque<OutboxEvent>> byKey = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            byKey.computeIfAbsent(event.getMessageKey(), k -> new ArrayDeque<>()).add(event);
+        }
+
+        Set<Long> delivered = new HashSet<>();
+        Map<Long, Throwable> failed = new HashMap<>();
+        Set<Long> held = new HashSet<>();
+        List<OutboxEvent> round = byKey.values().stream().map(Deque::poll).toList();
+        while (!round.isEmpty()) {
+            Map<Long, Throwable> outcomes = System.nanoTime() - deadline < 0 ? sendAndAwait(round, deadline) : null;
+            List<OutboxEvent> next = new ArrayList<>();
+            for (OutboxEvent event : round) {
+                Deque<OutboxEvent> rest = byKey.get(event.getMessageKey());
+                if (outcomes == null) {
+                    held.add(event.getId());
+                } else if (outcomes.get(event.getId()) == null) {
+                    delivered.add(event.getId());
+                    if (!rest.isEmpty()) next.add(rest.poll());
+                    continue;
+                } else {
+                    failed.put(event.getId(), outcomes.get(event.getId()));
+                }
+                rest.forEach(e -> held.add(e.getId()));
+                rest.clear();
+            }
+            round = next;
+        }
+
+        failed.values().forEach(error -> Counter.builder("outbox.relay.failed")
+                .description("Outbox events Kafka did not acknowledge, left in the outbox for a retry")
+                .tag("exception", error.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment());
+        return new Delivery(delivered, failed, held);
+    }
+
+    // Outcome per event id: null when acknowledged, else the cause
+    private Map<Long, Throwable> sendAndAwait(List<OutboxEvent> events, long deadline) {
+        Map<Long, Throwable> errors = new ConcurrentHashMap<>();
+        Set<Long> acked = ConcurrentHashMap.newKeySet();
+        CompletableFuture<?>[] callbacks = new CompletableFuture<?>[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            Long id = events.get(i).getId();
+            callbacks[i] = send(events.get(i)).whenComplete((result, error) -> {
+                if (error == null) acked.add(id);
+                else errors.put(id, unwrap(error));
+            });
+        }
+        await(CompletableFuture.allOf(callbacks), deadline);
+
+        // Decide once: a callback that fires after this point changes nothing
+        Map<Long, Throwable> outcomes = new HashMap<>();
+        for (OutboxEvent event : events) {
+            outcomes.put(event.getId(), acked.contains(event.getId()) ? null
+                    : errors.getOrDefault(event.getId(), NO_ACK));
+        }
+        return outcomes;
+    }
+
+    // KafkaTemplate throws for records it cannot even queue (serialization, metadata, buffer full)
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void await(CompletableFuture<Void> all, long deadline) {
+        try {
+            all.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Outcomes are in the callbacks; unanswered events count as failed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for Kafka acks");
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof KafkaProducerException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
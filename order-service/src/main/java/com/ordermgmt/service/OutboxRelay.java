@@ -0,0 +1,137 @@
+package com.ordermgmt.service;
+
+import com.ordermgmt.model.OutboxEvent;
+import com.ordermgmt.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox table to Kafka in batches.
+ * Each batch is sent and awaited inside one transaction. Acknowledged events
+ * are deleted; the others stay in the outbox and are retried with exponential
+ * backoff, holding back later events for the same order meanwhile
+ * (at-least-once delivery, per-order ordering).
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    // Arbitrary application-wide advisory lock id, shared by all replicas
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    @Value("${outbox.relay.max-retry-backoff:5m}")
+    private Duration maxRetryBackoff;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong retrying = new AtomicLong();
+    private Counter publishedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest event still waiting in the outbox")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.retrying", retrying, AtomicLong::get)
+                .description("Outbox events waiting to be retried after a failed send")
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Events relayed from the outbox to Kafka")
+                .register(meterRegistry);
+    }
+
+    /** Runs every linger interval; keeps draining while batches come back full and fully delivered. */
+    @Scheduled(fixedDelayString = "${outbox.relay.linger-ms:50}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed, will retry: {}", e.getMessage());
+        } finally {
+            updateLag();
+        }
+    }
+
+    private int relayBatch() {
+        if (!outboxRepository.tryAcquireRelayLock(RELAY_LOCK_KEY)) {
+            return 0;   // another replica is relaying
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxRepository.findReadyBatch(now, batchSize);
+        if (batch.isEmpty()) return 0;
+
+        OutboxPublisher.Delivery delivery = publisher.publish(batch);
+        if (!delivery.delivered().isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(delivery.delivered());
+            publishedCounter.increment(delivery.delivered().size());
+        }
+        if (!delivery.failed().isEmpty()) {
+            // Managed entities: the new attempt counts are flushed on commit
+            batch.stream()
+                    .filter(e -> delivery.failed().containsKey(e.getId()))
+                    .forEach(e -> scheduleRetry(e, delivery.failed().get(e.getId()), now));
+            Throwable first = delivery.failed().values().iterator().next();
+            log.warn("{} of {} outbox events were not acknowledged, retrying later: {}",
+                    delivery.failed().size(), batch.size(), first.toString());
+        }
+        // Held events were never sent; they stay untouched and queue behind the retry
+        if (!delivery.held().isEmpty()) {
+            log.debug("Held back {} outbox events behind a failed event for the same key", delivery.held().size());
+        }
+        log.debug("Relayed {} outbox events", delivery.delivered().size());
+        return delivery.delivered().size();
+    }
+
+    private void scheduleRetry(OutboxEvent event, Throwable error, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        // 1s, 2s, 4s, ... up to the maximum; the shift is capped so it cannot overflow
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(now.plus(backoff.compareTo(maxRetryBackoff) < 0 ? backoff : maxRetryBackoff));
+        String message = error.toString();
+        event.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+    }
+
+    private void updateLag() {
+        try {
+            lagMillis.set(outboxRepository.findFirstByOrderByIdAsc()
+                    .map(e -> Duration.between(e.getCreatedAt(), LocalDateTime.now()).toMillis())
+                    .orElse(0L));
+            retrying.set(outboxRepository.countByAttemptsGreaterThan(0));
+        } catch (RuntimeException e) {
+            log.debug("Could not read outbox lag: {}", e.getMessage());
+        }
+    }
+}
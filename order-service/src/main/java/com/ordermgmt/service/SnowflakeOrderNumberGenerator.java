@@ -0,0 +1,161 @@
+package com.ordermgmt.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node id and a 12-bit sequence per millisecond, so one instance
+ * can issue 4,096 numbers per millisecond without coordination. Numbers
+ * increase with time, which keeps inserts at the right edge of the
+ * {@code order_number} index instead of scattering them across it.
+ *
+ * The last timestamp and sequence live in one {@link AtomicLong} updated by
+ * compare-and-set, so there is no lock. That timestamp is a logical clock.
+ * If the wall clock steps back by up to {@code max-clock-drift}, numbering
+ * carries on from the last timestamp. When a millisecond's sequence is used
+ * up, the next millisecond is borrowed, until the logical clock would run
+ * more than the drift ahead; then callers spin until the wall clock catches
+ * up. A larger backward step fails order creation rather than risk a repeat.
+ *
+ * Unless {@code orders.number.node-id} pins one, the node id is leased
+ * ({@link NodeIdLease}) and renewed every {@code lease-heartbeat-ms}. Numbers
+ * are only issued while the lease is held; a lease lost while the database
+ * was out of reach is replaced by a fresh one at the next heartbeat.
+ */
+@Component
+@Slf4j
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String PREFIX = "ORD-";
+    // Fixed width keeps the string order the same as the numeric order
+    private static final int DIGITS = 19;
+
+    private final long nodeId;
+    private final JdbcTemplate jdbc;
+    private final Duration leaseTtl;
+    private volatile NodeIdLease lease;
+    private final long maxDriftMillis;
+    private final LongSupplier clock;
+
+    // (logical millis since EPOCH_MILLIS << SEQUENCE_BITS) | last sequence
+    private final AtomicLong state = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderNumberGenerator(JdbcTemplate jdbc,
+                                         @Value("${orders.number.node-id:-1}") long nodeId,
+                                         @Value("${orders.number.max-clock-drift:1s}") Duration maxClockDrift,
+                                         @Value("${orders.number.lease-ttl:60s}") Duration leaseTtl) {
+        this(nodeId >= 0 ? nodeId : 0, maxClockDrift, System::currentTimeMillis,
+                nodeId >= 0 ? null : jdbc, leaseTtl);
+        log.info("Order numbers use node id {}", currentNodeId());
+    }
+
+    /** A fixed node id; {@code clock} returns epoch milliseconds. */
+    public SnowflakeOrderNumberGenerator(long nodeId, Duration maxClockDrift, LongSupplier clock) {
+        this(nodeId, maxClockDrift, clock, null, Duration.ZERO);
+    }
+
+    // With jdbc, the node id is leased and nodeId is ignored
+    SnowflakeOrderNumberGenerator(long nodeId, Duration maxClockDrift, LongSupplier clock,
+                                  JdbcTemplate jdbc, Duration leaseTtl) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.jdbc = jdbc;
+        this.leaseTtl = leaseTtl;
+        this.lease = jdbc == null ? null : NodeIdLease.acquire(jdbc, MAX_NODE_ID, leaseTtl);
+        this.maxDriftMillis = maxClockDrift.toMillis();
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.number.lease-heartbeat-ms:15000}")
+    public void renewLease() {
+        NodeIdLease current = lease;
+        if (current == null) return;
+        try {
+            if (!current.renew()) {
+                lease = NodeIdLease.acquire(jdbc, MAX_NODE_ID, leaseTtl);
+                log.warn("Order numbers now use node id {}", lease.nodeId());
+            }
+        } catch (RuntimeException e) {
+            // Numbers keep flowing until the lease runs out; the next heartbeat tries again
+            log.warn("Could not renew the order number node lease: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void releaseLease() {
+        NodeIdLease current = lease;
+        if (current == null) return;
+        try {
+            current.release();
+        } catch (RuntimeException e) {
+            log.debug("Could not release the order number node lease: {}", e.getMessage());
+        }
+    }
+
+    long currentNodeId() {
+        NodeIdLease current = lease;
+        return current == null ? nodeId : current.nodeId();
+    }
+
+    @Override
+    public String next() {
+        String digits = Long.toString(nextId());
+        return PREFIX + "0".repeat(DIGITS - digits.length()) + digits;
+    }
+
+    public long nextId() {
+        NodeIdLease current = lease;
+        if (current != null && !current.isHeld()) {
+            throw new IllegalStateException("Order number node lease expired; refusing to issue order numbers");
+        }
+        long node = current == null ? nodeId : current.nodeId();
+        while (true) {
+            long last = state.get();
+            long lastMillis = last >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+
+            if (lastMillis - now > maxDriftMillis) {
+                throw new IllegalStateException("Clock moved back " + (lastMillis - now)
+                        + " ms, more than the allowed drift; refusing to issue order numbers");
+            }
+
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1;
+            } else if (lastMillis + 1 - now <= maxDriftMillis) {
+                next = (lastMillis + 1) << SEQUENCE_BITS;
+            } else {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            if (state.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | node << SEQUENCE_BITS
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ordermgmt.stats;
+
+import com.ordermgmt.model.Order;
+import com.ordermgmt.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** One committed change to an order as the statistics see it; {@code from} is null for a new order. */
+public record OrderChange(
+    String customerId,
+    BigDecimal totalAmount,
+    LocalDate createdOn,
+    OrderStatus from,
+    OrderStatus to
+) {
+
+    public static OrderChange created(Order order) {
+        return new OrderChange(order.getCustomerId(), order.getTotalAmount(), createdOn(order), null, order.getStatus());
+    }
+
+    public static OrderChange transition(Order order, OrderStatus from) {
+        return new OrderChange(order.getCustomerId(), order.getTotalAmount(), createdOn(order), from, order.getStatus());
+    }
+
+    // createdAt is only filled in by the insert, so a new order may not carry it yet
+    private static LocalDate createdOn(Order order) {
+        return order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : LocalDate.now();
+    }
+}
@@ -0,0 +1,273 @@
+package com.ordermgmt.stats;
+
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.repository.CustomerRevenueRow;
+import com.ordermgmt.repository.DailyRevenueRow;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.StatusCountRow;
+import com.ordermgmt.stats.OrderStats.CustomerRevenue;
+import com.ordermgmt.stats.OrderStats.DailyRevenue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Order counts per status, and revenue per day and per customer, kept in
+ * memory so {@code GET /orders/stats} never queries Postgres.
+ *
+ * Each figure is a base read from the database by the last reconciliation
+ * plus the deltas of writes this instance has committed since. Deltas are
+ * applied after commit, so rolled-back writes never count. Revenue is the
+ * total of orders created in the last {@code window-days} days that are not
+ * cancelled.
+ *
+ * Reconciliation swaps in a fresh delta set before it queries, and keeps
+ * reading the outgoing one until the new base is in place, so a read never
+ * misses a write. A write that commits between the swap and the query is
+ * counted twice until the next pass, which bounds the error by the writes
+ * in flight at that moment. Writes made by other instances appear at the
+ * next reconciliation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatistics {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    /** Order count and revenue in cents, updated without locks. */
+    private static final class Tally {
+        final LongAdder orders = new LongAdder();
+        final LongAdder cents = new LongAdder();
+    }
+
+    /** Writes recorded since some reconciliation started. */
+    private static final class Deltas {
+        final LongAdder[] statusCounts = new LongAdder[STATUSES.length];
+        final Map<LocalDate, Tally> days = new ConcurrentHashMap<>();
+        final Map<String, Tally> customers = new ConcurrentHashMap<>();
+
+        Deltas() {
+            Arrays.setAll(statusCounts, i -> new LongAdder());
+        }
+    }
+
+    private record Amount(long orders, long cents) {}
+
+    /** What the database said, plus the deltas a running reconciliation is still replacing. */
+    private record Base(long[] statusCounts, Map<LocalDate, Amount> days, Map<String, Amount> customers,
+                        Deltas pending, Instant reconciledAt) {
+
+        static final Base EMPTY = new Base(new long[STATUSES.length], Map.of(), Map.of(), null, null);
+
+        Base withPending(Deltas deltas) {
+            return new Base(statusCounts, days, customers, deltas, reconciledAt);
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.stats.window-days:90}")
+    private int windowDays = 90;
+
+    private volatile Base base = Base.EMPTY;
+    private volatile Deltas live = new Deltas();
+
+    private final AtomicLong drift = new AtomicLong();
+    private final ReentrantLock reconciling = new ReentrantLock();
+    private Timer reconcileTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("orders.stats.drift", drift, AtomicLong::get)
+                .description("Orders by which the in-memory status counts were off at the last reconciliation")
+                .register(meterRegistry);
+        reconcileTimer = Timer.builder("orders.stats.reconcile")
+                .description("Time to rebuild the order statistics from the database")
+                .register(meterRegistry);
+    }
+
+    public int windowDays() {
+        return windowDays;
+    }
+
+    /** Applies {@code change} once the current transaction commits. */
+    public void record(OrderChange change) {
+        afterCommit(() -> apply(change));
+    }
+
+    /** Applies every change from one after-commit callback, for bulk writes. */
+    public void recordAll(Collection<OrderChange> changes) {
+        if (changes.isEmpty()) return;
+        List<OrderChange> copy = List.copyOf(changes);
+        afterCommit(() -> copy.forEach(this::apply));
+    }
+
+    private void apply(OrderChange change) {
+        Deltas deltas = live;
+        if (change.from() != null) deltas.statusCounts[change.from().ordinal()].decrement();
+        deltas.statusCounts[change.to().ordinal()].increment();
+
+        // Creation adds revenue and cancellation takes it back; other transitions leave it alone
+        int sign = change.from() == null ? 1 : change.to() == OrderStatus.CANCELLED ? -1 : 0;
+        if (sign == 0 || change.createdOn().isBefore(windowStart())) return;
+
+        long cents = sign * toCents(change.totalAmount());
+        add(deltas.days.computeIfAbsent(change.createdOn(), d -> new Tally()), sign, cents);
+        add(deltas.customers.computeIfAbsent(change.customerId(), c -> new Tally()), sign, cents);
+    }
+
+    /** Status counts, the last {@code days} days of revenue, and one customer's revenue when asked for. */
+    public OrderStats snapshot(int days, String customerId) {
+        Deltas deltas;
+        Base current;
+        List<Deltas> parts = new ArrayList<>(2);
+        // Re-read if a reconciliation swapped the delta set in between, so nothing is summed twice
+        do {
+            deltas = live;
+            current = base;
+        } while (deltas != live);
+        parts.add(deltas);
+        if (current.pending() != null && current.pending() != deltas) parts.add(current.pending());
+
+        Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        long total = 0;
+        for (OrderStatus status : STATUSES) {
+            long count = current.statusCounts()[status.ordinal()];
+            for (Deltas d : parts) count += d.statusCounts[status.ordinal()].sum();
+            statusCounts.put(status, count);
+            total += count;
+        }
+
+        List<DailyRevenue> daily = new ArrayList<>(days);
+        LocalDate today = LocalDate.now();
+        for (int i = days - 1; i >= 0; i--) {
+            LocalDate day = today.minusDays(i);
+            Amount amount = sum(current.days().get(day), parts.stream().map(d -> d.days.get(day)).toList());
+            daily.add(new DailyRevenue(day, amount.orders(), BigDecimal.valueOf(amount.cents(), 2)));
+        }
+
+        CustomerRevenue customer = null;
+        if (customerId != null) {
+            Amount amount = sum(current.customers().get(customerId),
+                    parts.stream().map(d -> d.customers.get(customerId)).toList());
+            customer = new CustomerRevenue(customerId, amount.orders(), BigDecimal.valueOf(amount.cents(), 2));
+        }
+
+        return new OrderStats(statusCounts, total, daily, customer, current.reconciledAt());
+    }
+
+    /**
+     * Replaces the base with fresh aggregates. The three queries share one
+     * repeatable-read snapshot; the delta swap happens before the first of
+     * them, which is when Postgres takes that snapshot. Not read-only, so it
+     * runs on the primary: the snapshot must include every write counted in
+     * the outgoing deltas, which a lagging replica might not have.
+     */
+    @Scheduled(fixedDelayString = "${orders.stats.reconcile-interval-ms:300000}")
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void reconcile() {
+        // A lock rather than synchronized: the queries below would pin a virtual thread's carrier
+        reconciling.lock();
+        try {
+            rebuild();
+        } finally {
+            reconciling.unlock();
+        }
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        Base previous = base;
+        Deltas outgoing = live;
+        base = previous.withPending(outgoing);
+        live = new Deltas();
+
+        long[] statusCounts = new long[STATUSES.length];
+        for (StatusCountRow row : orderRepository.countGroupedByStatus()) {
+            statusCounts[row.status().ordinal()] = row.orders();
+        }
+        LocalDateTime since = windowStart().atStartOfDay();
+        Map<LocalDate, Amount> days = new HashMap<>();
+        for (DailyRevenueRow row : orderRepository.revenueByDaySince(since, OrderStatus.CANCELLED)) {
+            days.put(row.day(), new Amount(row.orders(), toCents(row.revenue())));
+        }
+        Map<String, Amount> customers = new HashMap<>();
+        for (CustomerRevenueRow row : orderRepository.revenueByCustomerSince(since, OrderStatus.CANCELLED)) {
+            customers.put(row.customerId(), new Amount(row.orders(), toCents(row.revenue())));
+        }
+
+        long difference = 0;
+        for (int i = 0; i < statusCounts.length; i++) {
+            long believed = previous.statusCounts()[i] + outgoing.statusCounts[i].sum();
+            difference += Math.abs(believed - statusCounts[i]);
+        }
+        drift.set(difference);
+
+        base = new Base(statusCounts, Map.copyOf(days), Map.copyOf(customers), null, Instant.now());
+        reconcileTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        log.debug("Order statistics reconciled: {} customers, drift {}", customers.size(), difference);
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now().minusDays(windowDays - 1L);
+    }
+
+    private static void add(Tally tally, int orders, long cents) {
+        tally.orders.add(orders);
+        tally.cents.add(cents);
+    }
+
+    private static Amount sum(Amount base, List<Tally> deltas) {
+        long orders = base == null ? 0 : base.orders();
+        long cents = base == null ? 0 : base.cents();
+        for (Tally t : deltas) {
+            if (t == null) continue;
+            orders += t.orders.sum();
+            cents += t.cents.sum();
+        }
+        return new Amount(orders, cents);
+    }
+
+    // Order amounts are NUMERIC(12, 2), so cents are exact
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // Outside a transaction (e.g. tests) the change is applied immediately
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
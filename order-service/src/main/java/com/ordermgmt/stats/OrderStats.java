@@ -0,0 +1,28 @@
+package com.ordermgmt.stats;
+
+import com.ordermgmt.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of {@code GET /api/v1/orders/stats}. Revenue counts orders that
+ * are not cancelled; {@code daily} has one entry per day, oldest first, and
+ * {@code customer} is only present when one was asked for.
+ * {@code reconciledAt} is null until the first reconciliation has run.
+ */
+public record OrderStats(
+    Map<OrderStatus, Long> statusCounts,
+    long totalOrders,
+    List<DailyRevenue> daily,
+    CustomerRevenue customer,
+    Instant reconciledAt
+) {
+
+    public record DailyRevenue(LocalDate day, long orders, BigDecimal revenue) {}
+
+    public record CustomerRevenue(String customerId, long orders, BigDecimal revenue) {}
+}
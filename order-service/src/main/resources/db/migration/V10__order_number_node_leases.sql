@@ -0,0 +1,12 @@
+-- V10__order_number_node_leases.sql
+-- Order number node ids are leased with a heartbeat instead of taken from
+-- order_number_node_seq modulo 1024. That sequence wraps after 1024 startups,
+-- and could hand a new instance the node id of one still running. A lease is
+-- free when it has no row or its heartbeat is older than the lease TTL; the
+-- sequence now only picks where the search for a free id starts.
+
+CREATE TABLE IF NOT EXISTS order_number_node_leases (
+    node_id      INT          PRIMARY KEY,
+    owner        VARCHAR(100) NOT NULL,
+    heartbeat_at TIMESTAMP    NOT NULL
+);
@@ -0,0 +1,8 @@
+-- V11__outbox_sequence_increment.sql
+-- Outbox ids go back to one nextval per row. With pooled blocks of 50, each
+-- instance handed out ids from its own block, so a later event for an order
+-- could get a lower id than an earlier one written elsewhere, and the relay
+-- publishes and holds back retries by id. Rows are still batch-inserted.
+-- The increment must match OutboxEvent's @SequenceGenerator(allocationSize = 1).
+
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 1;
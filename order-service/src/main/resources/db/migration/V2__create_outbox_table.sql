@@ -0,0 +1,11 @@
+-- V2__create_outbox_table.sql
+-- Transactional outbox: order events are written here in the same transaction
+-- as the order change, then relayed to Kafka in batches by OutboxRelay.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id          BIGSERIAL PRIMARY KEY,
+    topic       VARCHAR(100) NOT NULL,
+    message_key VARCHAR(100) NOT NULL,
+    payload     JSONB        NOT NULL,
+    created_at  TIMESTAMP    NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,7 @@
+-- V3__pooled_id_sequences.sql
+-- Entities switch from IDENTITY to pooled sequence ids so Hibernate can batch
+-- inserts. The increment must match @SequenceGenerator(allocationSize = 50).
+
+ALTER SEQUENCE orders_id_seq        INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq   INCREMENT BY 50;
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 50;
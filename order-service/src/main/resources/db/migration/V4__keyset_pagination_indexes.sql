@@ -0,0 +1,11 @@
+-- V4__keyset_pagination_indexes.sql
+-- Composite indexes for keyset (cursor) pagination: listing seeks on
+-- (created_at, id) newest first, optionally within one customer.
+
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id
+    ON orders(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created_at_id
+    ON orders(customer_id, created_at DESC, id DESC);
+
+-- Superseded by idx_orders_created_at_id (same leading column)
+DROP INDEX IF EXISTS idx_orders_created_at;
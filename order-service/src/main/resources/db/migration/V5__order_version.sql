@@ -0,0 +1,6 @@
+-- V5__order_version.sql
+-- Optimistic locking: every write to an order bumps its version, and a write
+-- based on an older version fails instead of overwriting a concurrent one.
+-- The version is also the order's ETag.
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- V6__order_number_node_sequence.sql
+-- Each order-service instance leases a fresh order number node id from this
+-- sequence at startup (modulo 1024), unless orders.number.node-id is set.
+-- A restarted instance never reuses the node id of its previous run, so a
+-- clock that went back across the restart cannot repeat an order number.
+
+CREATE SEQUENCE IF NOT EXISTS order_number_node_seq;
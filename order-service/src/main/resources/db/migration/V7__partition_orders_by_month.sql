@@ -0,0 +1,105 @@
+-- V7__partition_orders_by_month.sql
+-- orders and order_items become monthly range partitions on the order's
+-- created_at, so indexes and vacuum work per month and an emptied month is
+-- dropped instead of deleted row by row.
+--
+-- Postgres requires the partition key in every unique constraint, so the
+-- primary keys become (id, created_at) and order_number is unique per
+-- created_at. Order numbers are unique by construction (see
+-- SnowflakeOrderNumberGenerator). order_items carries its order's created_at
+-- as order_created_at: it is the items' partition key and half of their
+-- foreign key, so an order and its items always live in the same month.
+
+ALTER TABLE order_items DROP CONSTRAINT order_items_order_id_fkey;
+ALTER TABLE orders      RENAME TO orders_unpartitioned;
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders_unpartitioned      RENAME CONSTRAINT orders_pkey              TO orders_unpartitioned_pkey;
+ALTER TABLE orders_unpartitioned      RENAME CONSTRAINT orders_order_number_key  TO orders_unpartitioned_order_number_key;
+ALTER TABLE order_items_unpartitioned RENAME CONSTRAINT order_items_pkey         TO order_items_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_orders_customer_id, idx_orders_status, idx_orders_created_at_id,
+                     idx_orders_customer_created_at_id, idx_order_items_order;
+
+CREATE TABLE orders (
+    id               BIGINT         NOT NULL DEFAULT nextval('orders_id_seq'),
+    order_number     VARCHAR(50)    NOT NULL,
+    customer_id      VARCHAR(100)   NOT NULL,
+    customer_email   VARCHAR(255)   NOT NULL,
+    status           VARCHAR(20)    NOT NULL DEFAULT 'PENDING',
+    total_amount     NUMERIC(12, 2) NOT NULL,
+    shipping_address VARCHAR(500),
+    created_at       TIMESTAMP      NOT NULL DEFAULT NOW(),
+    updated_at       TIMESTAMP      NOT NULL DEFAULT NOW(),
+    version          BIGINT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, created_at),
+    UNIQUE (order_number, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_items (
+    id               BIGINT         NOT NULL DEFAULT nextval('order_items_id_seq'),
+    order_id         BIGINT         NOT NULL,
+    order_created_at TIMESTAMP      NOT NULL,
+    product_id       VARCHAR(100)   NOT NULL,
+    product_name     VARCHAR(255)   NOT NULL,
+    quantity         INTEGER        NOT NULL CHECK (quantity > 0),
+    unit_price       NUMERIC(10, 2) NOT NULL,
+    subtotal         NUMERIC(12, 2) NOT NULL,
+    PRIMARY KEY (id, order_created_at),
+    FOREIGN KEY (order_id, order_created_at) REFERENCES orders(id, created_at) ON DELETE CASCADE
+) PARTITION BY RANGE (order_created_at);
+
+-- Creates the orders and order_items partitions for every month from
+-- from_month to to_month that does not have one yet; returns how many months
+-- were added. OrderPartitionMaintainer calls it daily to stay ahead of inserts.
+CREATE OR REPLACE FUNCTION ensure_order_partitions(from_month DATE, to_month DATE) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month);
+    month_end   DATE;
+    suffix      TEXT;
+    added       INTEGER := 0;
+BEGIN
+    WHILE month_start <= to_month LOOP
+        month_end := month_start + INTERVAL '1 month';
+        suffix := to_char(month_start, 'YYYY_MM');
+        IF to_regclass('orders_' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           'orders_' || suffix, month_start, month_end);
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           'order_items_' || suffix, month_start, month_end);
+            added := added + 1;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    RETURN added;
+END
+$$;
+
+SELECT ensure_order_partitions(
+    COALESCE((SELECT MIN(created_at) FROM orders_unpartitioned)::DATE, CURRENT_DATE),
+    (CURRENT_DATE + INTERVAL '3 months')::DATE);
+
+INSERT INTO orders (id, order_number, customer_id, customer_email, status, total_amount,
+                    shipping_address, created_at, updated_at, version)
+SELECT id, order_number, customer_id, customer_email, status, total_amount,
+       shipping_address, created_at, updated_at, version
+FROM orders_unpartitioned;
+
+INSERT INTO order_items (id, order_id, order_created_at, product_id, product_name,
+                         quantity, unit_price, subtotal)
+SELECT i.id, i.order_id, o.created_at, i.product_id, i.product_name,
+       i.quantity, i.unit_price, i.subtotal
+FROM order_items_unpartitioned i
+JOIN orders_unpartitioned o ON o.id = i.order_id;
+
+-- Keep the id sequences (and their pooled increments) when the old tables go
+ALTER SEQUENCE orders_id_seq      OWNED BY orders.id;
+ALTER SEQUENCE order_items_id_seq OWNED BY order_items.id;
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+-- Same indexes as before, now created on every partition. idx_orders_customer_id
+-- is not recreated: idx_orders_customer_created_at_id has the same leading column.
+CREATE INDEX idx_orders_status                 ON orders(status);
+CREATE INDEX idx_orders_created_at_id          ON orders(created_at DESC, id DESC);
+CREATE INDEX idx_orders_customer_created_at_id ON orders(customer_id, created_at DESC, id DESC);
+CREATE INDEX idx_order_items_order             ON order_items(order_id);
@@ -0,0 +1,79 @@
+-- V8__order_archive.sql
+-- Cold storage for finished orders. OrderArchiver moves DELIVERED and
+-- CANCELLED orders older than orders.archive.after-months here, one row per
+-- order with the order and its items as gzipped JSON, and deletes them from
+-- the partitioned tables. Lookups by id or order number fall back to it.
+
+CREATE TABLE IF NOT EXISTS order_archive (
+    id           BIGINT       PRIMARY KEY,
+    order_number VARCHAR(50)  NOT NULL UNIQUE,
+    customer_id  VARCHAR(100) NOT NULL,
+    status       VARCHAR(20)  NOT NULL,
+    created_at   TIMESTAMP    NOT NULL,
+    archived_at  TIMESTAMP    NOT NULL DEFAULT NOW(),
+    payload      BYTEA        NOT NULL
+);
+
+-- Payloads are compressed already; EXTERNAL stops TOAST from trying again
+ALTER TABLE order_archive ALTER COLUMN payload SET STORAGE EXTERNAL;
+
+CREATE INDEX IF NOT EXISTS idx_order_archive_customer ON order_archive(customer_id, created_at DESC);
+
+-- Serialise partition DDL between instances starting at the same time
+CREATE OR REPLACE FUNCTION ensure_order_partitions(from_month DATE, to_month DATE) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month);
+    month_end   DATE;
+    suffix      TEXT;
+    added       INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('order_partitions'));
+    WHILE month_start <= to_month LOOP
+        month_end := month_start + INTERVAL '1 month';
+        suffix := to_char(month_start, 'YYYY_MM');
+        IF to_regclass('orders_' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           'orders_' || suffix, month_start, month_end);
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           'order_items_' || suffix, month_start, month_end);
+            added := added + 1;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    RETURN added;
+END
+$$;
+
+-- Detaches and drops the orders and order_items partitions of every month
+-- that ends on or before before_month and holds no orders (typically because
+-- they were all archived); returns how many months were dropped. The items
+-- partition goes first, since it references the orders partition.
+CREATE OR REPLACE FUNCTION drop_empty_order_partitions(before_month DATE) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    part     RECORD;
+    is_empty BOOLEAN;
+    dropped  INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('order_partitions'));
+    FOR part IN
+        SELECT c.relname AS name, substring(c.relname FROM 8) AS suffix
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'orders'::regclass
+          AND c.relname ~ '^orders_[0-9]{4}_[0-9]{2}$'
+    LOOP
+        CONTINUE WHEN to_date(part.suffix, 'YYYY_MM') + INTERVAL '1 month' > before_month;
+        EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', part.name) INTO is_empty;
+        CONTINUE WHEN NOT is_empty;
+
+        EXECUTE format('ALTER TABLE order_items DETACH PARTITION %I', 'order_items_' || part.suffix);
+        EXECUTE format('DROP TABLE %I', 'order_items_' || part.suffix);
+        EXECUTE format('ALTER TABLE orders DETACH PARTITION %I', part.name);
+        EXECUTE format('DROP TABLE %I', part.name);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END
+$$;
@@ -0,0 +1,13 @@
+-- V9__outbox_retry.sql
+-- A failed send no longer fails its whole batch: OutboxRelay deletes the events
+-- Kafka acknowledged and reschedules the rest with exponential backoff. Later
+-- events for a key with a pending retry wait behind it, so each order's events
+-- keep their order. The partial index only covers rows that have failed.
+
+ALTER TABLE outbox_events
+    ADD COLUMN attempts        INT          NOT NULL DEFAULT 0,
+    ADD COLUMN next_attempt_at TIMESTAMP,
+    ADD COLUMN last_error      VARCHAR(500);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_retrying
+    ON outbox_events(message_key, id) WHERE attempts > 0;
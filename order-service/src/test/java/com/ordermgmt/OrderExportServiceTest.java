@@ -0,0 +1,94 @@
+package com.ordermgmt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.repository.OrderItemRow;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.OrderRow;
+import com.ordermgmt.service.OrderExportService;
+import com.ordermgmt.service.OrderExportService.ExportFilter;
+import com.ordermgmt.service.OrderExportService.Format;
+import com.ordermgmt.service.OrderQueryService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock private OrderRepository orderRepository;
+
+    private OrderExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new OrderExportService(
+                orderRepository, new OrderQueryService(orderRepository), new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("NDJSON export writes one line per order and loads items once per chunk")
+    void export_ndjson_batchesItemLoads() throws Exception {
+        List<OrderRow> orders = IntStream.rangeClosed(1, 1_200).mapToObj(i -> order((long) i, "cust-" + i)).toList();
+        when(orderRepository.streamForExport(anyCollection(), any(), any(), isNull()))
+                .thenReturn(orders.stream());
+        when(orderRepository.findItemRowsByOrderIds(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(OrderExportServiceTest::item).toList();
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = exportService.export(new ExportFilter(null, null, null, null), Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(exported).isEqualTo(1_200);
+        assertThat(lines).hasSize(1_200);
+        assertThat(first.get("orderNumber").asText()).isEqualTo("ORD-1");
+        assertThat(first.get("items")).hasSize(1);
+        // chunk size 500 → 500, 500, 200
+        verify(orderRepository, times(3)).findItemRowsByOrderIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("CSV export writes a header, one row per item, and quotes fields containing commas")
+    void export_csv_quotesFields() throws Exception {
+        OrderRow order = order(7L, "acme, inc");
+        when(orderRepository.streamForExport(anyCollection(), any(), any(), eq("acme, inc")))
+                .thenReturn(Stream.of(order));
+        when(orderRepository.findItemRowsByOrderIds(List.of(7L))).thenReturn(List.of(item(7L), item(7L)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(new ExportFilter(Set.of(OrderStatus.SHIPPED), null, null, "acme, inc"), Format.CSV, out);
+
+        List<String> rows = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0)).startsWith("order_number,customer_id,");
+        assertThat(rows.get(1)).startsWith("ORD-7,\"acme, inc\",buyer@example.com,SHIPPED,19.99,")
+                .endsWith(",SKU-7,Widget,1,19.99,19.99");
+    }
+
+    private static OrderRow order(long id, String customerId) {
+        return new OrderRow(id, "ORD-" + id, customerId, "buyer@example.com", OrderStatus.SHIPPED,
+                new BigDecimal("19.99"), null, LocalDateTime.of(2024, 3, 1, 12, 0), null, 0L);
+    }
+
+    private static OrderItemRow item(long orderId) {
+        return new OrderItemRow(orderId, null, "SKU-" + orderId, "Widget", 1,
+                new BigDecimal("19.99"), new BigDecimal("19.99"));
+    }
+}
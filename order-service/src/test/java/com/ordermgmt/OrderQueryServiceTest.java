@@ -0,0 +1,71 @@
+package com.ordermgmt;
+
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.repository.OrderItemRow;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.OrderRow;
+import com.ordermgmt.service.CursorPage;
+import com.ordermgmt.service.OrderCursor;
+import com.ordermgmt.service.OrderQueryService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderQueryServiceTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2024, 2, 26, 10, 30);
+
+    @Mock private OrderRepository orderRepository;
+
+    @InjectMocks private OrderQueryService orderQueries;
+
+    @Test
+    @DisplayName("Keyset page returns a cursor that seeks past its last row, and none on the last page")
+    void findPage_returnsContinuationCursor() {
+        List<OrderRow> rows = List.of(row(3L, T), row(2L, T), row(1L, T.minusMinutes(1)));
+        when(orderRepository.findRowsBefore(eq(OrderCursor.START.createdAt()), eq(Long.MAX_VALUE), any()))
+                .thenReturn(rows);
+        when(orderRepository.findRowsBefore(eq(T), eq(2L), any())).thenReturn(rows.subList(2, 3));
+
+        CursorPage<OrderResponse> first = orderQueries.findPage(OrderCursor.START, 2, null, null);
+        CursorPage<OrderResponse> second = orderQueries.findPage(
+                OrderCursor.decode(first.nextCursor()), 2, null, null);
+
+        assertThat(first.items()).extracting(OrderResponse::id).containsExactly(3L, 2L);
+        assertThat(OrderCursor.decode(first.nextCursor())).isEqualTo(new OrderCursor(T, 2L));
+        assertThat(second.items()).extracting(OrderResponse::id).containsExactly(1L);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Items for a whole page are loaded in one query and attached to their orders")
+    void findPage_loadsItemsOnce() {
+        when(orderRepository.findRowsBefore(any(), anyLong(), any()))
+                .thenReturn(List.of(row(2L, T), row(1L, T)));
+        when(orderRepository.findItemRowsByOrderIds(List.of(2L, 1L))).thenReturn(List.of(
+                new OrderItemRow(1L, 10L, "SKU-A", "Widget", 1, BigDecimal.ONE, BigDecimal.ONE),
+                new OrderItemRow(1L, 11L, "SKU-B", "Gadget", 2, BigDecimal.ONE, BigDecimal.TWO)));
+
+        CursorPage<OrderResponse> page = orderQueries.findPage(OrderCursor.START, 10, null, null);
+
+        assertThat(page.items().get(0).items()).isEmpty();
+        assertThat(page.items().get(1).items()).extracting("productId").containsExactly("SKU-A", "SKU-B");
+        verify(orderRepository, times(1)).findItemRowsByOrderIds(anyCollection());
+    }
+
+    private static OrderRow row(long id, LocalDateTime createdAt) {
+        return new OrderRow(id, "ORD-" + id, "cust-1", "buyer@example.com", OrderStatus.PENDING,
+                BigDecimal.TEN, null, createdAt, createdAt, 0L);
+    }
+}
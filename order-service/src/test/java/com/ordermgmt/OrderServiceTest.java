@@ -1,16 +1,35 @@
 package com.ordermgmt;
 
+import com.ordermgmt.archive.OrderArchive;
+import com.ordermgmt.cache.OrderCacheMaintainer;
+import com.ordermgmt.dto.OrderResponse;
 import com.ordermgmt.model.*;
+import com.ordermgmt.model.Order;
 import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.OrderStatusRow;
+import com.ordermgmt.repository.OutboxRepository;
+import com.ordermgmt.service.OptimisticRetry;
+import com.ordermgmt.service.OrderNumberGenerator;
+import com.ordermgmt.service.OrderQueryService;
 import com.ordermgmt.service.OrderService;
+import com.ordermgmt.service.OrderService.StatusChange;
+import com.ordermgmt.service.SnowflakeOrderNumberGenerator;
+import com.ordermgmt.stats.OrderStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -20,13 +39,24 @@ import static org.mockito.Mockito.*;
 class OrderServiceTest {
 
     @Mock private OrderRepository orderRepository;
-    @Mock private KafkaTemplate<String, Object> kafkaTemplate;
+    @Mock private OutboxRepository outboxRepository;
+    @Mock private OrderCacheMaintainer orderCache;
+    @Mock private OrderQueryService orderQueries;
+    @Mock private EntityManager entityManager;
+    @Mock private OrderStatistics statistics;
+    @Mock private OrderArchive orderArchive;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy private OptimisticRetry optimisticRetry =
+            new OptimisticRetry(TransactionOperations.withoutTransaction(), meterRegistry);
+    @Spy private OrderNumberGenerator orderNumbers =
+            new SnowflakeOrderNumberGenerator(1, Duration.ofSeconds(1), System::currentTimeMillis);
 
     @InjectMocks private OrderService orderService;
 
     @Test
-    @DisplayName("Creating an order calculates total correctly and publishes Kafka event")
-    void createOrder_calculatesTotal_andPublishesEvent() {
+    @DisplayName("Creating an order calculates total correctly and queues an outbox event with an event id")
+    void createOrder_calculatesTotal_andQueuesEvent() {
         // Arrange
         Order saved = Order.builder()
                 .id(1L)
@@ -38,7 +68,6 @@ class OrderServiceTest {
                 .build();
 
         when(orderRepository.save(any(Order.class))).thenReturn(saved);
-        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(null);
 
         List<OrderService.OrderItemRequest> items = List.of(
                 new OrderService.OrderItemRequest("prod-1", "Widget A", 2, new BigDecimal("50.00")),
@@ -52,7 +81,8 @@ class OrderServiceTest {
         assertThat(result.getOrderNumber()).isEqualTo("ORD-123");
         assertThat(result.getStatus()).isEqualTo(OrderStatus.PENDING);
         verify(orderRepository, times(1)).save(any(Order.class));
-        verify(kafkaTemplate, times(1)).send(eq("order-events"), anyString(), any());
+        verify(outboxRepository, times(1)).save(argThat(e ->
+                e.getTopic().equals("order-events") && e.getPayload().get("eventId") != null));
     }
 
     @Test
@@ -64,19 +94,21 @@ class OrderServiceTest {
                 .status(OrderStatus.SHIPPED)
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
 
         assertThatThrownBy(() -> orderService.cancelOrder(1L))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Cannot cancel order in status: SHIPPED");
 
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verify(outboxRepository, never()).save(any());
+        verify(orderCache, never()).writeThrough(any());
     }
 
     @Test
     @DisplayName("Getting a non-existent order throws NoSuchElementException")
     void getOrderById_notFound_throwsException() {
-        when(orderRepository.findByIdWithItems(99L)).thenReturn(Optional.empty());
+        readThroughCache();
+        when(orderQueries.findById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> orderService.getOrderById(99L))
                 .isInstanceOf(NoSuchElementException.class)
@@ -84,8 +116,21 @@ class OrderServiceTest {
     }
 
     @Test
-    @DisplayName("Updating order status publishes status change event")
-    void updateOrderStatus_publishesKafkaEvent() {
+    @DisplayName("An order no longer in the orders table is served from the archive")
+    void getOrderById_fallsBackToArchive() {
+        OrderResponse archived = new OrderResponse(7L, "ORD-7", "cust-7", "user@example.com",
+                OrderStatus.DELIVERED, new BigDecimal("25.00"), null, List.of(),
+                LocalDateTime.now().minusMonths(14), LocalDateTime.now().minusMonths(14), 4L);
+        readThroughCache();
+        when(orderQueries.findById(7L)).thenReturn(Optional.empty());
+        when(orderArchive.findById(7L)).thenReturn(Optional.of(archived));
+
+        assertThat(orderService.getOrderById(7L)).isSameAs(archived);
+    }
+
+    @Test
+    @DisplayName("Updating order status queues a status change event")
+    void updateOrderStatus_queuesOutboxEvent() {
         Order order = Order.builder()
                 .id(1L)
                 .orderNumber("ORD-789")
@@ -94,13 +139,135 @@ class OrderServiceTest {
                 .status(OrderStatus.PENDING)
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any())).thenReturn(order);
-        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(null);
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.saveAndFlush(any())).thenReturn(order);
 
         orderService.updateOrderStatus(1L, OrderStatus.CONFIRMED);
 
-        verify(kafkaTemplate, times(1)).send(eq("order-events"), anyString(), any());
+        verify(outboxRepository, times(1)).save(argThat(e -> e.getTopic().equals("order-events")));
+        verify(orderCache).writeThrough(argThat((OrderResponse r) ->
+                r.id() == 1L && r.status() == OrderStatus.CONFIRMED));
         assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
     }
+
+    @Test
+    @DisplayName("A status change outside the transition table is rejected without an event")
+    void updateOrderStatus_invalidTransition_throwsException() {
+        Order order = Order.builder().id(1L).orderNumber("ORD-790").status(OrderStatus.DELIVERED).build();
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(order));
+
+        assertThatThrownBy(() -> orderService.updateOrderStatus(1L, OrderStatus.PROCESSING))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("from DELIVERED to PROCESSING");
+
+        verify(orderRepository, never()).saveAndFlush(any());
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("A lost version race is retried on freshly read state")
+    void updateOrderStatus_versionConflict_isRetried() {
+        when(orderRepository.findByIdWithItems(1L))
+                .thenReturn(Optional.of(versioned(OrderStatus.PENDING, 1L)))
+                .thenReturn(Optional.of(versioned(OrderStatus.PENDING, 2L)));
+        when(orderRepository.saveAndFlush(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        Order updated = orderService.updateOrderStatus(1L, OrderStatus.CONFIRMED);
+
+        assertThat(updated.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(updated.getVersion()).isEqualTo(2L);
+        verify(outboxRepository, times(1)).save(any());
+        assertThat(conflicts("update-status", "retried")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A retry stops once the concurrent write has made the transition invalid")
+    void updateOrderStatus_conflictThenInvalidTransition_stopsRetrying() {
+        when(orderRepository.findByIdWithItems(1L))
+                .thenReturn(Optional.of(versioned(OrderStatus.PENDING, 1L)))
+                .thenReturn(Optional.of(versioned(OrderStatus.CANCELLED, 2L)));
+        when(orderRepository.saveAndFlush(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+
+        assertThatThrownBy(() -> orderService.updateOrderStatus(1L, OrderStatus.CONFIRMED))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("from CANCELLED to CONFIRMED");
+        verify(orderRepository, times(1)).saveAndFlush(any());
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("A stale If-Match version is rejected without a retry or a write")
+    void cancelOrder_staleExpectedVersion_isRejected() {
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(Optional.of(versioned(OrderStatus.PENDING, 4L)));
+
+        assertThatThrownBy(() -> orderService.cancelOrder(1L, 3L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        verify(orderRepository, times(1)).findByIdWithItems(1L);
+        verify(orderRepository, never()).saveAndFlush(any());
+        assertThat(conflicts("cancel", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Bulk transition updates only valid orders in one statement and reports every order")
+    @SuppressWarnings("unchecked")
+    void bulkUpdateStatus_reportsPerOrderOutcomes() {
+        when(orderRepository.lockStatusRows(any())).thenReturn(List.of(
+                statusRow(1L, OrderStatus.PROCESSING),
+                statusRow(2L, OrderStatus.SHIPPED),
+                statusRow(3L, OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus(any(), any(), any(), any())).thenReturn(1);
+
+        OrderService.BulkStatusResult result =
+                orderService.bulkUpdateStatus(List.of(1L, 2L, 3L, 4L, 1L), OrderStatus.SHIPPED);
+
+        assertThat(result.requested()).isEqualTo(4);
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.outcomes()).extracting(OrderService.StatusOutcome::result).containsExactly(
+                StatusChange.UPDATED, StatusChange.UNCHANGED, StatusChange.INVALID_TRANSITION, StatusChange.NOT_FOUND);
+
+        verify(orderRepository).transitionStatus(eq(List.of(1L)),
+                eq(EnumSet.of(OrderStatus.PROCESSING)), eq(OrderStatus.SHIPPED), any());
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).saveAll(events.capture());
+        assertThat(events.getValue()).singleElement().satisfies(e -> {
+            assertThat(e.getPayload()).containsEntry("previousStatus", "PROCESSING")
+                    .containsEntry("newStatus", "SHIPPED");
+            assertThat(e.getPayload().get("eventId")).isNotNull();
+        });
+        verify(orderCache).evictAll(List.of(new OrderCacheMaintainer.Eviction(1L, "ORD-1", 4L)));
+    }
+
+    @Test
+    @DisplayName("The transition table only allows forward steps and cancellation before shipping")
+    void orderStatus_transitionTable() {
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.CONFIRMED)).isTrue();
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.SHIPPED)).isFalse();
+        assertThat(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.CANCELLED)).isFalse();
+        assertThat(OrderStatus.CANCELLED.allowedPredecessors())
+                .containsExactlyInAnyOrder(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PROCESSING);
+        assertThat(OrderStatus.PENDING.allowedPredecessors()).isEmpty();
+    }
+
+    // A cache miss: the maintainer runs the loader
+    private void readThroughCache() {
+        when(orderCache.read(any(), any())).thenAnswer(i -> i.<Supplier<OrderResponse>>getArgument(1).get());
+    }
+
+    private static Order versioned(OrderStatus status, long version) {
+        return Order.builder().id(1L).orderNumber("ORD-1").customerId("cust-1")
+                .customerEmail("user@example.com").status(status).version(version).build();
+    }
+
+    private double conflicts(String operation, String outcome) {
+        return meterRegistry.counter("orders.write.conflicts", "operation", operation, "outcome", outcome).count();
+    }
+
+    private static OrderStatusRow statusRow(long id, OrderStatus status) {
+        return new OrderStatusRow(id, "ORD-" + id, "cust-" + id, "user@example.com", status,
+                new BigDecimal("10.00"), LocalDateTime.now(), 3L);
+    }
 }
@@ -0,0 +1,140 @@
+package com.ordermgmt;
+
+import com.ordermgmt.model.OutboxEvent;
+import com.ordermgmt.service.OutboxPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.*;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxPublisherTest {
+
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new OutboxPublisher(kafkaTemplate, 200, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Each event's own ack decides its outcome; a failed record does not fail the rest of the batch")
+    void reportsOutcomePerEvent() {
+        when(kafkaTemplate.send(anyString(), eq("ORD-1"), any())).thenReturn(acked());
+        when(kafkaTemplate.send(anyString(), eq("ORD-2"), any())).thenReturn(CompletableFuture.failedFuture(
+                new KafkaProducerException(null, "send failed", new RecordTooLargeException("too large"))));
+        when(kafkaTemplate.send(anyString(), eq("ORD-3"), any())).thenReturn(acked());
+
+        OutboxPublisher.Delivery delivery = publisher.publish(List.of(event(1, "ORD-1"), event(2, "ORD-2"), event(3, "ORD-3")));
+
+        assertThat(delivery.delivered()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(delivery.failed()).containsOnlyKeys(2L);
+        assertThat(delivery.failed().get(2L)).isInstanceOf(RecordTooLargeException.class);
+        assertThat(meterRegistry.counter("outbox.relay.failed", "exception", "RecordTooLargeException").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("A send that throws before queueing fails only its own event")
+    void synchronousSendFailure() {
+        when(kafkaTemplate.send(anyString(), eq("ORD-1"), any())).thenThrow(new SerializationException("bad payload"));
+        when(kafkaTemplate.send(anyString(), eq("ORD-2"), any())).thenReturn(acked());
+
+        OutboxPublisher.Delivery delivery = publisher.publish(List.of(event(1, "ORD-1"), event(2, "ORD-2")));
+
+        assertThat(delivery.delivered()).containsExactly(2L);
+        assertThat(delivery.failed().get(1L)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    @DisplayName("An event still unanswered at the send timeout counts as failed, and a late ack changes nothing")
+    void unansweredEventTimesOut() {
+        CompletableFuture<SendResult<String, Object>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), eq("ORD-1"), any())).thenReturn(acked());
+        when(kafkaTemplate.send(anyString(), eq("ORD-2"), any())).thenReturn(pending);
+
+        OutboxPublisher.Delivery delivery = publisher.publish(List.of(event(1, "ORD-1"), event(2, "ORD-2")));
+        pending.complete(null);
+
+        assertThat(delivery.delivered()).containsExactly(1L);
+        assertThat(delivery.failed().get(2L)).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("Once an event fails, later events with the same key are held and not sent; other keys carry on")
+    void sameKeyHeldBehindFailure() {
+        OutboxEvent created = event(1, "ORD-1");
+        OutboxEvent confirmed = event(2, "ORD-1");
+        OutboxEvent shipped = event(4, "ORD-1");
+        when(kafkaTemplate.send(anyString(), eq("ORD-1"), same(created.getPayload()))).thenReturn(CompletableFuture.failedFuture(
+                new KafkaProducerException(null, "send failed", new RecordTooLargeException("too large"))));
+        when(kafkaTemplate.send(anyString(), eq("ORD-2"), any())).thenReturn(acked());
+
+        OutboxPublisher.Delivery delivery = publisher.publish(List.of(created, confirmed, event(3, "ORD-2"), shipped));
+
+        assertThat(delivery.delivered()).containsExactly(3L);
+        assertThat(delivery.failed()).containsOnlyKeys(1L);
+        assertThat(delivery.held()).containsExactlyInAnyOrder(2L, 4L);
+        verify(kafkaTemplate, never()).send(anyString(), eq("ORD-1"), same(confirmed.getPayload()));
+        verify(kafkaTemplate, never()).send(anyString(), eq("ORD-1"), same(shipped.getPayload()));
+    }
+
+    @Test
+    @DisplayName("Events with the same key are sent one after another, each after the previous ack")
+    void sameKeySentInOrder() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(acked());
+        OutboxEvent created = event(1, "ORD-1");
+        OutboxEvent confirmed = event(2, "ORD-1");
+
+        OutboxPublisher.Delivery delivery = publisher.publish(List.of(created, confirmed));
+
+        assertThat(delivery.delivered()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(delivery.held()).isEmpty();
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send(anyString(), eq("ORD-1"), same(created.getPayload()));
+        inOrder.verify(kafkaTemplate).send(anyString(), eq("ORD-1"), same(confirmed.getPayload()));
+    }
+
+    @Test
+    @DisplayName("An unanswered event holds back the rest of its key instead of letting them overtake it")
+    void sameKeyHeldBehindTimeout() {
+        OutboxEvent created = event(1, "ORD-1");
+        when(kafkaTemplate.send(anyString(), eq("ORD-1"), same(created.getPayload()))).thenReturn(new CompletableFuture<>());
+
+        OutboxPublisher.Delivery delivery = publisher.publish(List.of(created, event(2, "ORD-1")));
+
+        assertThat(delivery.failed().get(1L)).isInstanceOf(TimeoutException.class);
+        assertThat(delivery.held()).containsExactly(2L);
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+    }
+
+    private static CompletableFuture<SendResult<String, Object>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static OutboxEvent event(long id, String orderNumber) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("order-events")
+                .messageKey(orderNumber)
+                .payload(Map.of("event", "ORDER_CREATED", "orderNumber", orderNumber, "eventId", "evt-" + id))
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.ordermgmt;
+
+import com.ordermgmt.service.SnowflakeOrderNumberGenerator;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    private static final long T0 = 1_735_689_600_000L;   // 2025-01-01T00:00:00Z
+
+    @Test
+    @DisplayName("Eight threads drawing four million numbers get no duplicates and increasing numbers per thread")
+    void concurrentDraws_areUnique() throws Exception {
+        SnowflakeOrderNumberGenerator generator =
+                new SnowflakeOrderNumberGenerator(7, Duration.ofSeconds(1), System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 500_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> draws = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            draws.add(pool.submit(() -> {
+                long[] ids = new long[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) ids[i] = generator.nextId();
+                return ids;
+            }));
+        }
+        start.countDown();
+
+        long[] all = new long[threads * perThread];
+        int offset = 0;
+        for (Future<long[]> draw : draws) {
+            long[] ids = draw.get(60, TimeUnit.SECONDS);
+            for (int i = 1; i < ids.length; i++) {
+                assertThat(ids[i]).as("monotonic within a thread").isGreaterThan(ids[i - 1]);
+            }
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        pool.shutdown();
+
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertThat(all[i]).as("duplicate order number").isNotEqualTo(all[i - 1]);
+        }
+    }
+
+    @Test
+    @DisplayName("Order numbers are fixed width, so their string order matches their numeric order")
+    void orderNumbers_sortLikeTheirIds() {
+        AtomicLong clock = new AtomicLong(T0);
+        SnowflakeOrderNumberGenerator generator =
+                new SnowflakeOrderNumberGenerator(3, Duration.ofSeconds(1), clock::get);
+
+        String first = generator.next();
+        clock.addAndGet(Duration.ofDays(365).toMillis());
+        String later = generator.next();
+
+        assertThat(first).startsWith("ORD-").hasSize(23);
+        assertThat(later).hasSize(23).isGreaterThan(first);
+    }
+
+    @Test
+    @DisplayName("A small backward clock step keeps numbering from the last timestamp; a large one is refused")
+    void clockStepsBack_withinAndBeyondDrift() {
+        AtomicLong clock = new AtomicLong(T0);
+        SnowflakeOrderNumberGenerator generator =
+                new SnowflakeOrderNumberGenerator(3, Duration.ofMillis(500), clock::get);
+
+        long before = generator.nextId();
+        clock.addAndGet(-200);
+        long afterSmallStep = generator.nextId();
+        clock.addAndGet(-1_000);
+
+        assertThat(afterSmallStep).isGreaterThan(before);
+        assertThatThrownBy(generator::nextId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Clock moved back");
+    }
+
+    @Test
+    @DisplayName("A used-up millisecond borrows the next one, but never runs further ahead than the drift")
+    void sequenceExhausted_borrowsWithinDrift() {
+        AtomicLong clock = new AtomicLong(T0);
+        SnowflakeOrderNumberGenerator generator =
+                new SnowflakeOrderNumberGenerator(3, Duration.ofMillis(2), clock::get);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3 * 4096; i++) ids.add(generator.nextId());
+        assertThat(ids).hasSize(3 * 4096);
+
+        // The logical clock is now two ms ahead, so the next draw waits for the wall clock
+        CompletableFuture<Long> blocked = CompletableFuture.supplyAsync(generator::nextId);
+        assertThat(blocked).isNotDone();
+        clock.addAndGet(1);
+        assertThat(blocked).succeedsWithin(Duration.ofSeconds(5))
+                .satisfies(id -> assertThat(ids).doesNotContain(id));
+    }
+
+    @Test
+    @DisplayName("Node ids outside the 10-bit range are rejected")
+    void nodeId_outOfRange() {
+        assertThatThrownBy(() -> new SnowflakeOrderNumberGenerator(1024, Duration.ZERO, System::currentTimeMillis))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
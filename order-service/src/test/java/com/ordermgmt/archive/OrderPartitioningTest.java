@@ -0,0 +1,175 @@
+package com.ordermgmt.archive;
+
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.model.Order;
+import com.ordermgmt.model.OrderItem;
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.service.OrderQueryService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Monthly partitions, their maintenance and archiving, against the real
+ * migrations. Uses an embedded Postgres started in-process, so it runs
+ * without Docker.
+ */
+@SpringBootTest(classes = OrderPartitioningTest.PartitioningConfig.class,
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"orders.archive.batch-size=2", "outbox.relay.enabled=false"})
+class OrderPartitioningTest {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final LocalDate THIS_MONTH = LocalDate.now().withDayOfMonth(1);
+
+    static final EmbeddedPostgres POSTGRES = start();
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ordermgmt.model")
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({OrderQueryService.class, OrderArchive.class, OrderArchiver.class, OrderPartitionMaintainer.class})
+    static class PartitioningConfig {}
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderQueryService orderQueries;
+    @Autowired private OrderArchive archive;
+    @Autowired private OrderArchiver archiver;
+    @Autowired private OrderPartitionMaintainer maintainer;
+    @Autowired private JdbcTemplate jdbc;
+
+    @AfterAll
+    static void stop() throws IOException {
+        POSTGRES.close();
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("TRUNCATE orders, order_archive CASCADE");
+    }
+
+    @Test
+    @DisplayName("An order and its items are stored in the partitions of the month it was created")
+    void newOrder_landsInCurrentMonth() {
+        Order order = orderRepository.save(order("cust-1", OrderStatus.PENDING, null));
+        String month = THIS_MONTH.format(MONTH);
+
+        assertThat(jdbc.queryForObject("SELECT tableoid::regclass::text FROM orders WHERE id = ?",
+                String.class, order.getId())).isEqualTo("orders_" + month);
+        assertThat(jdbc.queryForList("SELECT DISTINCT tableoid::regclass::text FROM order_items WHERE order_id = ?",
+                String.class, order.getId())).containsExactly("order_items_" + month);
+    }
+
+    @Test
+    @DisplayName("Maintenance creates the months ahead and drops past months that are empty, keeping ones with orders and last month")
+    void maintain_createsAheadAndDropsEmptyMonths() {
+        LocalDate emptyMonth = THIS_MONTH.minusMonths(24);
+        LocalDate usedMonth = THIS_MONTH.minusMonths(23);
+        LocalDate lastMonth = THIS_MONTH.minusMonths(1);
+        jdbc.queryForObject("SELECT ensure_order_partitions(?, ?)", Integer.class, emptyMonth, usedMonth);
+        jdbc.queryForObject("SELECT ensure_order_partitions(?, ?)", Integer.class, lastMonth, lastMonth);
+        orderRepository.save(order("cust-1", OrderStatus.DELIVERED, usedMonth.atTime(12, 0)));
+
+        maintainer.maintain();
+
+        assertThat(partitionExists(emptyMonth)).isFalse();
+        assertThat(partitionExists(usedMonth)).isTrue();
+        assertThat(partitionExists(lastMonth)).as("last month, though empty").isTrue();
+        IntStream.rangeClosed(0, 3).forEach(ahead ->
+                assertThat(partitionExists(THIS_MONTH.plusMonths(ahead))).as("month +%d", ahead).isTrue());
+    }
+
+    @Test
+    @DisplayName("Archiving moves old finished orders, in batches, to compressed storage that lookups can read back, "
+            + "and maintenance then drops the emptied month")
+    void archive_movesOldFinishedOrders() {
+        LocalDateTime longAgo = THIS_MONTH.minusMonths(14).atTime(9, 30);
+        jdbc.queryForObject("SELECT ensure_order_partitions(?, ?)", Integer.class,
+                longAgo.toLocalDate(), longAgo.toLocalDate());
+        List<Long> finished = IntStream.range(0, 5)
+                .mapToObj(i -> orderRepository.save(order("cust-" + i,
+                        i % 2 == 0 ? OrderStatus.DELIVERED : OrderStatus.CANCELLED, longAgo.plusHours(i))).getId())
+                .toList();
+        Long stillOpen = orderRepository.save(order("cust-9", OrderStatus.SHIPPED, longAgo)).getId();
+        Long recent = orderRepository.save(order("cust-9", OrderStatus.DELIVERED, null)).getId();
+        List<OrderResponse> before = orderQueries.findAllById(finished);
+
+        assertThat(archiver.archiveExpired()).isEqualTo(5);
+
+        assertThat(orderQueries.findAllById(finished)).isEmpty();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM order_items WHERE order_id = ANY(?)", Long.class,
+                (Object) finished.toArray(Long[]::new))).isZero();
+        assertThat(orderQueries.findAllById(List.of(stillOpen, recent))).hasSize(2);
+        for (OrderResponse order : before) {
+            assertThat(archive.findById(order.id())).contains(order);
+            assertThat(archive.findByOrderNumber(order.orderNumber())).contains(order);
+        }
+        assertThat(archiver.archiveExpired()).isZero();
+
+        maintainer.maintain();
+        assertThat(partitionExists(longAgo.toLocalDate())).as("still holds the open order").isTrue();
+        orderRepository.deleteById(stillOpen);
+        maintainer.maintain();
+        assertThat(partitionExists(longAgo.toLocalDate())).isFalse();
+        assertThat(orderQueries.findAllById(List.of(recent))).hasSize(1);
+    }
+
+    private boolean partitionExists(LocalDate month) {
+        return jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                "orders_" + month.format(MONTH));
+    }
+
+    private static Order order(String customerId, OrderStatus status, LocalDateTime createdAt) {
+        Order order = Order.builder()
+                .orderNumber("ORD-" + customerId + "-" + System.nanoTime())
+                .customerId(customerId)
+                .customerEmail("buyer@example.com")
+                .status(status)
+                .totalAmount(new BigDecimal("25.50"))
+                .createdAt(createdAt)
+                .build();
+        for (int i = 0; i < 2; i++) {
+            order.addItem(OrderItem.builder()
+                    .productId("SKU-" + i).productName("Item " + i).quantity(1)
+                    .unitPrice(new BigDecimal("12.75")).subtotal(new BigDecimal("12.75"))
+                    .build());
+        }
+        return order;
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ordermgmt.benchmark;
+
+import com.ordermgmt.archive.OrderArchive;
+import com.ordermgmt.cache.OrderCacheMaintainer;
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.service.OptimisticRetry;
+import com.ordermgmt.service.OrderQueryService;
+import com.ordermgmt.service.OrderService;
+import com.ordermgmt.service.OrderService.OrderItemRequest;
+import com.ordermgmt.service.OrderService.OrderRequest;
+import com.ordermgmt.service.SnowflakeOrderNumberGenerator;
+import com.ordermgmt.stats.OrderStatistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Status transitions per second: one updateOrderStatus call (and transaction)
+ * per order versus bulkUpdateStatus with chunked set-based UPDATEs. Every
+ * invocation moves the same orders PENDING → CONFIRMED, after a reset that
+ * is not measured. Needs Docker for the Postgres container.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main BulkStatusBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class BulkStatusBenchmark {
+
+    private static final int ORDERS_PER_OP = 1_000;
+
+    @Param({"100", "1000"})
+    private int chunkSize;
+
+    private BenchmarkEnvironment env;
+    private OrderService orderService;
+    private JdbcTemplate jdbc;
+    private List<Long> ids;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ordermgmt.model")
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({OrderService.class, OrderQueryService.class, OptimisticRetry.class, OrderCacheMaintainer.class,
+            SnowflakeOrderNumberGenerator.class, OrderStatistics.class, OrderArchive.class,
+            ConcurrentMapCacheManager.class})
+    static class BulkStatusConfig {}
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkEnvironment.start(BulkStatusConfig.class, "orders.bulk-status.chunk-size=" + chunkSize);
+        orderService = env.bean(OrderService.class);
+        jdbc = env.bean(JdbcTemplate.class);
+
+        List<OrderItemRequest> items = List.of(new OrderItemRequest("SKU-1", "Product 1", 1, new BigDecimal("19.99")));
+        ids = orderService.createOrders(IntStream.range(0, ORDERS_PER_OP)
+                        .mapToObj(i -> new OrderRequest("cust-" + i % 100, "bench@example.com", "1 Bench St", items))
+                        .toList())
+                .stream().map(OrderService.CreatedOrder::id).toList();
+    }
+
+    // Level.Invocation is fine here: one invocation is a thousand transitions, not nanoseconds
+    @Setup(Level.Invocation)
+    public void resetStatuses() {
+        jdbc.update("UPDATE orders SET status = 'PENDING'");
+        jdbc.update("DELETE FROM outbox_events");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_OP)
+    public void perOrder(Blackhole bh) {
+        for (Long id : ids) {
+            bh.consume(orderService.updateOrderStatus(id, OrderStatus.CONFIRMED));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_OP)
+    public OrderService.BulkStatusResult bulk() {
+        return orderService.bulkUpdateStatus(ids, OrderStatus.CONFIRMED);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ordermgmt.benchmark;
+
+import com.ordermgmt.config.JwtVerifier;
+import com.ordermgmt.config.TrustedHopVerifier;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost: the old filter (key and parser rebuilt for
+ * every request), a parser built once, the verified-token cache, and the
+ * gateway's signed user header. No Docker needed.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtAuthBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "your-256-bit-secret-key-change-in-production-please";
+    private static final String HOP_SECRET = "internal-hop-secret-change-in-production";
+
+    private String token;
+    private JwtParser parser;
+    private JwtVerifier verifier;
+    private TrustedHopVerifier trustedHop;
+    private String hopAuth;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        token = Jwts.builder()
+                .subject("jane@example.com")
+                .issuedAt(new Date())
+                .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        verifier = new JwtVerifier(SECRET, 100_000, Duration.ofMinutes(5));
+        verifier.verify(token);
+
+        // Signed once per trial, so max-age must outlast the run
+        trustedHop = new TrustedHopVerifier(HOP_SECRET, Duration.ofHours(1));
+        long now = Instant.now().getEpochSecond();
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(HOP_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        hopAuth = now + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(("jane@example.com\n" + now).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public String rebuiltPerRequest() {
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String prebuiltParser() {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String cachedVerifier() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public boolean trustedHopHeader() {
+        return trustedHop.verify("jane@example.com", hopAuth);
+    }
+}
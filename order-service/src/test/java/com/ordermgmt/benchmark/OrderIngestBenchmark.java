@@ -0,0 +1,91 @@
+package com.ordermgmt.benchmark;
+
+import com.ordermgmt.archive.OrderArchive;
+import com.ordermgmt.cache.OrderCacheMaintainer;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.service.OptimisticRetry;
+import com.ordermgmt.service.OrderQueryService;
+import com.ordermgmt.service.OrderService;
+import com.ordermgmt.service.OrderService.OrderItemRequest;
+import com.ordermgmt.service.OrderService.OrderRequest;
+import com.ordermgmt.service.SnowflakeOrderNumberGenerator;
+import com.ordermgmt.stats.OrderStatistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Orders ingested per second: one createOrder call (and transaction) per order
+ * versus createOrders with JDBC batching. Needs Docker for the Postgres container.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main OrderIngestBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class OrderIngestBenchmark {
+
+    private static final int ORDERS_PER_OP = 1_000;
+
+    @Param({"1", "10", "50"})
+    private int itemsPerOrder;
+
+    private BenchmarkEnvironment env;
+    private OrderService orderService;
+    private List<OrderRequest> requests;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ordermgmt.model")
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({OrderService.class, OrderQueryService.class, OptimisticRetry.class, OrderCacheMaintainer.class,
+            SnowflakeOrderNumberGenerator.class, OrderStatistics.class, OrderArchive.class,
+            ConcurrentMapCacheManager.class})
+    static class IngestConfig {}
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkEnvironment.start(IngestConfig.class);
+        orderService = env.bean(OrderService.class);
+
+        List<OrderItemRequest> items = IntStream.range(0, itemsPerOrder)
+                .mapToObj(i -> new OrderItemRequest("SKU-" + i, "Product " + i, 1 + i % 3, new BigDecimal("19.99")))
+                .toList();
+        requests = IntStream.range(0, ORDERS_PER_OP)
+                .mapToObj(i -> new OrderRequest("cust-" + i % 100, "bench@example.com", "1 Bench St", items))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_OP)
+    public void perOrder(Blackhole bh) {
+        for (OrderRequest r : requests) {
+            bh.consume(orderService.createOrder(r.customerId(), r.customerEmail(), r.shippingAddress(), r.items()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_OP)
+    public List<OrderService.CreatedOrder> batch() {
+        return orderService.createOrders(requests);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ordermgmt.benchmark;
+
+import com.ordermgmt.model.OutboxEvent;
+import com.ordermgmt.serialization.OrderEventSerializer;
+import com.ordermgmt.service.OutboxPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second through {@link OutboxPublisher} in outbox-relay batches of
+ * 500, with the producer's defaults (no linger, no compression, 16 KB
+ * batches) vs. the settings in {@code KafkaConfig}. Runs against an embedded
+ * single-node broker with a 6-partition topic, so no Docker needed.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main OutboxPublishBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutboxPublishBenchmark {
+
+    private static final String TOPIC = "order-events";
+    private static final int BATCH = 500;
+
+    @Param({"defaults", "tuned"})
+    public String producer;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private DefaultKafkaProducerFactory<String, Object> producerFactory;
+    private OutboxPublisher publisher;
+    private List<OutboxEvent> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 6, TOPIC);
+        broker.afterPropertiesSet();
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.RETRIES_CONFIG, 3);
+        if (producer.equals("tuned")) {
+            config.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+            config.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        }
+        producerFactory = new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new OrderEventSerializer(true));
+        publisher = new OutboxPublisher(new KafkaTemplate<>(producerFactory), 10_000, new SimpleMeterRegistry());
+
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) batch.add(event(i));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int publishBatch() {
+        OutboxPublisher.Delivery delivery = publisher.publish(batch);
+        if (!delivery.failed().isEmpty()) throw new IllegalStateException("Unacknowledged: " + delivery.failed());
+        return delivery.delivered().size();
+    }
+
+    private static OutboxEvent event(long id) {
+        String orderNumber = String.format("%019d", 7_100_000_000_000_000_000L + id);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("event", "ORDER_STATUS_UPDATED");
+        payload.put("orderNumber", orderNumber);
+        payload.put("customerId", "cust-" + (id % 1000));
+        payload.put("customerEmail", "customer" + (id % 1000) + "@example.com");
+        payload.put("previousStatus", "CONFIRMED");
+        payload.put("newStatus", "SHIPPED");
+        payload.put("timestamp", LocalDateTime.of(2024, 3, 1, 12, 0).plusSeconds(id).toString());
+        payload.put("eventId", UUID.nameUUIDFromBytes(Long.toString(id).getBytes()).toString());
+        return OutboxEvent.builder().id(id).topic(TOPIC).messageKey(orderNumber).payload(payload).build();
+    }
+}
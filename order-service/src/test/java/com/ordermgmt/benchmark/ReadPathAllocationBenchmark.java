@@ -0,0 +1,113 @@
+package com.ordermgmt.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermgmt.archive.OrderArchive;
+import com.ordermgmt.cache.OrderCacheMaintainer;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.service.OptimisticRetry;
+import com.ordermgmt.service.OrderQueryService;
+import com.ordermgmt.service.OrderService;
+import com.ordermgmt.service.OrderService.OrderItemRequest;
+import com.ordermgmt.service.OrderService.OrderRequest;
+import com.ordermgmt.service.SnowflakeOrderNumberGenerator;
+import com.ordermgmt.stats.OrderStatistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Load one order by id and serialize it to JSON: through the managed entity
+ * (fetch join, persistence context, dirty-check snapshot) versus the column
+ * projections behind {@link OrderQueryService}. Run with the GC profiler to
+ * compare bytes allocated per read. Needs Docker for the Postgres container.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main ReadPathAllocationBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadPathAllocationBenchmark {
+
+    private static final int ORDERS = 500;
+
+    @Param({"1", "10", "50"})
+    private int itemsPerOrder;
+
+    private BenchmarkEnvironment env;
+    private OrderRepository orderRepository;
+    private OrderQueryService orderQueries;
+    private TransactionTemplate readOnly;
+    private ObjectMapper objectMapper;
+    private long[] ids;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ordermgmt.model")
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({OrderService.class, OrderQueryService.class, OptimisticRetry.class, OrderCacheMaintainer.class,
+            SnowflakeOrderNumberGenerator.class, OrderStatistics.class, OrderArchive.class,
+            ConcurrentMapCacheManager.class})
+    static class ReadConfig {}
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkEnvironment.start(ReadConfig.class);
+        orderRepository = env.bean(OrderRepository.class);
+        orderQueries = env.bean(OrderQueryService.class);
+        objectMapper = env.bean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(env.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        List<OrderItemRequest> items = IntStream.range(0, itemsPerOrder)
+                .mapToObj(i -> new OrderItemRequest("SKU-" + i, "Product " + i, 1 + i % 3, new BigDecimal("19.99")))
+                .toList();
+        ids = env.bean(OrderService.class).createOrders(IntStream.range(0, ORDERS)
+                        .mapToObj(i -> new OrderRequest("cust-" + i % 50, "bench@example.com", "1 Bench St", items))
+                        .toList())
+                .stream().mapToLong(OrderService.CreatedOrder::id).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public byte[] entity() {
+        long id = nextId();
+        return readOnly.execute(tx -> write(orderRepository.findByIdWithItems(id).orElseThrow()));
+    }
+
+    @Benchmark
+    public byte[] projection() {
+        return write(orderQueries.findById(nextId()).orElseThrow());
+    }
+
+    private long nextId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ordermgmt.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ordermgmt.dto.OrderItemResponse;
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.serialization.OrderEventCodec;
+import com.ordermgmt.serialization.OrderRedisSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode time of the binary cache and event formats versus the Jackson
+ * path they replaced. Encoded sizes are printed once per trial. No Docker needed.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main SerializationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int itemsPerOrder;
+
+    private final GenericJackson2JsonRedisSerializer jacksonCache = new GenericJackson2JsonRedisSerializer();
+    private final OrderRedisSerializer binaryCache = new OrderRedisSerializer();
+    private final JsonSerializer<Object> jsonEvents = new JsonSerializer<>();
+    private final ObjectMapper eventMapper = new ObjectMapper();
+
+    private OrderResponse order;
+    private Map<String, Object> event;
+    private byte[] orderJson, orderBinary, eventJson, eventBinary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // No timestamps: the default GenericJackson2JsonRedisSerializer mapper cannot write java.time
+        List<OrderItemResponse> items = new ArrayList<>();
+        for (int i = 0; i < itemsPerOrder; i++) {
+            items.add(new OrderItemResponse((long) i, "SKU-" + i, "Product " + i,
+                    1 + i % 3, new BigDecimal("19.99"), new BigDecimal("39.98")));
+        }
+        order = new OrderResponse(42L, "ORD-1708956000000-000423", "cust-001", "jane@example.com",
+                OrderStatus.SHIPPED, new BigDecimal("209.97"), "1 Main St, Springfield",
+                items, null, null, 3L);
+
+        event = new LinkedHashMap<>();
+        event.put("event", "ORDER_STATUS_UPDATED");
+        event.put("orderNumber", order.orderNumber());
+        event.put("customerId", order.customerId());
+        event.put("customerEmail", order.customerEmail());
+        event.put("previousStatus", "PROCESSING");
+        event.put("newStatus", "SHIPPED");
+        event.put("timestamp", "2024-02-26T10:30:00.123456");
+
+        orderJson = jacksonCache.serialize(order);
+        orderBinary = binaryCache.serialize(order);
+        eventJson = jsonEvents.serialize("order-events", event);
+        eventBinary = OrderEventCodec.encode(event);
+        System.out.printf("%nitems=%d  order: json=%d B binary=%d B  |  event: json=%d B binary=%d B%n",
+                itemsPerOrder, orderJson.length, orderBinary.length, eventJson.length, eventBinary.length);
+    }
+
+    @Benchmark
+    public byte[] cacheEncodeJackson() {
+        return jacksonCache.serialize(order);
+    }
+
+    @Benchmark
+    public byte[] cacheEncodeBinary() {
+        return binaryCache.serialize(order);
+    }
+
+    @Benchmark
+    public Object cacheDecodeJackson() {
+        return jacksonCache.deserialize(orderJson);
+    }
+
+    @Benchmark
+    public OrderResponse cacheDecodeBinary() {
+        return binaryCache.deserialize(orderBinary);
+    }
+
+    @Benchmark
+    public byte[] eventEncodeJson() {
+        return jsonEvents.serialize("order-events", event);
+    }
+
+    @Benchmark
+    public byte[] eventEncodeBinary() {
+        return OrderEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public Map<?, ?> eventDecodeJson() throws IOException {
+        return eventMapper.readValue(eventJson, Map.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> eventDecodeBinary() {
+        return OrderEventCodec.decode(eventBinary);
+    }
+}
@@ -0,0 +1,107 @@
+package com.ordermgmt.benchmark;
+
+import com.ordermgmt.datasource.DatabaseBusyException;
+import com.ordermgmt.datasource.GuardedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time to serve {@code clients} concurrent requests shaped like order-service's:
+ * 20 ms blocked on Redis or a Kafka ack, and for one in ten a 5 ms query through
+ * a 10-connection pool. {@code platform} is Tomcat's default 200 worker threads,
+ * {@code virtual} a virtual thread per request, {@code virtual-guarded} the same
+ * behind {@code GuardedDataSource}; requests it refuses are printed per
+ * iteration. Uses an embedded Postgres, so no Docker needed.
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main VirtualThreadBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long REMOTE_WAIT_MS = 20;
+    private static final int DB_EVERY = 10;
+
+    @Param({"1000", "5000", "10000"})
+    public int clients;
+
+    @Param({"platform", "virtual", "virtual-guarded"})
+    public String mode;
+
+    private EmbeddedPostgres postgres;
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        postgres = EmbeddedPostgres.builder().setServerConfig("max_connections", "50").start();
+        pool = new HikariDataSource();
+        pool.setDataSource(postgres.getPostgresDatabase());
+        pool.setMaximumPoolSize(10);
+        pool.setMinimumIdle(10);
+        dataSource = mode.equals("virtual-guarded")
+                ? new GuardedDataSource(pool, 40, Duration.ofMillis(500), new SimpleMeterRegistry())
+                : pool;
+        executor = mode.equals("platform")
+                ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        pool.close();
+        postgres.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportRejected() {
+        long count = rejected.getAndSet(0);
+        if (count > 0) System.out.printf("  (%d requests refused by the connection guard)%n", count);
+    }
+
+    @Benchmark
+    public int serveAll() throws Exception {
+        List<Future<Integer>> requests = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            boolean queries = i % DB_EVERY == 0;
+            requests.add(executor.submit(() -> handle(queries)));
+        }
+        int served = 0;
+        for (Future<Integer> request : requests) served += request.get();
+        return served;
+    }
+
+    private int handle(boolean queries) throws InterruptedException, SQLException {
+        Thread.sleep(REMOTE_WAIT_MS);
+        if (!queries) return 1;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_sleep(0.005)");
+            return 1;
+        } catch (DatabaseBusyException e) {
+            rejected.incrementAndGet();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.ordermgmt.cache;
+
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.model.OrderStatus;
+import org.junit.jupiter.api.*;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderCacheMaintainerTest {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private ConcurrentMapCacheManager cacheManager;
+    private OrderCacheMaintainer maintainer;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(OrderCacheMaintainer.CACHE_NAME);
+        maintainer = new OrderCacheMaintainer(cacheManager);
+        cache = cacheManager.getCache(OrderCacheMaintainer.CACHE_NAME);
+    }
+
+    @Test
+    @DisplayName("Write-through caches the order under both its id and its order number")
+    void writeThrough_populatesBothKeys() {
+        OrderResponse order = snapshot(1L, OrderStatus.SHIPPED, 10);
+
+        maintainer.writeThrough(order);
+
+        assertThat(cache.get(1L, OrderResponse.class)).isSameAs(order);
+        assertThat(cache.get("ORD-1", OrderResponse.class)).isSameAs(order);
+    }
+
+    @Test
+    @DisplayName("A write carrying an older updatedAt never replaces a newer cached order")
+    void writeThrough_ignoresOlderSnapshot() {
+        OrderResponse newer = snapshot(1L, OrderStatus.SHIPPED, 20);
+        OrderResponse older = snapshot(1L, OrderStatus.CONFIRMED, 10);
+
+        maintainer.writeThrough(newer);
+        maintainer.writeThrough(older);
+
+        assertThat(cache.get(1L, OrderResponse.class)).isSameAs(newer);
+        assertThat(cache.get("ORD-1", OrderResponse.class)).isSameAs(newer);
+    }
+
+    @Test
+    @DisplayName("Evicting an order drops both of its keys")
+    void evict_removesBothKeys() {
+        OrderResponse order = snapshot(1L, OrderStatus.PENDING, 10);
+        maintainer.writeThrough(order);
+
+        maintainer.evict(order);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get("ORD-1")).isNull();
+    }
+
+    @Test
+    @DisplayName("A read fill loaded before a newer write-through committed does not replace it")
+    void readFill_losesToNewerWriteThrough() {
+        OrderResponse older = snapshot(1L, OrderStatus.CONFIRMED, 10);
+        OrderResponse newer = snapshot(1L, OrderStatus.SHIPPED, 20);
+
+        // The reader loads version 10; version 20 commits and is written through before it fills
+        OrderResponse served = maintainer.read(1L, () -> {
+            maintainer.writeThrough(newer);
+            return older;
+        });
+
+        assertThat(served).isSameAs(older);
+        assertThat(cache.get(1L, OrderResponse.class)).isSameAs(newer);
+        assertThat(cache.get("ORD-1", OrderResponse.class)).isSameAs(newer);
+    }
+
+    @Test
+    @DisplayName("A bulk eviction fences out fills of versions older than the one it committed")
+    void evictAll_fencesOutOlderFill() {
+        OrderResponse older = snapshot(1L, OrderStatus.CONFIRMED, 10);
+        maintainer.writeThrough(older);
+
+        maintainer.evictAll(List.of(new OrderCacheMaintainer.Eviction(1L, "ORD-1", 11)));
+        maintainer.read(1L, () -> older);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get("ORD-1")).isNull();
+
+        OrderResponse current = snapshot(1L, OrderStatus.SHIPPED, 11);
+        assertThat(maintainer.read("ORD-1", () -> current)).isSameAs(current);
+        assertThat(cache.get(1L, OrderResponse.class)).isSameAs(current);
+    }
+
+    @Test
+    @DisplayName("Across two instances sharing L2, a stale fill on one loses to a write-through on the other")
+    void twoInstances_staleFillLosesToPeerWrite() {
+        ConcurrentMapCache remote = new ConcurrentMapCache(OrderCacheMaintainer.CACHE_NAME);
+        VersionedCache sharedFence = new LocallyFencedCache(remote);   // stands in for the Redis script
+        // Each instance's invalidations reach the other one, as over pub/sub
+        TwoLevelCache[] peers = new TwoLevelCache[2];
+        TwoLevelCache cacheA = twoLevel(remote, sharedFence, (name, key) -> peers[1].invalidateLocal(key));
+        TwoLevelCache cacheB = twoLevel(remote, sharedFence, (name, key) -> peers[0].invalidateLocal(key));
+        peers[0] = cacheA;
+        peers[1] = cacheB;
+        OrderCacheMaintainer instanceA = new OrderCacheMaintainer(managerOf(cacheA));
+        OrderCacheMaintainer instanceB = new OrderCacheMaintainer(managerOf(cacheB));
+
+        OrderResponse older = snapshot(1L, OrderStatus.CONFIRMED, 10);
+        OrderResponse newer = snapshot(1L, OrderStatus.SHIPPED, 20);
+        instanceA.read(1L, () -> {
+            instanceB.writeThrough(newer);
+            return older;
+        });
+
+        assertThat(cacheA.get(1L, OrderResponse.class)).isSameAs(newer);
+        assertThat(cacheB.get("ORD-1", OrderResponse.class)).isSameAs(newer);
+        assertThat(remote.get(1L, OrderResponse.class)).isSameAs(newer);
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Randomized concurrent writes: readers never go back in time and both keys end at the latest state")
+    void concurrentWrites_neverServeStaleState() throws Exception {
+        int orders = 16;
+        int writers = 8;
+        int writesPerWriter = 2_000;
+        int readers = 4;
+        long seed = System.nanoTime();
+
+        AtomicLong commitClock = new AtomicLong();
+        ConcurrentMap<Long, OrderResponse> latest = new ConcurrentHashMap<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        List<Future<?>> writerTasks = new ArrayList<>();
+        List<Future<?>> readerTasks = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            Random random = new Random(seed + w);
+            writerTasks.add(pool.submit(() -> {
+                for (int i = 0; i < writesPerWriter; i++) {
+                    long id = 1 + random.nextInt(orders);
+                    // The commit order is fixed here; the cache write may then run late
+                    OrderResponse committed = snapshot(id, STATUSES[random.nextInt(STATUSES.length)],
+                            commitClock.incrementAndGet());
+                    latest.merge(id, committed,
+                            (a, b) -> a.updatedAt().isAfter(b.updatedAt()) ? a : b);
+                    if (random.nextInt(4) == 0) Thread.yield();
+                    maintainer.writeThrough(committed);
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            Random random = new Random(~seed + r);
+            readerTasks.add(pool.submit(() -> {
+                Map<Object, LocalDateTime> lastSeen = new HashMap<>();
+                while (writing.get()) {
+                    long id = 1 + random.nextInt(orders);
+                    for (Object key : List.of(id, "ORD-" + id)) {
+                        OrderResponse seen = cache.get(key, OrderResponse.class);
+                        if (seen == null) continue;
+                        LocalDateTime previous = lastSeen.put(key, seen.updatedAt());
+                        assertThat(previous == null || !seen.updatedAt().isBefore(previous))
+                                .as("stale read for key %s (seed %d)", key, seed)
+                                .isTrue();
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> f : writerTasks) f.get(30, TimeUnit.SECONDS);
+        writing.set(false);
+        for (Future<?> f : readerTasks) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        latest.forEach((id, expected) -> {
+            assertThat(cache.get(id, OrderResponse.class)).as("id %d (seed %d)", id, seed).isSameAs(expected);
+            assertThat(cache.get("ORD-" + id, OrderResponse.class)).as("number %d (seed %d)", id, seed).isSameAs(expected);
+        });
+    }
+
+    private static TwoLevelCache twoLevel(Cache remote, VersionedCache fence,
+                                          TwoLevelCache.InvalidationPublisher publisher) {
+        return new TwoLevelCache(OrderCacheMaintainer.CACHE_NAME, Caffeine.newBuilder().build(), remote,
+                publisher, fence);
+    }
+
+    private static CacheManager managerOf(Cache cache) {
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(cache));
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private static OrderResponse snapshot(long id, OrderStatus status, long tick) {
+        return new OrderResponse(id, "ORD-" + id, null, null, status, null, null,
+                List.of(), null, EPOCH.plusNanos(tick * 1_000), tick);
+    }
+}
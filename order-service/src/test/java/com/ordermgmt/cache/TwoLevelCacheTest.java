@@ -0,0 +1,105 @@
+package com.ordermgmt.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The near cache in front of Redis, with the Redis level and the pub/sub
+ * channel mocked: which level answers, how L1 is filled and invalidated, and
+ * what the per-level metrics report.
+ */
+class TwoLevelCacheTest {
+
+    private final RedisCache remote = mock(RedisCache.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TwoLevelCacheManager manager;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RedisCacheManager remoteManager = mock(RedisCacheManager.class);
+        when(remoteManager.getCache("orders")).thenReturn(remote);
+        when(remote.getCacheConfiguration()).thenReturn(RedisCacheConfiguration.defaultCacheConfig());
+        manager = new TwoLevelCacheManager(remoteManager, redisTemplate, meterRegistry, 100,
+                Duration.ofMinutes(1), Duration.ofHours(1));
+        cache = (TwoLevelCache) manager.getCache("orders");
+    }
+
+    @Test
+    @DisplayName("A value in L1 is served without asking Redis")
+    void localHit_skipsRedis() {
+        cache.put(7L, "order-7");
+
+        assertThat(cache.get(7L, String.class)).isEqualTo("order-7");
+        verify(remote, never()).get(any());
+    }
+
+    @Test
+    @DisplayName("A Redis hit fills L1, so the next read stays local")
+    void remoteHit_fillsLocal() {
+        when(remote.get(7L)).thenReturn(new SimpleValueWrapper("order-7"));
+
+        assertThat(cache.get(7L, String.class)).isEqualTo("order-7");
+        assertThat(cache.get(7L, String.class)).isEqualTo("order-7");
+
+        verify(remote, times(1)).get(7L);
+        assertThat(cache.local().getIfPresent("7")).isEqualTo("order-7");
+    }
+
+    @Test
+    @DisplayName("An invalidation from another instance evicts L1; this instance's own message is ignored")
+    void invalidation_evictsLocal() {
+        cache.put(7L, "order-7");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), published.capture());
+
+        manager.onMessage(message(published.getValue()), null);
+        assertThat(cache.local().getIfPresent("7")).as("own message").isEqualTo("order-7");
+
+        manager.onMessage(message("other-instance|orders|7"), null);
+        assertThat(cache.local().getIfPresent("7")).isNull();
+
+        cache.put(8L, "order-8");
+        manager.onMessage(message("other-instance|orders|"), null);
+        assertThat(cache.local().estimatedSize()).as("cleared").isZero();
+    }
+
+    @Test
+    @DisplayName("Hit ratios are NaN until a level has seen a lookup, then hits over lookups")
+    void hitRatio_isNaNWhenIdle() {
+        assertThat(hitRatio("local")).isNaN();
+        assertThat(hitRatio("remote")).isNaN();
+
+        when(remote.get(7L)).thenReturn(new SimpleValueWrapper("order-7"));
+        cache.get(7L);
+        cache.get(7L);
+        cache.get(8L);
+
+        assertThat(hitRatio("local")).isCloseTo(1.0 / 3, within(1e-9));
+        assertThat(hitRatio("remote")).isEqualTo(0.5);
+    }
+
+    private double hitRatio(String level) {
+        return meterRegistry.get("cache.level.hit.ratio").tags("cache", "orders", "level", level).gauge().value();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,121 @@
+package com.ordermgmt.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtAuthenticationTest {
+
+    private static final String SECRET = "test-secret-that-is-at-least-256-bits-long-for-hmac";
+    private static final String HOP_SECRET = "test-hop-secret";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    @DisplayName("A verified token is served from the cache until its exp, and not after")
+    void cachedToken_expiresWithExp() {
+        JwtVerifier verifier = new JwtVerifier(SECRET, 1_000, Duration.ofHours(1), clock);
+        String token = token("alice", SECRET, Duration.ofMinutes(10));
+
+        assertThat(verifier.verify(token)).isEqualTo("alice");
+        assertThat(verifier.verify(token)).isEqualTo("alice");
+        assertThat(verifier.cachedTokens()).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(10).plusSeconds(1));
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(verifier.cachedTokens()).isZero();
+    }
+
+    @Test
+    @DisplayName("A token without exp is re-verified after max-ttl; tampered tokens are rejected and not cached")
+    void maxTtlAndRejectedTokens() {
+        JwtVerifier verifier = new JwtVerifier(SECRET, 1_000, Duration.ofMinutes(5), clock);
+        String forever = token("bob", SECRET, null);
+        verifier.verify(forever);
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(verifier.cachedTokens()).isZero();
+        assertThat(verifier.verify(forever)).isEqualTo("bob");
+
+        String forged = token("mallory", "another-secret-that-is-also-256-bits-long-for-hmac", Duration.ofMinutes(10));
+        assertThatThrownBy(() -> verifier.verify(forged)).isInstanceOf(JwtException.class);
+        String tampered = forever.substring(0, forever.length() - 2) + "xx";
+        assertThatThrownBy(() -> verifier.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThat(verifier.cachedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("The gateway's signed user header is accepted only for the same user, the same secret and within max-age")
+    void trustedHopHeader() {
+        TrustedHopVerifier hop = new TrustedHopVerifier(HOP_SECRET, Duration.ofSeconds(30), clock);
+        String auth = hopAuth("alice", HOP_SECRET);
+
+        assertThat(hop.verify("alice", auth)).isTrue();
+        assertThat(hop.verify("bob", auth)).isFalse();
+        assertThat(hop.verify("alice", hopAuth("alice", "guessed-secret"))).isFalse();
+        assertThat(hop.verify("alice", "not-a-signature")).isFalse();
+        assertThat(hop.verify("alice", null)).isFalse();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertThat(hop.verify("alice", auth)).isFalse();
+
+        TrustedHopVerifier disabled = new TrustedHopVerifier("", Duration.ofSeconds(30), clock);
+        assertThat(disabled.enabled()).isFalse();
+        assertThat(disabled.verify("alice", hopAuth("alice", HOP_SECRET))).isFalse();
+    }
+
+    private String token(String subject, String secret, Duration ttl) {
+        var builder = Jwts.builder().subject(subject).issuedAt(Date.from(clock.instant()));
+        if (ttl != null) builder.expiration(Date.from(clock.instant().plus(ttl)));
+        return builder.signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))).compact();
+    }
+
+    private String hopAuth(String userId, String secret) {
+        long now = clock.instant().getEpochSecond();
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return now + "." + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal((userId + "\n" + now).getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ordermgmt.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GuardedDataSourceTest {
+
+    private DataSource pool;
+    private SimpleMeterRegistry meterRegistry;
+    private GuardedDataSource guarded;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(i -> mock(Connection.class));
+        meterRegistry = new SimpleMeterRegistry();
+        guarded = new GuardedDataSource(pool, 2, Duration.ofMillis(50), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Past max-concurrent held connections, getConnection fails fast with DatabaseBusyException")
+    void refusesPastLimit() throws SQLException {
+        guarded.getConnection();
+        guarded.getConnection();
+
+        assertThatThrownBy(guarded::getConnection).isInstanceOf(DatabaseBusyException.class);
+        assertThat(meterRegistry.counter("datasource.guard.rejected").count()).isEqualTo(1.0);
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Closing a connection frees its permit once, however often it is closed")
+    void closeReleasesPermitOnce() throws SQLException {
+        Connection first = guarded.getConnection();
+        guarded.getConnection();
+
+        first.close();
+        first.close();
+
+        assertThat(guarded.getConnection()).isNotNull();
+        assertThatThrownBy(guarded::getConnection).isInstanceOf(DatabaseBusyException.class);
+    }
+
+    @Test
+    @DisplayName("A pool failure gives the permit back")
+    void poolFailureReleasesPermit() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("pool timeout"));
+
+        assertThatThrownBy(guarded::getConnection).isInstanceOf(SQLException.class);
+        assertThatThrownBy(guarded::getConnection).isInstanceOf(SQLException.class);
+        assertThatThrownBy(guarded::getConnection).isInstanceOf(SQLException.class);
+        assertThat(meterRegistry.counter("datasource.guard.rejected").count()).isZero();
+    }
+}
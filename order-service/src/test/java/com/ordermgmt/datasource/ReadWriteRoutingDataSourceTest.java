@@ -0,0 +1,146 @@
+package com.ordermgmt.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.*;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Routing between two embedded Postgres instances standing in for the
+ * primary and the replica; each answer says which server it came from.
+ * Replica lag is fed to the monitor directly, since the stand-in does not
+ * replicate.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(300);
+
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        primary = EmbeddedPostgres.start();
+        replica = EmbeddedPostgres.start();
+        new JdbcTemplate(primary.getPostgresDatabase()).execute("CREATE TABLE notes (author text)");
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        primary.close();
+        replica.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lagMonitor = new ReplicaLagMonitor(replica.getPostgresDatabase(), Duration.ofSeconds(1),
+                Duration.ofSeconds(60), Duration.ofSeconds(1), meterRegistry);
+        lagMonitor.check();
+
+        DataSource routed = ReadWriteRoutingDataSource.lazy(new ReadWriteRoutingDataSource(
+                primary.getPostgresDatabase(), replica.getPostgresDatabase(), lagMonitor,
+                new ReadYourWrites(WINDOW, 1_000), meterRegistry));
+        jdbc = new JdbcTemplate(routed);
+        readWrite = new TransactionTemplate(new DataSourceTransactionManager(routed));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(routed));
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions go to the replica; read-write transactions and plain statements to the primary")
+    void routesByTransactionReadOnlyFlag() {
+        assertThat(readOnlyServer()).isEqualTo(replica.getPort());
+        assertThat(readWriteServer()).isEqualTo(primary.getPort());
+        assertThat(server()).isEqualTo(primary.getPort());
+        assertThat(meterRegistry.counter("datasource.routing", "target", "replica", "reason", "read-only").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("A replica lagging beyond max-lag, or unreachable, sends reads to the primary until it recovers")
+    void laggingOrUnreachableReplica_fallsBackToPrimary() {
+        lagMonitor.record(5_000);
+        assertThat(readOnlyServer()).isEqualTo(primary.getPort());
+
+        lagMonitor.record(200);
+        assertThat(readOnlyServer()).isEqualTo(replica.getPort());
+
+        PGSimpleDataSource nowhere = new PGSimpleDataSource();
+        nowhere.setURL("jdbc:postgresql://localhost:1/postgres");
+        ReplicaLagMonitor unreachable = new ReplicaLagMonitor(nowhere, Duration.ofSeconds(1),
+                Duration.ofSeconds(60), Duration.ofSeconds(1), new SimpleMeterRegistry());
+        unreachable.check();
+        assertThat(unreachable.replicaUsable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("After a user's write commits, that user's reads stay on the primary for the window; others' do not")
+    void readYourWrites_pinsWriterToPrimary() throws Exception {
+        as("alice");
+        readWrite.executeWithoutResult(s -> write("alice"));
+        as("bob");
+        assertThat(readWriteServer()).as("read-write, but only read").isEqualTo(primary.getPort());
+        as("carol");
+        readWrite.executeWithoutResult(s -> {
+            write("carol");
+            s.setRollbackOnly();
+        });
+
+        as("alice");
+        assertThat(readOnlyServer()).isEqualTo(primary.getPort());
+        as("bob");
+        assertThat(readOnlyServer()).as("read nothing it wrote").isEqualTo(replica.getPort());
+        as("carol");
+        assertThat(readOnlyServer()).as("rolled back, so not pinned").isEqualTo(replica.getPort());
+
+        Thread.sleep(WINDOW.toMillis() + 100);
+        lagMonitor.check();
+        as("alice");
+        assertThat(readOnlyServer()).isEqualTo(replica.getPort());
+    }
+
+    private int readOnlyServer() {
+        return readOnly.execute(s -> server());
+    }
+
+    private int readWriteServer() {
+        return readWrite.execute(s -> server());
+    }
+
+    private void write(String author) {
+        jdbc.update("INSERT INTO notes VALUES (?)", author);
+    }
+
+    private int server() {
+        return jdbc.queryForObject("SELECT current_setting('port')::int", Integer.class);
+    }
+
+    private static void as(String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
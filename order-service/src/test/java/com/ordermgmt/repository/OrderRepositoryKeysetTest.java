@@ -0,0 +1,115 @@
+package com.ordermgmt.repository;
+
+import com.ordermgmt.model.Order;
+import com.ordermgmt.model.OrderStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The keyset queries against the real schema, so a query Hibernate cannot
+ * build fails here rather than at startup. Uses an embedded Postgres
+ * started in-process, so it runs without Docker.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderRepositoryKeysetTest {
+
+    private static final LocalDateTime MONTH_START = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    static final EmbeddedPostgres POSTGRES = start();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired private OrderRepository orderRepository;
+
+    @AfterAll
+    static void stop() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    @DisplayName("Paging newest first visits every order once, including orders created at the same instant")
+    void pagesThroughTiedTimestamps() {
+        // Three orders per hour, so every page boundary can fall inside a tie
+        List<OrderRow> expected = IntStream.range(0, 12)
+                .mapToObj(i -> save("cust-" + (i % 2), MONTH_START.plusHours(i / 3)))
+                .map(o -> orderRepository.findRowById(o.getId()).orElseThrow())
+                .sorted(Comparator.comparing(OrderRow::createdAt).thenComparing(OrderRow::id).reversed())
+                .toList();
+
+        List<OrderRow> seen = new ArrayList<>();
+        LocalDateTime createdAt = FAR_FUTURE;
+        long id = Long.MAX_VALUE;
+        List<OrderRow> page;
+        do {
+            page = orderRepository.findRowsBefore(createdAt, id, PageRequest.of(0, 5));
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                createdAt = page.get(page.size() - 1).createdAt();
+                id = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == 5);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("The customer and date-range seeks keep their filter and resume after the cursor")
+    void filteredSeeks() {
+        Order first = save("cust-a", MONTH_START.plusHours(1));
+        Order tied = save("cust-a", MONTH_START.plusHours(1));
+        save("cust-b", MONTH_START.plusHours(1));
+        Order later = save("cust-a", MONTH_START.plusHours(5));
+
+        assertThat(orderRepository.findCustomerRowsBefore("cust-a", later.getCreatedAt(), later.getId(),
+                PageRequest.of(0, 10))).extracting(OrderRow::id).containsExactly(tied.getId(), first.getId());
+        assertThat(orderRepository.findDateRangeRowsBefore(MONTH_START, MONTH_START.plusHours(2),
+                FAR_FUTURE, Long.MAX_VALUE, PageRequest.of(0, 10))).hasSize(3);
+        assertThat(orderRepository.findDateRangeRowsBefore(MONTH_START, MONTH_START.plusHours(2),
+                tied.getCreatedAt(), tied.getId(), PageRequest.of(0, 10)))
+                .extracting(OrderRow::id).containsExactly(first.getId());
+    }
+
+    private Order save(String customerId, LocalDateTime createdAt) {
+        return orderRepository.saveAndFlush(Order.builder()
+                .orderNumber("ORD-" + customerId + "-" + System.nanoTime())
+                .customerId(customerId)
+                .customerEmail("buyer@example.com")
+                .status(OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("25.50"))
+                .createdAt(createdAt)
+                .build());
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ordermgmt.repository;
+
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.model.Order;
+import com.ordermgmt.model.OrderItem;
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.service.OrderQueryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.*;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Counts the SQL statements Hibernate prepares for a page of a customer's
+ * orders through the read-model projections. Runs against Postgres in Docker and is skipped without it.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(OrderQueryService.class)
+class OrderRepositoryQueryCountTest {
+
+    private static final String CUSTOMER = "b2b-customer";
+    private static final int ORDERS = 60;
+    private static final int ITEMS_PER_ORDER = 4;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderQueryService orderQueries;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        IntStream.range(0, ORDERS).forEach(i -> orderRepository.save(order(CUSTOMER, i)));
+        IntStream.range(0, 10).forEach(i -> orderRepository.save(order("someone-else", i)));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 10, 20})
+    @DisplayName("A customer page with items costs three statements (rows, count, items) whatever its size")
+    void customerPage_hasFixedQueryCount(int size) {
+        Pageable pageable = PageRequest.of(1, size, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        Page<OrderResponse> page = orderQueries.findByCustomer(CUSTOMER, pageable);
+        int items = page.getContent().stream().mapToInt(o -> o.items().size()).sum();
+
+        assertThat(page.getContent()).hasSize(size).allMatch(o -> o.customerId().equals(CUSTOMER));
+        assertThat(page.getTotalElements()).isEqualTo(ORDERS);
+        assertThat(items).isEqualTo(size * ITEMS_PER_ORDER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Pages keep the requested sort order and do not overlap")
+    void customerPages_areOrderedAndDisjoint() {
+        Sort byIdDesc = Sort.by(Sort.Direction.DESC, "id");
+
+        Page<OrderResponse> first = orderQueries.findByCustomer(CUSTOMER, PageRequest.of(0, 10, byIdDesc));
+        Page<OrderResponse> second = orderQueries.findByCustomer(CUSTOMER, PageRequest.of(1, 10, byIdDesc));
+
+        assertThat(first.getContent()).extracting(OrderResponse::id).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(second.getContent().get(0).id()).isLessThan(first.getContent().get(9).id());
+    }
+
+    private static Order order(String customerId, int n) {
+        Order order = Order.builder()
+                .orderNumber("ORD-" + customerId + "-" + n)
+                .customerId(customerId)
+                .customerEmail("buyer@example.com")
+                .status(OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("40.00"))
+                .build();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            order.addItem(OrderItem.builder()
+                    .productId("SKU-" + i).productName("Item " + i).quantity(1)
+                    .unitPrice(new BigDecimal("10.00")).subtotal(new BigDecimal("10.00"))
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ordermgmt.serialization;
+
+import com.ordermgmt.dto.OrderItemResponse;
+import com.ordermgmt.dto.OrderResponse;
+import com.ordermgmt.model.OrderStatus;
+import org.junit.jupiter.api.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderSerializationTest {
+
+    private final OrderRedisSerializer serializer = new OrderRedisSerializer();
+
+    @Test
+    @DisplayName("A cached order round-trips through the binary format with its items")
+    void order_roundTrips() {
+        OrderResponse order = sampleOrder(LocalDateTime.of(2024, 2, 26, 10, 30, 0, 123_000_000),
+                LocalDateTime.of(2024, 2, 27, 8, 0));
+
+        assertThat(serializer.deserialize(serializer.serialize(order))).isEqualTo(order);
+    }
+
+    @Test
+    @DisplayName("Entries in another format (e.g. old JSON) read as cache misses")
+    void order_unknownFormat_isMiss() {
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(Map.of("id", 1));
+
+        assertThat(serializer.deserialize(json)).isNull();
+    }
+
+    @Test
+    @DisplayName("Binary order cache entries are smaller than the Jackson ones they replace")
+    void order_isSmallerThanJson() {
+        // the default Jackson mapper has no java.time support
+        OrderResponse order = sampleOrder(null, null);
+
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(order);
+
+        assertThat(serializer.serialize(order).length).isLessThan(json.length);
+    }
+
+    @Test
+    @DisplayName("Order events round-trip and keep totalAmount as a decimal")
+    void event_roundTrips() {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("event", "ORDER_CREATED");
+        event.put("orderNumber", "ORD-1");
+        event.put("customerEmail", "jane@example.com");
+        event.put("totalAmount", new BigDecimal("209.97"));
+        event.put("eventId", "5f0c6c1e-2d4b-4a57-9f1e-0c2f6d3b8a41");
+
+        byte[] encoded = OrderEventCodec.encode(event);
+
+        assertThat(OrderEventCodec.isBinary(encoded)).isTrue();
+        assertThat(OrderEventCodec.decode(encoded)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Amounts read back from the jsonb outbox as doubles are encoded as plain decimals")
+    void event_normalisesDoubleAmounts() {
+        Map<String, Object> decoded = OrderEventCodec.decode(
+                OrderEventCodec.encode(Map.of("totalAmount", 1.0E7)));
+
+        assertThat(decoded.get("totalAmount")).isEqualTo(new BigDecimal("10000000"));
+    }
+
+    @Test
+    @DisplayName("Decoders skip tags added by a newer producer")
+    void event_skipsUnknownTags() {
+        byte[] known = OrderEventCodec.encode(Map.of("orderNumber", "ORD-1"));
+        byte[] future = new byte[known.length + 6];
+        System.arraycopy(known, 0, future, 0, known.length - 1);
+        int i = known.length - 1;
+        future[i++] = 42;                                   // unknown tag
+        future[i++] = 0;
+        future[i++] = 3;
+        System.arraycopy("new".getBytes(StandardCharsets.UTF_8), 0, future, i, 3);
+        future[future.length - 1] = 0;                      // end marker
+
+        assertThat(OrderEventCodec.decode(future)).containsExactly(Map.entry("orderNumber", "ORD-1"));
+    }
+
+    @Test
+    @DisplayName("JSON payloads are never mistaken for binary events")
+    void event_jsonIsNotBinary() {
+        assertThat(OrderEventCodec.isBinary("{\"event\":\"ORDER_CREATED\"}".getBytes(StandardCharsets.UTF_8)))
+                .isFalse();
+    }
+
+    private static OrderResponse sampleOrder(LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new OrderResponse(42L, "ORD-1708956000000-000423", "cust-001", "jane@example.com",
+                OrderStatus.SHIPPED, new BigDecimal("209.97"), "1 Main St, Springfield",
+                List.of(new OrderItemResponse(1L, "SKU-1", "Mechanical Keyboard", 1,
+                                new BigDecimal("129.99"), new BigDecimal("129.99")),
+                        new OrderItemResponse(2L, "SKU-2", "Wireless Mouse", 2,
+                                new BigDecimal("39.99"), new BigDecimal("79.98"))),
+                createdAt, updatedAt, 3L);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ordermgmt.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Node id leases against the real migrations on an embedded Postgres. Small
+ * id spaces stand in for the 1024 ids, so running out is quick to reach.
+ */
+class NodeIdLeaseTest {
+
+    private static final Duration TTL = Duration.ofSeconds(60);
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbc.execute("TRUNCATE order_number_node_leases");
+    }
+
+    @Test
+    @DisplayName("Live instances get distinct node ids, and startup fails once every id is held")
+    void distinctIdsUntilExhausted() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(NodeIdLease.acquire(jdbc, 3, TTL).nodeId());
+        }
+
+        assertThat(ids).containsExactlyInAnyOrder(0L, 1L, 2L, 3L);
+        assertThatThrownBy(() -> NodeIdLease.acquire(jdbc, 3, TTL))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No free order number node id");
+    }
+
+    @Test
+    @DisplayName("However often the start sequence wraps, an id whose holder still heartbeats is never handed out")
+    void wrappedSequenceSkipsLiveHolder() {
+        NodeIdLease running = NodeIdLease.acquire(jdbc, 1, TTL);
+        for (int restart = 0; restart < 10; restart++) {
+            NodeIdLease restarted = NodeIdLease.acquire(jdbc, 1, TTL);
+            assertThat(restarted.nodeId()).isNotEqualTo(running.nodeId());
+            restarted.release();
+            assertThat(running.renew()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("An expired lease can be taken over, and its old holder finds out at its next heartbeat")
+    void expiredLeaseIsTakenOver() {
+        NodeIdLease stalled = NodeIdLease.acquire(jdbc, 0, TTL);
+        jdbc.update("UPDATE order_number_node_leases SET heartbeat_at = now() - interval '2 minutes'");
+
+        NodeIdLease successor = NodeIdLease.acquire(jdbc, 0, TTL);
+
+        assertThat(successor.nodeId()).isEqualTo(stalled.nodeId());
+        assertThat(stalled.renew()).isFalse();
+        assertThat(stalled.isHeld()).isFalse();
+        assertThat(successor.renew()).isTrue();
+    }
+
+    @Test
+    @DisplayName("A holder stops counting its lease as held before the TTL runs out without a heartbeat")
+    void leaseLapsesWithoutHeartbeat() throws InterruptedException {
+        NodeIdLease lease = NodeIdLease.acquire(jdbc, 0, Duration.ofMillis(400));
+        assertThat(lease.isHeld()).isTrue();
+
+        Thread.sleep(350);
+
+        assertThat(lease.isHeld()).isFalse();
+    }
+}
@@ -0,0 +1,194 @@
+package com.ordermgmt.stats;
+
+import com.ordermgmt.model.OrderStatus;
+import com.ordermgmt.repository.DailyRevenueRow;
+import com.ordermgmt.repository.OrderRepository;
+import com.ordermgmt.repository.StatusCountRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderStatisticsTest {
+
+    private static final BigDecimal TEN = new BigDecimal("10.00");
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private OrderRepository orderRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = new OrderStatistics(orderRepository, meterRegistry);
+        statistics.registerMetrics();
+    }
+
+    @Test
+    @DisplayName("Eight threads creating and confirming orders leave exact status counts and revenue")
+    void concurrentWrites_areCountedExactly() throws Exception {
+        int threads = 8;
+        int perThread = 10_000;
+        LocalDate today = LocalDate.now();
+
+        runConcurrently(threads, t -> {
+            for (int i = 0; i < perThread; i++) {
+                statistics.record(new OrderChange("cust-" + t, TEN, today, null, OrderStatus.PENDING));
+                if (i % 2 == 0) {
+                    statistics.record(new OrderChange("cust-" + t, TEN, today, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+                }
+            }
+        });
+
+        OrderStats stats = statistics.snapshot(1, "cust-3");
+        assertThat(stats.statusCounts())
+                .containsEntry(OrderStatus.PENDING, (long) threads * perThread / 2)
+                .containsEntry(OrderStatus.CONFIRMED, (long) threads * perThread / 2);
+        assertThat(stats.totalOrders()).isEqualTo((long) threads * perThread);
+        assertThat(stats.daily()).singleElement().satisfies(day -> {
+            assertThat(day.orders()).isEqualTo((long) threads * perThread);
+            assertThat(day.revenue()).isEqualByComparingTo(TEN.multiply(BigDecimal.valueOf((long) threads * perThread)));
+        });
+        assertThat(stats.customer().orders()).isEqualTo(perThread);
+    }
+
+    @RepeatedTest(3)
+    @DisplayName("Reconciling during concurrent writes stays within the writes in flight, and the next pass is exact")
+    void reconcileDuringWrites_boundedThenExact() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        // The database: a write lands here at commit, and in the statistics just after
+        long[] ledger = new long[STATUSES.length];
+        when(orderRepository.countGroupedByStatus()).thenAnswer(inv -> {
+            synchronized (ledger) {
+                List<StatusCountRow> rows = new ArrayList<>();
+                for (OrderStatus s : STATUSES) rows.add(new StatusCountRow(s, ledger[s.ordinal()]));
+                return rows;
+            }
+        });
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CompletableFuture<Void> reconciler = CompletableFuture.runAsync(() -> {
+            while (writing.get()) {
+                statistics.reconcile();
+                // Mocks keep every invocation, so pace the passes rather than spin
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+        runConcurrently(threads, t -> {
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < perThread; i++) {
+                commit(ledger, null, OrderStatus.PENDING);
+                statistics.record(new OrderChange("cust-" + t, TEN, today, null, OrderStatus.PENDING));
+                if (i % 3 == 0) {
+                    commit(ledger, OrderStatus.PENDING, OrderStatus.CANCELLED);
+                    statistics.record(new OrderChange("cust-" + t, TEN, today, OrderStatus.PENDING, OrderStatus.CANCELLED));
+                }
+            }
+        });
+        writing.set(false);
+        reconciler.get(30, TimeUnit.SECONDS);
+
+        // Only writes that committed between a swap and its query can be counted twice
+        Map<OrderStatus, Long> settled = statistics.snapshot(1, null).statusCounts();
+        for (OrderStatus s : STATUSES) {
+            assertThat(Math.abs(settled.get(s) - ledger[s.ordinal()])).as("%s", s).isLessThanOrEqualTo(threads);
+        }
+
+        statistics.reconcile();
+        Map<OrderStatus, Long> exact = statistics.snapshot(1, null).statusCounts();
+        for (OrderStatus s : STATUSES) {
+            assertThat(exact.get(s)).as("%s", s).isEqualTo(ledger[s.ordinal()]);
+        }
+        assertThat(meterRegistry.get("orders.stats.drift").gauge().value()).isLessThanOrEqualTo(2.0 * threads);
+    }
+
+    @Test
+    @DisplayName("Revenue is split by day and customer, cancellations take it back, and old orders only count by status")
+    void revenue_byDayAndCustomer() {
+        LocalDate today = LocalDate.now();
+        LocalDate twoDaysAgo = today.minusDays(2);
+        statistics.record(new OrderChange("cust-a", new BigDecimal("12.50"), today, null, OrderStatus.PENDING));
+        statistics.record(new OrderChange("cust-a", new BigDecimal("7.25"), twoDaysAgo, null, OrderStatus.PENDING));
+        statistics.record(new OrderChange("cust-b", new BigDecimal("100.00"), today, null, OrderStatus.PENDING));
+        statistics.record(new OrderChange("cust-b", new BigDecimal("100.00"), today, OrderStatus.PENDING, OrderStatus.CANCELLED));
+        statistics.record(new OrderChange("cust-a", new BigDecimal("12.50"), today, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        statistics.record(new OrderChange("cust-a", new BigDecimal("99.00"), today.minusDays(200), null, OrderStatus.PENDING));
+
+        OrderStats stats = statistics.snapshot(3, "cust-a");
+
+        assertThat(stats.totalOrders()).isEqualTo(4);
+        assertThat(stats.statusCounts())
+                .containsEntry(OrderStatus.PENDING, 2L)
+                .containsEntry(OrderStatus.CONFIRMED, 1L)
+                .containsEntry(OrderStatus.CANCELLED, 1L);
+        assertThat(stats.daily()).extracting(OrderStats.DailyRevenue::day)
+                .containsExactly(twoDaysAgo, today.minusDays(1), today);
+        assertThat(stats.daily()).extracting(OrderStats.DailyRevenue::revenue)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("7.25"), BigDecimal.ZERO, new BigDecimal("12.50"));
+        assertThat(stats.customer().orders()).isEqualTo(2);
+        assertThat(stats.customer().revenue()).isEqualByComparingTo("19.75");
+        assertThat(statistics.snapshot(1, "cust-b").customer().revenue()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Reconciliation replaces the in-memory figures with the database's, and later writes add to them")
+    void reconcile_replacesBase() {
+        LocalDate today = LocalDate.now();
+        statistics.record(new OrderChange("cust-a", TEN, today, null, OrderStatus.PENDING));
+        when(orderRepository.countGroupedByStatus())
+                .thenReturn(List.of(new StatusCountRow(OrderStatus.SHIPPED, 5L)));
+        when(orderRepository.revenueByDaySince(any(), eq(OrderStatus.CANCELLED)))
+                .thenReturn(List.of(new DailyRevenueRow(today, 5L, new BigDecimal("250.00"))));
+
+        statistics.reconcile();
+        statistics.record(new OrderChange("cust-a", TEN, today, null, OrderStatus.PENDING));
+
+        OrderStats stats = statistics.snapshot(1, null);
+        assertThat(stats.statusCounts())
+                .containsEntry(OrderStatus.SHIPPED, 5L)
+                .containsEntry(OrderStatus.PENDING, 1L);
+        assertThat(stats.daily().get(0).revenue()).isEqualByComparingTo("260.00");
+        assertThat(stats.reconciledAt()).isNotNull();
+        assertThat(stats.customer()).isNull();
+    }
+
+    private static void commit(long[] ledger, OrderStatus from, OrderStatus to) {
+        synchronized (ledger) {
+            if (from != null) ledger[from.ordinal()]--;
+            ledger[to.ordinal()]++;
+        }
+    }
+
+    private interface Writer {
+        void run(int thread);
+    }
+
+    private static void runConcurrently(int threads, Writer writer) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            tasks.add(pool.submit(() -> {
+                start.await();
+                writer.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : tasks) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+}